@@ -8,6 +8,16 @@ public interface JnlpDownloadProtocolConstants {
     String CONTENT_ENCODING_HEADER = "Content-Encoding";
     String CONTENT_TYPE_HEADER = "Content-Type";
     String LAST_MODIFIED_HEADER = "Last-Modified";
+    String REPR_DIGEST_HEADER = "Repr-Digest";
+    String CONTENT_DIGEST_HEADER = "Content-Digest";
+    String DIGEST_HEADER = "Digest";
+    String ETAG_HEADER = "ETag";
+    String RANGE_HEADER = "Range";
+    String IF_RANGE_HEADER = "If-Range";
+    String CONTENT_RANGE_HEADER = "Content-Range";
+    String ACCEPT_RANGES_HEADER = "Accept-Ranges";
+    String IF_NONE_MATCH_HEADER = "If-None-Match";
+    String IF_MODIFIED_SINCE_HEADER = "If-Modified-Since";
 
     String VERSION_ID_HEADER = "x-java-jnlp-version-id";
 
@@ -16,6 +26,7 @@ public interface JnlpDownloadProtocolConstants {
 
     String PACK_200_OR_GZIP = "pack200-gzip, gzip";
     String INVALID_HTTP_RESPONSE = "Invalid Http response";
+    String BYTES_RANGE_UNIT = "bytes";
 
     String VERSION_ID_QUERY_PARAM = "version-id";
     String CURRENT_VERSION_ID_QUERY_PARAM = "current-version-id";
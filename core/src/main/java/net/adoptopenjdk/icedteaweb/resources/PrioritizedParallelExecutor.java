@@ -1,9 +1,10 @@
 package net.adoptopenjdk.icedteaweb.resources;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
@@ -37,6 +38,7 @@ public class PrioritizedParallelExecutor {
      * Executions of lower priority are canceled as soon as a higher priority result has successfully been calculated.
      * The returned {@link Future} will complete as soon as the first callable completed successfully and all other
      * callables with higher priority (if any) have completed exceptionally.
+     * Canceling the returned {@link Future} will cancel all executions which are still running.
      *
      * @param callables the callables to execute.
      * @return a future holding the best result from all callables.
@@ -46,29 +48,102 @@ public class PrioritizedParallelExecutor {
             throw new IllegalArgumentException("No callables");
         }
 
-        final CompletableFuture<V> futureResult = new CompletableFuture<>();
-        final List<Exception> exceptions = new ArrayList<>();
-        for (Callable<V> next : callables) {
-            try {
-                futureResult.complete(executor.submit(next).get());
-                return futureResult;
-            } catch (Exception e) {
-                exceptions.add(e);
-                // continue with next callable
+        final Execution<V> execution = new Execution<>(callables.size());
+        for (int i = 0; i < callables.size(); i++) {
+            final int index = i;
+            final Callable<V> callable = callables.get(i);
+            execution.setTask(index, executor.submit(() -> {
+                try {
+                    execution.success(index, callable.call());
+                } catch (Exception e) {
+                    execution.failure(index, e);
+                } catch (Throwable t) {
+                    // an error must still mark the callable as done, otherwise the result would never complete
+                    execution.failure(index, new ExecutionException(t));
+                }
+            }));
+        }
+        return execution.result;
+    }
+
+    /**
+     * Keeps track of the outcome of every callable and decides when the overall result is known.
+     */
+    private static class Execution<V> {
+
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final Future<?>[] tasks;
+        private final Object[] values;
+        private final Exception[] exceptions;
+        private final boolean[] done;
+
+        private Execution(final int size) {
+            tasks = new Future<?>[size];
+            values = new Object[size];
+            exceptions = new Exception[size];
+            done = new boolean[size];
+            result.whenComplete((v, e) -> {
+                if (result.isCancelled()) {
+                    cancelTasksAfter(-1);
+                }
+            });
+        }
+
+        private synchronized void setTask(final int index, final Future<?> task) {
+            tasks[index] = task;
+            if (result.isDone() && !done[index]) {
+                // the result was determined before this task has been submitted
+                task.cancel(true);
             }
         }
 
-        futureResult.completeExceptionally(getFailureReason(exceptions));
-        return futureResult;
-    }
+        private synchronized void success(final int index, final V value) {
+            values[index] = value;
+            done[index] = true;
+            evaluate();
+        }
 
-    private Exception getFailureReason(List<Exception> exceptions) {
-        if (exceptions.size() == 1) {
-            return exceptions.get(0);
-        } else {
-            return new RuntimeException("All callables completed exceptionally:" + LIST_PREFIX +
-                    exceptions.stream().map(Exception::getMessage).collect(Collectors.joining(LIST_PREFIX)));
+        private synchronized void failure(final int index, final Exception exception) {
+            exceptions[index] = exception;
+            done[index] = true;
+            evaluate();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void evaluate() {
+            if (result.isDone()) {
+                return;
+            }
+            for (int i = 0; i < done.length; i++) {
+                if (!done[i]) {
+                    // a callable with higher priority is still running
+                    return;
+                }
+                if (exceptions[i] == null) {
+                    result.complete((V) values[i]);
+                    cancelTasksAfter(i);
+                    return;
+                }
+            }
+            result.completeExceptionally(getFailureReason());
         }
-    }
 
+        private synchronized void cancelTasksAfter(final int index) {
+            for (int i = index + 1; i < tasks.length; i++) {
+                if (tasks[i] != null && !done[i]) {
+                    tasks[i].cancel(true);
+                }
+            }
+        }
+
+        private Exception getFailureReason() {
+            final List<Exception> failures = Arrays.asList(exceptions);
+            if (failures.size() == 1) {
+                return failures.get(0);
+            } else {
+                return new RuntimeException("All callables completed exceptionally:" + LIST_PREFIX +
+                        failures.stream().map(Exception::getMessage).collect(Collectors.joining(LIST_PREFIX)));
+            }
+        }
+    }
 }
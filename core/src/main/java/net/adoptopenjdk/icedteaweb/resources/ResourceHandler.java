@@ -5,6 +5,7 @@ import net.adoptopenjdk.icedteaweb.client.BasicExceptionDialog;
 import net.adoptopenjdk.icedteaweb.i18n.Translator;
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
 import net.adoptopenjdk.icedteaweb.resources.downloader.ResourceDownloader;
 import net.adoptopenjdk.icedteaweb.resources.initializer.InitializationResult;
 import net.adoptopenjdk.icedteaweb.resources.initializer.ResourceInitializer;
@@ -50,6 +51,36 @@ class ResourceHandler {
         return result;
     }
 
+    /**
+     * Initializes all resources which can be served from the cache without contacting a server.
+     * This is done in a single cache transaction so the cache index is locked, loaded and written only once.
+     * Resources which need network access are left untouched and are handled by {@link #putIntoCache}.
+     */
+    static void initFromCache(final Resource... resources) {
+        Cache.runInTransaction(() -> {
+            for (Resource resource : resources) {
+                // same lock as Resource.putIntoCache, so a download cannot start between the check and the init
+                synchronized (resource) {
+                    if (canBeInitializedFromCache(resource)) {
+                        try {
+                            ResourceInitializer.of(resource).initFromCacheOnly();
+                        } catch (Exception e) {
+                            LOG.debug("Failed to initialize resource '{}' from cache", resource.getSimpleName(), e);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    private static boolean canBeInitializedFromCache(final Resource resource) {
+        final URL location = resource.getLocation();
+        return !resource.isComplete()
+                && !resource.isBeingProcessed()
+                && !isNonCacheable(location)
+                && isUrlInWhitelist(location, getApplicationUrlWhiteList());
+    }
+
     private static Resource initNoneCacheableResources(final Resource resource) {
         resource.setStatus(DOWNLOADED);
         if (resource.getLocation().getProtocol().equals(FILE_PROTOCOL)) {
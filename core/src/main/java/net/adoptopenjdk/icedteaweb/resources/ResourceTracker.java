@@ -383,6 +383,8 @@ public class ResourceTracker {
             return;
         }
 
+        ResourceHandler.initFromCache(resources);
+
         final int threadCount = Math.min(getConfiguredThreadCount(), resources.length);
         final ExecutorService downloadExecutor = createFixedDaemonThreadPool(threadCount);
         try {
@@ -402,12 +404,8 @@ public class ResourceTracker {
     }
 
     private int getConfiguredThreadCount() {
-        try {
-            final String configValue = JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_PARALLEL_RESOURCE_DOWNLOAD_COUNT);
-            return Integer.parseInt(configValue);
-        } catch (Exception e) {
-            return ConfigurationConstants.DEFAULT_PARALLEL_RESOURCE_DOWNLOAD_COUNT;
-        }
+        return JNLPRuntime.getConfiguration().getSnapshot()
+                .getInt(ConfigurationConstants.KEY_PARALLEL_RESOURCE_DOWNLOAD_COUNT, ConfigurationConstants.DEFAULT_PARALLEL_RESOURCE_DOWNLOAD_COUNT);
     }
 
     private Future<Resource> triggerDownloadFor(Resource resource, final Executor downloadExecutor) {
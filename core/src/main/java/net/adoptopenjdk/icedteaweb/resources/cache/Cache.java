@@ -8,9 +8,9 @@ import net.sourceforge.jnlp.util.WindowsShortcutManager;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static net.sourceforge.jnlp.cache.CacheUtil.isNonCacheable;
@@ -66,9 +66,97 @@ public class Cache {
         return CacheImpl.getInstance().getCacheFile(key);
     }
 
-    public static File addToCache(DownloadInfo infoFromRemote, InputStream unpackedStream) throws IOException {
+    /**
+     * Moves an already downloaded file into the cache.
+     * The file should have been created by {@link #createTempFile()} to allow an atomic move.
+     *
+     * @param infoFromRemote  the info about the downloaded resource
+     * @param downloadedFile the file holding the complete content of the resource
+     * @return the file location in the cache
+     * @throws IOException if the file could not be moved into the cache
+     */
+    public static File addToCache(DownloadInfo infoFromRemote, File downloadedFile) throws IOException {
+        assertLocationIsCacheable(infoFromRemote.getCacheKey().getLocation());
+        return CacheImpl.getInstance().addToCache(infoFromRemote, downloadedFile);
+    }
+
+    /**
+     * Checks whether content with the given digest is already stored in the cache.
+     *
+     * @param contentDigest the SHA-256 digest as created by {@link ContentDigest}
+     * @return true if the content is available without downloading it
+     */
+    public static boolean hasContent(final String contentDigest) {
+        return CacheImpl.getInstance().hasContent(contentDigest);
+    }
+
+    /**
+     * Adds a resource to the cache using content which is already stored in the cache.
+     *
+     * @param infoFromRemote the info about the resource including the digest of its content
+     * @return the file location in the cache or empty if the content is not stored in the cache
+     * @throws IOException if the entry could not be created
+     */
+    public static Optional<File> addToCacheFromContentStore(final DownloadInfo infoFromRemote) throws IOException {
         assertLocationIsCacheable(infoFromRemote.getCacheKey().getLocation());
-        return CacheImpl.getInstance().addToCache(infoFromRemote, unpackedStream);
+        return CacheImpl.getInstance().addToCacheFromContentStore(infoFromRemote);
+    }
+
+    /**
+     * Returns a file to store additional data about a cached file.
+     * The file is located in the same cache entry and is deleted together with it.
+     *
+     * @param cacheFile a file returned by {@link #getCacheFile(URL, VersionId)}
+     * @param name      the name identifying the kind of data
+     * @return the file for the data or empty if the given file is not located in the cache
+     */
+    public static Optional<File> getSidecarFile(final File cacheFile, final String name) {
+        return CacheImpl.getInstance().getSidecarFile(cacheFile, name);
+    }
+
+    /**
+     * Returns the SHA-256 digest of a cached file as recorded when it was added to the cache.
+     *
+     * @param cacheFile a file returned by {@link #getCacheFile(URL, VersionId)}
+     * @return the digest as created by {@link ContentDigest} or empty if the file is not located in the cache
+     * or no digest has been recorded for it
+     */
+    public static Optional<String> getContentDigest(final File cacheFile) {
+        return CacheImpl.getInstance().getContentDigest(cacheFile);
+    }
+
+    /**
+     * Creates an empty temporary file inside the cache directory.
+     * Content written to this file can later be moved into the cache by {@link #addToCache(DownloadInfo, File)}.
+     *
+     * @return the temporary file
+     * @throws IOException if the file could not be created
+     */
+    public static File createTempFile() throws IOException {
+        return CacheImpl.getInstance().createTempFile();
+    }
+
+    /**
+     * Returns the directory for downloads which were interrupted and may be continued later.
+     * Files in this directory are removed by {@link #cleanCache()} once they have not been touched for a week.
+     *
+     * @return the directory, which is created if it does not exist
+     * @throws IOException if the directory could not be created
+     */
+    public static File getPartialDownloadDir() throws IOException {
+        return CacheImpl.getInstance().getPartialDownloadDir();
+    }
+
+    /**
+     * Runs the given action as a single cache transaction.
+     * All cache operations executed by the action on the current thread share one lock on the cache index,
+     * the index is loaded once and all changes are written back in one go.
+     * The action should not do any network I/O as it blocks other processes from accessing the cache.
+     *
+     * @param action the cache operations to execute
+     */
+    public static void runInTransaction(final Runnable action) {
+        CacheImpl.getInstance().runInTransaction(action);
     }
 
     /**
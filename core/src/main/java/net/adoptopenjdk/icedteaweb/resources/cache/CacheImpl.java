@@ -35,7 +35,6 @@ package net.adoptopenjdk.icedteaweb.resources.cache;
 
 import net.adoptopenjdk.icedteaweb.client.controlpanel.CacheIdInfo;
 import net.adoptopenjdk.icedteaweb.io.FileUtils;
-import net.adoptopenjdk.icedteaweb.io.IOUtils;
 import net.adoptopenjdk.icedteaweb.jnlp.version.VersionId;
 import net.adoptopenjdk.icedteaweb.jnlp.version.VersionIdComparator;
 import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
@@ -53,11 +52,11 @@ import net.sourceforge.jnlp.util.WindowsShortcutManager;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -70,6 +69,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -87,12 +87,22 @@ class CacheImpl {
 
     private static final Logger LOG = LoggerFactory.getLogger(CacheImpl.class);
 
+    private static final String TEMP_FILE_PREFIX = "download-";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private static final String PARTIAL_DOWNLOAD_DIR_NAME = "partial";
+    private static final long MAX_PARTIAL_DOWNLOAD_AGE = TimeUnit.DAYS.toMillis(7);
+
+    private static final int CACHE_DIRS_PER_LEVEL = 250;
+    static final int NUMBER_OF_CACHE_DIRS = CACHE_DIRS_PER_LEVEL * CACHE_DIRS_PER_LEVEL;
+
     static CacheImpl getInstance() {
         return CacheHolder.INSTANCE;
     }
 
     private final CacheIndexHolder cacheIndex;
     private final InfrastructureFileDescriptor rootCacheDir;
+    private final ContentStore contentStore;
 
     /**
      * @param recentlyUsed file to be used as recently_used file
@@ -101,6 +111,11 @@ class CacheImpl {
     private CacheImpl(final InfrastructureFileDescriptor recentlyUsed, final InfrastructureFileDescriptor cacheDir) {
         this.cacheIndex = new CacheIndexHolder(recentlyUsed);
         this.rootCacheDir = cacheDir;
+        this.contentStore = new ContentStore(cacheDir::getFile);
+    }
+
+    void runInTransaction(Runnable action) {
+        cacheIndex.runSynchronized(idx -> action.run());
     }
 
     File getCacheFile(CacheKey key) {
@@ -120,48 +135,140 @@ class CacheImpl {
                 .orElseThrow(() -> new RuntimeException("Could not find entry for " + key));
     }
 
-    File addToCache(DownloadInfo info, InputStream inputStream) throws IOException {
-        final List<IOException> ex = new ArrayList<>();
+    File addToCache(DownloadInfo info, File downloadedFile) throws IOException {
+        final String digest = info.getContentDigest() != null ? info.getContentDigest() : ContentDigest.of(downloadedFile);
+        LOG.debug("Adding downloaded file: {} with digest {} to the cache", info.getCacheKey().getLocation(), digest);
+        return addToCache(info, digest, cacheFile -> {
+            contentStore.add(downloadedFile, digest, cacheFile);
+            return true;
+        }).orElseThrow(() -> new IOException("Failed to add " + downloadedFile + " to the cache"));
+    }
+
+    boolean hasContent(String digest) {
+        return contentStore.contains(digest);
+    }
 
-        final CacheIndexEntry entry = cacheIndex.getSynchronized(idx -> createCacheEntry(idx, info.getCacheKey()));
+    Optional<File> addToCacheFromContentStore(DownloadInfo info) throws IOException {
+        final String digest = info.getContentDigest();
+        if (digest == null) {
+            return Optional.empty();
+        }
+        LOG.debug("Adding stored content with digest {} for: {} to the cache", digest, info.getCacheKey().getLocation());
+        return addToCache(info, digest, cacheFile -> contentStore.linkTo(digest, cacheFile));
+    }
 
-        final CachedFile infoFile = getInfoFile(entry);
-        final File cacheFile = infoFile.getCacheFile();
+    private Optional<File> addToCache(DownloadInfo info, String digest, ContentLinker linker) throws IOException {
+        final CacheKey key = info.getCacheKey();
+        try {
+            return cacheIndex.getSynchronized(idx -> {
+                final CachedFile infoFile = getInfoFile(createCacheEntry(idx, key));
+                final File cacheFile = infoFile.getCacheFile();
+                try {
+                    if (!linker.link(cacheFile)) {
+                        idx.removeEntry(key);
+                        return Optional.empty();
+                    }
+                    infoFile.storeInfo(info.getDownloadedAt(), info.getLastModified(), cacheFile.length(), digest);
+                    return Optional.of(cacheFile);
+                } catch (IOException e) {
+                    idx.removeEntry(key);
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private interface ContentLinker {
+        /**
+         * Provides the content of the given cache file.
+         *
+         * @return {@code false} if the content is not available
+         */
+        boolean link(File cacheFile) throws IOException;
+    }
+
+    Optional<File> getSidecarFile(File cacheFile, String name) {
+        return getEntryDir(cacheFile).map(entryDir -> new File(entryDir, CachedFile.SIDECAR_PREFIX + name));
+    }
+
+    Optional<String> getContentDigest(File cacheFile) {
+        return getEntryDir(cacheFile)
+                .map(entryDir -> CachedFile.readContentDigest(new File(entryDir, CachedFile.INFO_SUFFIX)));
+    }
+
+    /**
+     * @return the directory of the cache entry containing the file or empty if the file is not located in the cache
+     */
+    private Optional<File> getEntryDir(File cacheFile) {
+        final File entryDir = cacheFile.getAbsoluteFile().getParentFile();
+        if (entryDir == null || entryDir.getParentFile() == null || !new File(entryDir, CachedFile.INFO_SUFFIX).isFile()) {
+            return Optional.empty();
+        }
         try {
-            LOG.debug("Downloading file: {} into: {}", info.getCacheKey().getLocation(), cacheFile.getCanonicalPath());
-            try (final OutputStream out = new FileOutputStream(cacheFile)) {
-                IOUtils.copy(inputStream, out);
+            final File root = entryDir.getParentFile().getParentFile();
+            if (root != null && root.getCanonicalFile().equals(rootCacheDir.getFile().getCanonicalFile())) {
+                return Optional.of(entryDir);
             }
-            infoFile.storeInfo(info.getDownloadedAt(), info.getLastModified(), cacheFile.length());
         } catch (IOException e) {
-            ex.add(e);
+            LOG.debug("Failed to determine whether {} is located in the cache: {}", cacheFile, e.getMessage());
         }
+        return Optional.empty();
+    }
 
-        if (!ex.isEmpty()) {
-            throw ex.get(0);
+    File createTempFile() throws IOException {
+        final File dir = rootCacheDir.getFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
         }
+        return Files.createTempFile(dir.toPath(), TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX).toFile();
+    }
 
-        return cacheFile;
+    File getPartialDownloadDir() throws IOException {
+        final File dir = new File(rootCacheDir.getFile(), PARTIAL_DOWNLOAD_DIR_NAME);
+        if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        return dir;
     }
 
     private CacheIndexEntry createCacheEntry(CacheIndex idx, CacheKey key) {
-        final File dir = makeNewCacheDir();
+        final File dir = makeNewCacheDir(key);
         createInfoFile(dir);
         return idx.createEntry(key, entryIdFromCacheDir(dir));
     }
 
-    private File makeNewCacheDir() {
-        final String cacheDirPath = rootCacheDir.getFullPath();
-        for (int i = 0; i < 250; i++) {
-            for (int j = 0; j < 250; j++) {
-                String path = cacheDirPath + File.separator + i + File.separator + j;
-                File cDir = new File(path);
-                if (!cDir.exists()) {
-                    if (cDir.mkdirs()) {
-                        return cDir;
-                    }
-                    throw new RuntimeException("Cannot create directory " + cDir);
-                }
+    /**
+     * Creates a new directory for a cache entry.
+     * The search starts at a slot derived from the key, so on a sparsely filled cache the first
+     * attempt usually succeeds. Creating the directory with {@link File#mkdir()} atomically claims the slot.
+     */
+    private File makeNewCacheDir(CacheKey key) {
+        final int hash = key.hashCode();
+        return makeNewCacheDir(rootCacheDir.getFile(), Math.floorMod(hash ^ (hash >>> 16), NUMBER_OF_CACHE_DIRS));
+    }
+
+    /**
+     * Claims the first free slot at or after the start slot, wrapping around after the last slot.
+     *
+     * @param cacheDir the root directory of the cache
+     * @param start    the slot to try first
+     * @return the new directory
+     */
+    static File makeNewCacheDir(final File cacheDir, final int start) {
+        for (int n = 0; n < NUMBER_OF_CACHE_DIRS; n++) {
+            final int slot = (start + n) % NUMBER_OF_CACHE_DIRS;
+            final File parent = new File(cacheDir, Integer.toString(slot / CACHE_DIRS_PER_LEVEL));
+            if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+                throw new RuntimeException("Cannot create directory " + parent);
+            }
+            final File cDir = new File(parent, Integer.toString(slot % CACHE_DIRS_PER_LEVEL));
+            if (cDir.mkdir()) {
+                return cDir;
+            }
+            if (!cDir.exists()) {
+                throw new RuntimeException("Cannot create directory " + cDir);
             }
         }
         throw new RuntimeException("Out of directories :-)");
@@ -421,14 +528,25 @@ class CacheImpl {
         }
 
         LOG.debug("cleanup cache");
-        final File[] levelOneDirs = rootCacheDir.getFile().listFiles(File::isDirectory);
+        deleteAll(rootCacheDir.getFile().listFiles(file -> file.isFile() && file.getName().endsWith(TEMP_FILE_SUFFIX)));
+
+        final File partialDownloadDir = new File(rootCacheDir.getFile(), PARTIAL_DOWNLOAD_DIR_NAME);
+        final long partialDownloadLimit = System.currentTimeMillis() - MAX_PARTIAL_DOWNLOAD_AGE;
+        deleteAll(partialDownloadDir.listFiles(file -> file.lastModified() < partialDownloadLimit));
+
+        final File contentDir = contentStore.getContentDir();
+        final File[] levelOneDirs = rootCacheDir.getFile().listFiles(file -> file.isDirectory() && !file.equals(contentDir) && !file.equals(partialDownloadDir));
         if (isNullOrEmpty(levelOneDirs)) {
             LOG.debug("found no folders in the cache dir - clear cache index");
-            cacheIndex.runSynchronized(CacheIndex::clear);
+            cacheIndex.runSynchronized(idx -> {
+                idx.clear();
+                contentStore.removeUnreferenced(Collections.emptySet());
+            });
         } else {
             LOG.debug("start cleaning the cache");
             final Set<String> entryIdsFromFileSystem = collectAllEntryIdsFromFileSystem(levelOneDirs);
             final Set<String> entryIdsFromIndex = new HashSet<>();
+            final Set<String> referencedContent = new HashSet<>();
             cacheIndex.runSynchronized(idx -> {
                 idx.requestCompression();
 
@@ -457,7 +575,9 @@ class CacheImpl {
                         continue;
                     }
 
-                    final long size = cacheFile.length();
+                    // content shared with an entry already counted does not occupy additional space
+                    final String contentDigest = infoFile.getContentDigest();
+                    final long size = referencedContent.contains(contentDigest) ? 0 : cacheFile.length();
                     if (maxSize >= 0 && curSize + size > maxSize) {
                         LOG.debug("Current cache size is {} - file {} has size {} and would exceed max cache size {}",
                                 curSize, entry.getResourceHref(), size, maxSize);
@@ -469,7 +589,7 @@ class CacheImpl {
                     final File[] cacheDirFiles = directory.listFiles();
                     if (!isNullOrEmpty(cacheDirFiles)) {
                         for (File file : cacheDirFiles) {
-                            if (!file.equals(cacheFile) && !file.getName().equals(CachedFile.INFO_SUFFIX)) {
+                            if (!file.equals(cacheFile) && !file.getName().equals(CachedFile.INFO_SUFFIX) && !file.getName().startsWith(CachedFile.SIDECAR_PREFIX)) {
                                 LOG.debug("found unknown file {}", file);
                                 deleteDir(file);
                             }
@@ -477,9 +597,13 @@ class CacheImpl {
                     }
 
                     curSize += size;
+                    if (contentDigest != null) {
+                        referencedContent.add(contentDigest);
+                    }
                 }
 
                 toRemoveFromIndex.forEach(idx::removeEntry);
+                contentStore.removeUnreferenced(referencedContent);
             });
 
             // delete dirs with no entry in the least recently used index
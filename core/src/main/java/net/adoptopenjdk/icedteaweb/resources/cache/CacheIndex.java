@@ -6,7 +6,6 @@ import java.net.URL;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Index of the cached resources.
@@ -28,9 +27,7 @@ class CacheIndex {
      * @return the entry found or {@code empty}, never {@code null}.
      */
     Optional<CacheIndexEntry> findEntry(CacheKey key) {
-        return cacheFile.getAllEntries().stream()
-                .filter(e -> e.matches(key))
-                .findFirst();
+        return cacheFile.findEntry(key);
     }
 
     /**
@@ -52,9 +49,7 @@ class CacheIndex {
      * @return a set of all matching entries, never {@code null}.
      */
     Set<CacheIndexEntry> findAllEntries(URL resourceHref) {
-        return cacheFile.getAllEntries().stream()
-                .filter(e -> e.matches(resourceHref))
-                .collect(Collectors.toSet());
+        return cacheFile.findAllEntries(resourceHref);
     }
 
     /**
@@ -63,9 +58,7 @@ class CacheIndex {
      * @return a set of all matching entries, never {@code null}.
      */
     Set<CacheIndexEntry> findAllEntries(URL resourceHref, VersionString versionString) {
-        return cacheFile.getAllEntries().stream()
-                .filter(e -> e.matches(resourceHref, versionString))
-                .collect(Collectors.toSet());
+        return cacheFile.findAllEntries(resourceHref, versionString);
     }
 
     /**
@@ -1,23 +1,71 @@
 package net.adoptopenjdk.icedteaweb.resources.cache;
 
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
+
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static java.util.Collections.sort;
-
+/**
+ * The entries of the cache index.
+ * <p>
+ * The entries are kept in least recently used order. Entries with the same last access time are ordered
+ * by the time they have been added or accessed, the latest first.
+ * In addition the entries are indexed by their id and by the location of the resource
+ * to allow lookups without scanning all entries.
+ */
 class CacheIndexEntries {
 
-    private final List<CacheIndexEntry> entries = new ArrayList<>();
-    private final List<CacheIndexEntry> unmodifiableEntries = Collections.unmodifiableList(entries);
+    private static final Comparator<Node> LEAST_RECENTLY_USED_ORDER = Comparator
+            .comparing((Node n) -> n.entry)
+            .thenComparing(n -> n.sequence, Comparator.reverseOrder());
+
+    private final TreeSet<Node> entries = new TreeSet<>(LEAST_RECENTLY_USED_ORDER);
+    private final Map<String, Node> entriesById = new HashMap<>();
+    private final Map<String, Set<String>> idsByLocation = new HashMap<>();
+
+    private long sequence = 0;
+    private List<CacheIndexEntry> unmodifiableEntries = null;
 
     List<CacheIndexEntry> getAllEntries() {
+        if (unmodifiableEntries == null) {
+            unmodifiableEntries = Collections.unmodifiableList(stream().collect(Collectors.toList()));
+        }
         return unmodifiableEntries;
     }
 
     Stream<CacheIndexEntry> stream() {
-        return entries.stream();
+        return entries.stream().map(n -> n.entry);
+    }
+
+    Optional<CacheIndexEntry> findEntry(CacheKey key) {
+        return nodesForLocation(key.getLocation())
+                .filter(n -> n.entry.matches(key))
+                .min(LEAST_RECENTLY_USED_ORDER)
+                .map(n -> n.entry);
+    }
+
+    Set<CacheIndexEntry> findAllEntries(URL resourceHref) {
+        return nodesForLocation(resourceHref)
+                .map(n -> n.entry)
+                .collect(Collectors.toSet());
+    }
+
+    Set<CacheIndexEntry> findAllEntries(URL resourceHref, VersionString versionString) {
+        return nodesForLocation(resourceHref)
+                .map(n -> n.entry)
+                .filter(e -> e.matches(resourceHref, versionString))
+                .collect(Collectors.toSet());
     }
 
     boolean apply(CacheAction action) {
@@ -25,22 +73,38 @@ class CacheIndexEntries {
     }
 
     boolean addEntry(CacheIndexEntry entry) {
-        entries.add(0, entry);
+        removeEntry(entry);
+        insert(entry);
+        idsByLocation.computeIfAbsent(locationOf(entry), l -> new LinkedHashSet<>()).add(entry.getId());
         return true;
     }
 
     boolean markAccessed(CacheIndexEntry entry, long lastAccessed) {
-        final int idx = entries.indexOf(entry);
-        if (idx > -1) {
-            final CacheIndexEntry old = entries.remove(idx);
-            CacheIndexEntry accessedEntry = new CacheIndexEntry(old.getId(), lastAccessed, old.getCacheKey());
-            entries.add(0, accessedEntry);
+        final Node old = entriesById.get(entry.getId());
+        if (old == null) {
+            return false;
         }
-        return idx > -1;
+        entries.remove(old);
+        insert(new CacheIndexEntry(old.entry.getId(), lastAccessed, old.entry.getCacheKey()));
+        return true;
     }
 
     boolean removeEntry(CacheIndexEntry entry) {
-        return entries.remove(entry);
+        final Node old = entriesById.remove(entry.getId());
+        if (old == null) {
+            return false;
+        }
+        entries.remove(old);
+        final String location = locationOf(old.entry);
+        final Set<String> ids = idsByLocation.get(location);
+        if (ids != null) {
+            ids.remove(old.entry.getId());
+            if (ids.isEmpty()) {
+                idsByLocation.remove(location);
+            }
+        }
+        unmodifiableEntries = null;
+        return true;
     }
 
     boolean clear() {
@@ -49,10 +113,44 @@ class CacheIndexEntries {
         }
 
         entries.clear();
+        entriesById.clear();
+        idsByLocation.clear();
+        unmodifiableEntries = null;
         return true;
     }
 
-    void sortByLastAccessed() {
-        sort(entries);
+    private void insert(CacheIndexEntry entry) {
+        final Node node = new Node(entry, sequence++);
+        entries.add(node);
+        entriesById.put(entry.getId(), node);
+        unmodifiableEntries = null;
+    }
+
+    private Stream<Node> nodesForLocation(URL resourceHref) {
+        if (resourceHref == null) {
+            return Stream.empty();
+        }
+        final Set<String> ids = idsByLocation.get(resourceHref.toString());
+        if (ids == null) {
+            return Stream.empty();
+        }
+        return ids.stream().map(entriesById::get);
+    }
+
+    private static String locationOf(CacheIndexEntry entry) {
+        return entry.getResourceHref().toString();
+    }
+
+    /**
+     * An entry together with the position at which it was added or accessed.
+     */
+    private static class Node {
+        private final CacheIndexEntry entry;
+        private final long sequence;
+
+        private Node(CacheIndexEntry entry, long sequence) {
+            this.entry = entry;
+            this.sequence = sequence;
+        }
     }
 }
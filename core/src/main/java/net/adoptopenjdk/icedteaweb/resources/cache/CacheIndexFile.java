@@ -1,19 +1,26 @@
 package net.adoptopenjdk.icedteaweb.resources.cache;
 
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
 import net.adoptopenjdk.icedteaweb.lockingfile.LockableFile;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static net.adoptopenjdk.icedteaweb.Assert.requireNonNull;
-import static net.adoptopenjdk.icedteaweb.io.FileUtils.loadFileAsUtf8String;
 import static net.adoptopenjdk.icedteaweb.resources.cache.CacheAction.createAccessActionFor;
 import static net.adoptopenjdk.icedteaweb.resources.cache.CacheAction.createAddActionFor;
 import static net.adoptopenjdk.icedteaweb.resources.cache.CacheAction.createRemoveActionFor;
@@ -28,6 +35,7 @@ import static net.adoptopenjdk.icedteaweb.resources.cache.CacheAction.createRemo
 class CacheIndexFile {
 
     private static final String LINE_END = "\\R";
+    private static final int SIGNATURE_LENGTH = 256;
 
     private final LockableFile lockableFile;
 
@@ -39,6 +47,14 @@ class CacheIndexFile {
     private long lastLoadOrStore = -1;
     private boolean requestCompression = false;
 
+    /**
+     * position in the file up to which all actions have been applied to the entries
+     */
+    private long readPosition = 0;
+    private boolean lastReadEndedInsideLine = false;
+    private byte[] headSignature = new byte[0];
+    private byte[] tailSignature = new byte[0];
+
     private final CacheIndexEntries entries = new CacheIndexEntries();
 
     CacheIndexFile(File file) {
@@ -54,28 +70,40 @@ class CacheIndexFile {
     }
 
     List<CacheIndexEntry> getAllEntries() {
-        if (hasNeverBeenLoaded()) {
-            throw new IllegalStateException("Cannot access entries before loading the file");
-        }
+        assertHasBeenLoaded();
         return entries.getAllEntries();
     }
 
+    Optional<CacheIndexEntry> findEntry(CacheKey key) {
+        assertHasBeenLoaded();
+        return entries.findEntry(key);
+    }
+
+    Set<CacheIndexEntry> findAllEntries(URL resourceHref) {
+        assertHasBeenLoaded();
+        return entries.findAllEntries(resourceHref);
+    }
+
+    Set<CacheIndexEntry> findAllEntries(URL resourceHref, VersionString versionString) {
+        assertHasBeenLoaded();
+        return entries.findAllEntries(resourceHref, versionString);
+    }
+
     void addEntry(CacheIndexEntry entry) {
-        applyAndSort(createAddActionFor(entry));
+        apply(createAddActionFor(entry));
     }
 
     void markAccessed(CacheIndexEntry entry, long lastAccessed) {
-        applyAndSort(createAccessActionFor(entry.getId(), lastAccessed));
+        apply(createAccessActionFor(entry.getId(), lastAccessed));
     }
 
     void removeEntry(CacheIndexEntry entry) {
-        applyAndSort(createRemoveActionFor(entry.getId()));
+        apply(createRemoveActionFor(entry.getId()));
     }
 
-    private void applyAndSort(CacheAction action) {
+    private void apply(CacheAction action) {
         if (entries.apply(action)) {
             unsavedActions.add(action);
-            entries.sortByLastAccessed();
         }
     }
 
@@ -102,17 +130,65 @@ class CacheIndexFile {
         // the last option is for file systems which do not store milliseconds in the lastModified field.
         // in such a case one can only see a difference in between lastModified and lastLoadOrStore if at least one second has passed.
         if (hasNeverBeenLoaded() || hasBeenModifiedSinceLastLoadOrStore || almostNoTimeHasPassedSinceLastModification) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                if (hasNeverBeenLoaded() || !isContinuationOfLastRead(channel)) {
+                    entries.clear();
+                    readPosition = 0;
+                }
+                readAppendedActions(channel);
+            }
+
+            lastLoadOrStore = lastModified;
+        }
+    }
 
-            final String content = loadFileAsUtf8String(file);
-            final String[] lines = content.split(LINE_END);
+    /**
+     * The file is a journal which is only appended to until it is compacted.
+     * If the beginning of the file and the last bytes which have been read are unchanged
+     * then only the actions appended since the last read need to be applied.
+     */
+    private boolean isContinuationOfLastRead(FileChannel channel) throws IOException {
+        if (lastReadEndedInsideLine || channel.size() < readPosition) {
+            return false;
+        }
+        return Arrays.equals(headSignature, read(channel, 0, headSignature.length))
+                && Arrays.equals(tailSignature, read(channel, readPosition - tailSignature.length, tailSignature.length));
+    }
 
-            entries.clear();
-            Stream.of(lines)
+    private void readAppendedActions(FileChannel channel) throws IOException {
+        final byte[] appended = read(channel, readPosition, (int) (channel.size() - readPosition));
+        if (appended.length > 0) {
+            final String content = new String(appended, UTF_8);
+            Stream.of(content.split(LINE_END))
                     .map(CacheAction::parse)
                     .forEach(entries::apply);
 
-            lastLoadOrStore = lastModified;
-            entries.sortByLastAccessed();
+            readPosition += appended.length;
+            lastReadEndedInsideLine = !content.endsWith("\n") && !content.endsWith("\r");
+        }
+        updateSignatures(channel);
+    }
+
+    private void updateSignatures(FileChannel channel) throws IOException {
+        final int signatureLength = (int) Math.min(SIGNATURE_LENGTH, readPosition);
+        headSignature = read(channel, 0, signatureLength);
+        tailSignature = read(channel, readPosition - signatureLength, signatureLength);
+    }
+
+    private static byte[] read(FileChannel channel, long position, int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.hasRemaining() ? Arrays.copyOf(buffer.array(), buffer.position()) : buffer.array();
+    }
+
+    private void moveReadPositionToEndOfFile() throws IOException {
+        try (FileChannel channel = FileChannel.open(lockableFile.getFile().toPath(), StandardOpenOption.READ)) {
+            readPosition = channel.size();
+            updateSignatures(channel);
         }
     }
 
@@ -149,6 +225,7 @@ class CacheIndexFile {
 
         lastLoadOrStore = System.currentTimeMillis();
         unsavedActions.clear();
+        moveReadPositionToEndOfFile();
     }
 
     private void saveCompactedFile() throws IOException {
@@ -171,6 +248,8 @@ class CacheIndexFile {
         lastLoadOrStore = System.currentTimeMillis();
         requestCompression = false;
         unsavedActions.clear();
+        lastReadEndedInsideLine = false;
+        moveReadPositionToEndOfFile();
     }
 
     void lock() throws IOException {
@@ -181,6 +260,12 @@ class CacheIndexFile {
         lockableFile.unlock();
     }
 
+    private void assertHasBeenLoaded() {
+        if (hasNeverBeenLoaded()) {
+            throw new IllegalStateException("Cannot access entries before loading the file");
+        }
+    }
+
     private boolean hasNeverBeenLoaded() {
         return lastLoadOrStore == -1;
     }
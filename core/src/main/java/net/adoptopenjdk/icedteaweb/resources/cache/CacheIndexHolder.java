@@ -27,6 +27,11 @@ class CacheIndexHolder {
 
     private CacheIndexFile cachedCacheFile;
 
+    /**
+     * The index opened by an enclosing call of {@link #getSynchronized(Function)} on the current thread.
+     */
+    private final ThreadLocal<CacheIndex> openIndex = new ThreadLocal<>();
+
     CacheIndexHolder(InfrastructureFileDescriptor recentlyUsed) {
         this.recentlyUsed = recentlyUsed;
     }
@@ -43,18 +48,26 @@ class CacheIndexHolder {
 
     /**
      * Executes the function passed in action in a synchronized fashion to allow exclusive access to the index.
+     * Nested calls on the same thread join the outer call: the index is locked, loaded and persisted only once.
      *
      * @return the result of the passed function.
      */
     <T> T getSynchronized(Function<CacheIndex, T> action) {
+        final CacheIndex alreadyOpen = openIndex.get();
+        if (alreadyOpen != null) {
+            return action.apply(alreadyOpen);
+        }
+
         CacheIndexFile cacheFile = null;
         try {
             cacheFile = lockCacheFile();
             final CacheIndex index = load(cacheFile);
+            openIndex.set(index);
             final T result = action.apply(index);
             persistChanges(cacheFile);
             return result;
         } finally {
+            openIndex.remove();
             unlockCacheFile(cacheFile);
         }
     }
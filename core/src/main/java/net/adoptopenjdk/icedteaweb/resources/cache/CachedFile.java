@@ -38,10 +38,12 @@ class CachedFile implements ResourceInfo {
     private static final Logger LOG = LoggerFactory.getLogger(CachedFile.class);
 
     static final String INFO_SUFFIX = ".info";
+    static final String SIDECAR_PREFIX = ".sidecar-";
 
     private static final String KEY_SIZE = "content-length";
     private static final String KEY_LAST_MODIFIED = "last-modified";
     private static final String KEY_DOWNLOADED_AT = "last-updated";
+    private static final String KEY_CONTENT_DIGEST = "sha-256";
     static final String KEY_JNLP_PATH = "jnlp-path";
 
     private final CacheKey key;
@@ -87,6 +89,20 @@ class CachedFile implements ResourceInfo {
         return getLongKey(KEY_LAST_MODIFIED);
     }
 
+    /**
+     * @return the SHA-256 digest of the cached file or {@code null} if it is unknown
+     */
+    String getContentDigest() {
+        return properties.getProperty(KEY_CONTENT_DIGEST);
+    }
+
+    /**
+     * @return the content digest recorded in the given info file or null if there is none
+     */
+    static String readContentDigest(File infoFile) {
+        return new PropertiesFile(infoFile).getProperty(KEY_CONTENT_DIGEST);
+    }
+
     String getJnlpPath() {
         return properties.getProperty(KEY_JNLP_PATH);
     }
@@ -162,12 +178,17 @@ class CachedFile implements ResourceInfo {
         return false; // should throw?
     }
 
-    void storeInfo(long downloadedAt, long lastModified, long size) {
+    void storeInfo(long downloadedAt, long lastModified, long size, String contentDigest) {
         properties.lock();
         try {
             setLongKey(KEY_SIZE, size);
             setLongKey(KEY_LAST_MODIFIED, lastModified);
             setLongKey(KEY_DOWNLOADED_AT, downloadedAt);
+            if (contentDigest == null) {
+                properties.remove(KEY_CONTENT_DIGEST);
+            } else {
+                properties.setProperty(KEY_CONTENT_DIGEST, contentDigest);
+            }
 
             final String jnlpPath = JNLPRuntime.getJnlpPath();
             if (StringUtils.isBlank(jnlpPath)) {
@@ -0,0 +1,98 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * SHA-256 digest used to identify the content of cached files.
+ * Digests are represented as lower case hex strings.
+ */
+public class ContentDigest {
+
+    private static final String ALGORITHM = "SHA-256";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int DIGEST_LENGTH = 32;
+
+    private ContentDigest() {
+        // utility class
+    }
+
+    /**
+     * @return a new message digest which can be fed while the content is downloaded.
+     */
+    public static MessageDigest newMessageDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every java implementation has to support SHA-256
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static String toHex(final byte[] digest) {
+        final char[] result = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            result[2 * i] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+            result[2 * i + 1] = HEX_DIGITS[digest[i] & 0xF];
+        }
+        return new String(result);
+    }
+
+    /**
+     * @return the digest of the content of the file as hex string
+     */
+    public static String of(final File file) throws IOException {
+        final MessageDigest md = newMessageDigest();
+        try (final InputStream in = new DigestInputStream(Files.newInputStream(file.toPath()), md)) {
+            final byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // read until the end to feed the digest
+            }
+        }
+        return toHex(md.digest());
+    }
+
+    /**
+     * Extracts the SHA-256 digest advertised by a server.
+     * Supports the {@code Repr-Digest} and {@code Content-Digest} header fields of RFC 9530
+     * ({@code sha-256=:base64:}) as well as the {@code Digest} header field of RFC 3230 ({@code SHA-256=base64}).
+     *
+     * @param headerValue the value of the header field, may be {@code null}
+     * @return the digest as hex string or {@code null} if the header contains no SHA-256 digest
+     */
+    public static String fromHttpHeader(final String headerValue) {
+        if (headerValue == null) {
+            return null;
+        }
+        for (String element : headerValue.split(",")) {
+            final int separator = element.indexOf('=');
+            if (separator < 0) {
+                continue;
+            }
+            final String algorithm = element.substring(0, separator).trim().toLowerCase(Locale.ENGLISH);
+            if (!algorithm.equals("sha-256")) {
+                continue;
+            }
+            String value = element.substring(separator + 1).trim();
+            if (value.length() > 1 && value.startsWith(":") && value.endsWith(":")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            try {
+                final byte[] digest = Base64.getDecoder().decode(value);
+                if (digest.length == DIGEST_LENGTH) {
+                    return toHex(digest);
+                }
+            } catch (IllegalArgumentException ignored) {
+                // not a valid base64 value
+            }
+        }
+        return null;
+    }
+}
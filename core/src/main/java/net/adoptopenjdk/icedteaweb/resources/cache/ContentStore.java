@@ -0,0 +1,146 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.sourceforge.jnlp.util.AtomicFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Content addressed store below the cache directory.
+ * Every distinct content is stored once under its SHA-256 digest. The files of the cache entries
+ * are hard links to the stored content, so identical jars served from different locations
+ * occupy the disk only once. Content no longer referenced by any cache entry is removed by
+ * {@link #removeUnreferenced(Set)}.
+ * On a file system without hard links the store is disabled and the files are kept in the cache entries only.
+ */
+class ContentStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContentStore.class);
+
+    static final String CONTENT_DIR_NAME = "content";
+
+    private final Supplier<File> cacheRoot;
+
+    /** the cache root on which hard links failed */
+    private volatile File rootWithoutLinks;
+
+    ContentStore(Supplier<File> cacheRoot) {
+        this.cacheRoot = cacheRoot;
+    }
+
+    boolean contains(String digest) {
+        return isEnabled() && getContentFile(digest).isFile();
+    }
+
+    /**
+     * Moves the file into the store unless the same content is already present.
+     * Afterwards the target is created as a link to the stored content.
+     * If the store is disabled the file is moved to the target directly.
+     *
+     * @param file   the file to add, will be moved or deleted
+     * @param digest the SHA-256 digest of the file
+     * @param target the file of the cache entry
+     */
+    void add(File file, String digest, File target) throws IOException {
+        if (!isEnabled()) {
+            AtomicFiles.move(file, target);
+            return;
+        }
+        final File content = getContentFile(digest);
+        if (content.isFile() && content.length() == file.length()) {
+            LOG.debug("Content of {} is already stored as {}", target, content);
+            if (!createLink(content, target)) {
+                AtomicFiles.move(file, target);
+                return;
+            }
+            Files.deleteIfExists(file.toPath());
+        } else {
+            final File parent = content.getParentFile();
+            if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+                throw new IOException("Cannot create directory " + parent);
+            }
+            AtomicFiles.move(file, content);
+            if (!createLink(content, target)) {
+                // keep the only copy in the cache entry
+                AtomicFiles.move(content, target);
+            }
+        }
+    }
+
+    /**
+     * Creates the target as a link to the stored content.
+     *
+     * @return {@code false} if the store does not contain the content or links are not supported
+     */
+    boolean linkTo(String digest, File target) throws IOException {
+        final File content = getContentFile(digest);
+        if (!isEnabled() || !content.isFile()) {
+            return false;
+        }
+        return createLink(content, target);
+    }
+
+    /**
+     * Deletes all stored content with a digest not contained in the given set.
+     */
+    void removeUnreferenced(Set<String> referencedDigests) {
+        final File[] prefixDirs = getContentDir().listFiles(File::isDirectory);
+        if (prefixDirs == null) {
+            return;
+        }
+        for (File prefixDir : prefixDirs) {
+            final File[] contentFiles = prefixDir.listFiles();
+            if (contentFiles != null) {
+                for (File contentFile : contentFiles) {
+                    if (!referencedDigests.contains(contentFile.getName())) {
+                        LOG.debug("Removing unreferenced content {}", contentFile);
+                        if (!contentFile.delete()) {
+                            LOG.debug("Failed to remove unreferenced content {}", contentFile);
+                        }
+                    }
+                }
+            }
+            // only succeeds if the directory is empty
+            prefixDir.delete();
+        }
+    }
+
+    File getContentDir() {
+        return new File(cacheRoot.get(), CONTENT_DIR_NAME);
+    }
+
+    private File getContentFile(String digest) {
+        return new File(new File(getContentDir(), digest.substring(0, 2)), digest);
+    }
+
+    private boolean isEnabled() {
+        return !cacheRoot.get().equals(rootWithoutLinks);
+    }
+
+    /**
+     * Creates the target as a hard link to the content. If that fails the store is disabled,
+     * as a copy would occupy the disk twice.
+     *
+     * @return {@code false} if the link could not be created
+     */
+    private boolean createLink(File content, File target) throws IOException {
+        Files.deleteIfExists(target.toPath());
+        try {
+            createHardLink(target, content);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            LOG.info("Cannot link {} to {} - storing identical content only once is disabled: {}", target, content, e.getMessage());
+            rootWithoutLinks = cacheRoot.get();
+            return false;
+        }
+    }
+
+    void createHardLink(File link, File existing) throws IOException {
+        Files.createLink(link.toPath(), existing.toPath());
+    }
+}
@@ -10,12 +10,21 @@ public class DownloadInfo {
 
     private final long lastModified;
     private final long downloadedAt;
+    private final String contentDigest;
 
     public DownloadInfo(URL resourceHref, VersionId version, long lastModified) {
+        this(resourceHref, version, lastModified, null);
+    }
+
+    /**
+     * @param contentDigest the SHA-256 digest of the content as created by {@link ContentDigest}, may be {@code null}
+     */
+    public DownloadInfo(URL resourceHref, VersionId version, long lastModified, String contentDigest) {
         this.key = new CacheKey(resourceHref, version);
 
         this.lastModified = lastModified;
         this.downloadedAt = System.currentTimeMillis();
+        this.contentDigest = contentDigest;
     }
 
     CacheKey getCacheKey() {
@@ -29,4 +38,8 @@ public class DownloadInfo {
     long getDownloadedAt() {
         return downloadedAt;
     }
+
+    String getContentDigest() {
+        return contentDigest;
+    }
 }
@@ -11,41 +11,70 @@ import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.adoptopenjdk.icedteaweb.resources.Resource;
 import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
+import net.adoptopenjdk.icedteaweb.resources.cache.ContentDigest;
 import net.adoptopenjdk.icedteaweb.resources.cache.DownloadInfo;
 import net.adoptopenjdk.icedteaweb.ui.swing.SwingUtils;
 import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.config.ConfigurationSnapshot;
 import net.sourceforge.jnlp.runtime.JNLPRuntime;
 import net.sourceforge.jnlp.util.UrlUtils;
 
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
 import java.net.Socket;
 import java.net.URL;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.createCachedDaemonThreadPool;
+import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.createFixedDaemonThreadPool;
 import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.globalFixedThreadPool;
 import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.ACCEPT_ENCODING_HEADER;
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.ACCEPT_RANGES_HEADER;
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.BYTES_RANGE_UNIT;
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.CONTENT_DIGEST_HEADER;
 import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.CONTENT_ENCODING_HEADER;
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.CONTENT_RANGE_HEADER;
 import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.CONTENT_TYPE_HEADER;
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.DIGEST_HEADER;
 import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.ERROR_MIME_TYPE;
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.ETAG_HEADER;
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.IF_RANGE_HEADER;
 import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.INVALID_HTTP_RESPONSE;
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.JAR_DIFF_MIME_TYPE;
 import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.LAST_MODIFIED_HEADER;
 import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.PACK_200_OR_GZIP;
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.RANGE_HEADER;
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.REPR_DIGEST_HEADER;
 import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.VERSION_ID_HEADER;
 import static net.adoptopenjdk.icedteaweb.resources.ResourceStatus.DOWNLOADED;
 import static net.adoptopenjdk.icedteaweb.resources.ResourceStatus.ERROR;
+import static net.adoptopenjdk.icedteaweb.resources.downloader.StreamUnpacker.PACK_GZ_EXTENSION;
 
 /**
  * Base class for resource downloader.
@@ -53,6 +82,16 @@ import static net.adoptopenjdk.icedteaweb.resources.ResourceStatus.ERROR;
 abstract class BaseResourceDownloader implements ResourceDownloader {
     private static final Logger LOG = LoggerFactory.getLogger(BaseResourceDownloader.class);
 
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+    private static final int MAX_DOWNLOAD_ATTEMPTS = 5;
+    private static final Pattern CONTENT_RANGE = Pattern.compile(BYTES_RANGE_UNIT + "\\s+(\\d+)-\\d+/(\\d+)");
+
+    private static final ExecutorService SEGMENT_THREADS = createCachedDaemonThreadPool();
+
+    /** the racing downloads do not occupy the threads of the global pool used for all other downloads */
+    private static final ExecutorService RACE_THREADS = createFixedDaemonThreadPool(6);
+    private static final int RACE_READ_TIMEOUT = 10_000;
+
     protected final Resource resource;
     private final List<URL> downloadUrls;
     private final List<Exception> downLoadExceptions = new ArrayList<>();
@@ -65,21 +104,47 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
     @Override
     public Resource download() {
         downLoadExceptions.clear();
-        // TODO:
-        // would be nice if we could run the different urls in parallel.
-        // this would require to write content to temporary file and only on success move the file into the cache.
+        final Optional<Resource> downloaded = downloadUrls.size() > 1 && isRacingEnabled() ? raceDownloads() : downloadOneAfterTheOther();
+        return downloaded.orElseGet(() -> {
+            LOG.error("Could not download resource {} from any of theses urls {} {}", resource, downloadUrls, exceptionMessage());
+            resource.setStatus(ERROR);
+            checkForProxyError();
+            return resource;
+        });
+    }
+
+    private boolean isRacingEnabled() {
+        return JNLPRuntime.getConfiguration().getSnapshot().getBoolean(ConfigurationConstants.KEY_RACE_RESOURCE_DOWNLOADS);
+    }
+
+    private Optional<Resource> downloadOneAfterTheOther() {
         return downloadUrls.stream()
-                .map(this::downloadFrom)
+                .map(url -> downloadFrom(url, new DownloadRace(resource), globalFixedThreadPool()))
                 .map(this::futureToOptional)
                 .filter(Optional::isPresent)
                 .map(Optional::get)
-                .findFirst()
-                .orElseGet(() -> {
-                    LOG.error("Could not download resource {} from any of theses urls {} {}", resource, downloadUrls, exceptionMessage());
-                    resource.setStatus(ERROR);
-                    checkForProxyError();
-                    return resource;
-                });
+                .findFirst();
+    }
+
+    /**
+     * Downloads from all urls at the same time. Each download is written into its own temporary file.
+     * The first download which is moved into the cache successfully wins, all others are aborted.
+     */
+    private Optional<Resource> raceDownloads() {
+        final DownloadRace race = new DownloadRace(resource, true);
+        final List<CompletableFuture<Resource>> downloads = downloadUrls.stream()
+                .map(url -> downloadFrom(url, race, RACE_THREADS))
+                .collect(Collectors.toList());
+
+        final CompletableFuture<Resource> winner = new CompletableFuture<>();
+        downloads.forEach(download -> download.thenAccept(winner::complete));
+        CompletableFuture.allOf(downloads.toArray(new CompletableFuture[0])).whenComplete((r, e) -> winner.complete(null));
+
+        final Optional<Resource> result = futureToOptional(winner);
+        if (!result.isPresent()) {
+            downloads.forEach(this::futureToOptional);
+        }
+        return result;
     }
 
     private String exceptionMessage() {
@@ -117,12 +182,12 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
         }
     }
 
-    private CompletableFuture<Resource> downloadFrom(final URL url) {
+    private CompletableFuture<Resource> downloadFrom(final URL url, final DownloadRace race, final ExecutorService executor) {
         LOG.debug("Will download in background: {}", url);
         final CompletableFuture<Resource> result = new CompletableFuture<>();
-        globalFixedThreadPool().execute(() -> {
+        executor.execute(() -> {
             try {
-                result.complete(tryDownloading(url));
+                result.complete(tryDownloading(url, race));
             } catch (Exception | Error e) {
                 LOG.debug("downloadFrom exception: {}", e.getMessage());
                 result.completeExceptionally(e);
@@ -131,84 +196,288 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
         return result;
     }
 
-    private Resource tryDownloading(final URL downloadFrom) throws IOException {
-        DownloadDetails downloadDetails = null;
-        try (final CloseableConnection connection = getDownloadConnection(downloadFrom)) {
-            downloadDetails = getDownloadDetails(connection);
+    /**
+     * Downloads the resource from the url. An earlier download of the url which was interrupted is continued
+     * if the server confirms that the content did not change in the meantime. A download which breaks is
+     * continued right away as long as each attempt makes progress.
+     */
+    private Resource tryDownloading(final URL downloadFrom, final DownloadRace race) throws IOException {
+        PartialDownload partialDownload = PartialDownload.find(downloadFrom).orElse(null);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                final long writtenBefore = partialDownload != null ? partialDownload.getWritten() : 0;
+                try (final CloseableConnection connection = partialDownload != null
+                        ? getRangeConnection(downloadFrom, partialDownload, partialDownload.getIncompleteSegments().get(0), race)
+                        : getDownloadConnection(downloadFrom, race);
+                     final Closeable ignored = race.closeWhenLost(connection)) {
+                    if (partialDownload != null && connection.getResponseCode() == HTTP_RANGE_NOT_SATISFIABLE) {
+                        LOG.debug("Server refused to continue the download from {} - starting over", downloadFrom);
+                        partialDownload.discard();
+                        partialDownload.close();
+                        partialDownload = null;
+                        continue;
+                    }
 
-            if (downloadDetails.contentType != null && downloadDetails.contentType.startsWith(ERROR_MIME_TYPE)) {
-                final String serverResponse = StreamUtils.readStreamAsString(downloadDetails.inputStream);
-                LOG.debug("Server Error for {}", resource);
-                throw new RuntimeException("Server error: " + serverResponse);
-            }
+                    final DownloadDetails downloadDetails = getDownloadDetails(connection);
 
-            resource.setSize(downloadDetails.totalSize);
-            final long bytesTransferred = tryDownloading(downloadDetails);
+                    if (downloadDetails.contentType != null && downloadDetails.contentType.startsWith(ERROR_MIME_TYPE)) {
+                        final String serverResponse = StreamUtils.readStreamAsString(downloadDetails.inputStream);
+                        LOG.debug("Server Error for {}", resource);
+                        throw new RuntimeException("Server error: " + serverResponse);
+                    }
 
-            resource.setStatus(DOWNLOADED);
-            resource.setTransferred(bytesTransferred);
-            return resource;
-        } catch (Exception ex) {
-            if (downloadDetails != null) {
-                LOG.debug("Marking as corrupted {}", resource);
-                Cache.invalidateExistingCacheFile(resource.getLocation(), getVersion(downloadDetails.downloadFrom, downloadDetails.version));
+                    if (partialDownload != null && !partialDownload.isContinuedBy(downloadDetails)) {
+                        LOG.debug("Content of {} changed since the download was interrupted - starting over", downloadFrom);
+                        partialDownload.discard();
+                        partialDownload.close();
+                        partialDownload = null;
+                        if (downloadDetails.isPartialContent()) {
+                            throw new IOException("Unexpected partial content from " + downloadFrom);
+                        }
+                    }
+                    if (partialDownload == null && isResumable(downloadDetails)) {
+                        partialDownload = PartialDownload.start(downloadFrom, downloadDetails.validator, downloadDetails.totalSize, getSegmentCount()).orElse(null);
+                    }
+
+                    race.reportProgress(downloadDetails.totalSize, 0);
+                    final long bytesTransferred = tryDownloading(downloadDetails, partialDownload, race);
+
+                    resource.setStatus(DOWNLOADED);
+                    resource.setTransferred(bytesTransferred);
+                    return resource;
+                } catch (IOException ex) {
+                    if (ex instanceof DownloadAbortedException || partialDownload == null
+                            || partialDownload.getWritten() <= writtenBefore || attempt >= MAX_DOWNLOAD_ATTEMPTS) {
+                        throw ex;
+                    }
+                    LOG.debug("Download from {} broke after {} of {} bytes - continuing: {}", downloadFrom, partialDownload.getWritten(), partialDownload.getSize(), ex.getMessage());
+                }
             }
+        } catch (DownloadAbortedException ex) {
+            LOG.debug("Aborted download of resource {} from {}", resource, downloadFrom);
+            discard(partialDownload);
+            throw ex;
+        } catch (Exception ex) {
             LOG.debug("Exception while downloading resource {} from {} - message: {} cause: {} ", resource, downloadFrom, ex.getMessage(), ex.getCause());
             throw ex;
+        } finally {
+            if (partialDownload != null) {
+                partialDownload.close();
+            }
+        }
+    }
+
+    private static void discard(final PartialDownload partialDownload) {
+        if (partialDownload != null) {
+            partialDownload.discard();
         }
     }
 
-    private CloseableConnection getDownloadConnection(final URL location) throws IOException {
+    private int getSegmentCount() {
+        return JNLPRuntime.getConfiguration().getSnapshot().getInt(ConfigurationConstants.KEY_DOWNLOAD_SEGMENT_COUNT, 1);
+    }
+
+    private CloseableConnection getDownloadConnection(final URL location, final DownloadRace race) throws IOException {
         final Map<String, String> requestProperties = new HashMap<>();
         requestProperties.put(ACCEPT_ENCODING_HEADER, PACK_200_OR_GZIP);
-        return ConnectionFactory.openConnection(location, HttpMethod.GET, requestProperties, getTimeoutValue(ConfigurationConstants.KEY_HTTPCONNECTION_CONNECT_TIMEOUT), getTimeoutValue(ConfigurationConstants.KEY_HTTPCONNECTION_READ_TIMEOUT));
+        return openConnection(location, requestProperties, race);
     }
 
-    private int getTimeoutValue(final String key) {
-        int timeout = 0;
-        final String value = JNLPRuntime.getConfiguration().getProperty(key);
-        if (value != null && value.trim().length() != 0) {
-            try {
-                timeout = Integer.valueOf(value);
-            } catch (NumberFormatException e) {
-                LOG.error("Could not parse {} with value '{}' - reason {}", key, value, e.getMessage());
-            }
-        }
-        return timeout;
+    /**
+     * Requests the rest of a segment of a partial download. The content stored so far is not encoded,
+     * so no encoding is accepted for the rest either.
+     */
+    private CloseableConnection getRangeConnection(final URL location, final PartialDownload partialDownload, final PartialDownload.Segment segment, final DownloadRace race) throws IOException {
+        final Map<String, String> requestProperties = new HashMap<>();
+        requestProperties.put(RANGE_HEADER, BYTES_RANGE_UNIT + "=" + segment.getPosition() + "-" + segment.getLast());
+        requestProperties.put(IF_RANGE_HEADER, partialDownload.getValidator());
+        return openConnection(location, requestProperties, race);
     }
 
-    private long tryDownloading(final DownloadDetails downloadDetails) throws IOException {
+    /**
+     * Opens a connection with the configured timeouts. A racing download always has a read timeout, as a read
+     * blocked on a stalled server cannot be aborted when another download wins the race.
+     */
+    private CloseableConnection openConnection(final URL location, final Map<String, String> requestProperties, final DownloadRace race) throws IOException {
+        final ConfigurationSnapshot configuration = JNLPRuntime.getConfiguration().getSnapshot();
+        final int connectTimeout = configuration.getInt(ConfigurationConstants.KEY_HTTPCONNECTION_CONNECT_TIMEOUT, 0);
+        final int configuredReadTimeout = configuration.getInt(ConfigurationConstants.KEY_HTTPCONNECTION_READ_TIMEOUT, 0);
+        final int readTimeout = race.isRacing() && configuredReadTimeout == 0 ? RACE_READ_TIMEOUT : configuredReadTimeout;
+        return ConnectionFactory.openConnection(location, HttpMethod.GET, requestProperties, connectTimeout, readTimeout);
+    }
+
+    private long tryDownloading(final DownloadDetails downloadDetails, final PartialDownload partialDownload, final DownloadRace race) throws IOException {
         final URL resourceHref = resource.getLocation();
         final VersionId version = getVersion(downloadDetails.downloadFrom, downloadDetails.version);
 
         if (isUpToDate(resourceHref, version, downloadDetails.lastModified)) {
-            final File cacheFile = Cache.getCacheFile(resourceHref, version);
-            resource.setLocalFile(cacheFile);
+            discard(partialDownload);
+            final File cacheFile = commit(race, downloadDetails.downloadFrom, () -> Cache.getCacheFile(resourceHref, version));
             return cacheFile.length();
+        }
+
+        if (isAvailableInContentStore(downloadDetails)) {
+            final Optional<File> cacheFile = commitFromContentStore(downloadDetails, version, race);
+            if (cacheFile.isPresent()) {
+                discard(partialDownload);
+                return cacheFile.get().length();
+            }
+            LOG.debug("Content of {} has been removed from the cache in the meantime - downloading it", downloadDetails.downloadFrom);
+        }
+
+        if (partialDownload != null) {
+            return tryDownloading(downloadDetails, partialDownload, version, race);
         } else {
-            final CountingInputStream countingInputStream = downloadDetails.inputStream;
+            final CountingInputStream countingInputStream = new NotifyingInputStream(downloadDetails.inputStream, downloadDetails.totalSize, transferred -> race.reportProgress(downloadDetails.totalSize, transferred));
+            final InputStream abortableStream = new AbortableInputStream(countingInputStream, race, downloadDetails.downloadFrom);
 
             final StreamUnpacker compressionUnpacker = StreamUnpacker.getCompressionUnpacker(downloadDetails);
-            final InputStream unpackedStream = compressionUnpacker.unpack(countingInputStream);
+            final InputStream unpackedStream = compressionUnpacker.unpack(abortableStream);
 
             final StreamUnpacker contentUnpacker = StreamUnpacker.getContentUnpacker(downloadDetails, resourceHref);
-            final InputStream unpackedContent = contentUnpacker.unpack(unpackedStream);
+            final MessageDigest contentDigest = ContentDigest.newMessageDigest();
+            final InputStream unpackedContent = new DigestInputStream(contentUnpacker.unpack(unpackedStream), contentDigest);
 
-            final DownloadInfo downloadInfo = new DownloadInfo(resourceHref, version, downloadDetails.lastModified);
-            final File cacheFile = Cache.addToCache(downloadInfo, unpackedContent);
+            final File tempFile = Cache.createTempFile();
+            try {
+                LOG.debug("Downloading file: {} into: {}", downloadDetails.downloadFrom, tempFile);
+                Files.copy(unpackedContent, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+                final long expectedBytes = downloadDetails.totalSize;
+                final long actualBytes = countingInputStream.numBytesRead();
 
-            final long expectedBytes = downloadDetails.totalSize;
-            final long actualBytes = countingInputStream.numBytesRead();
+                if (expectedBytes > 0 && expectedBytes > actualBytes) {
+                    throw new IOException(String.format("Did read %d bytes from server but expected %d", actualBytes, expectedBytes));
+                }
 
-            if (expectedBytes > 0 && expectedBytes > actualBytes) {
-                cacheFile.delete();
-                LOG.debug("Deleted Corrupt File {}", cacheFile.getName());
-                throw new IOException(String.format("Did read %d bytes from server but expected %d", actualBytes, expectedBytes));
+                final DownloadInfo downloadInfo = new DownloadInfo(resourceHref, version, downloadDetails.lastModified, ContentDigest.toHex(contentDigest.digest()));
+                commit(race, downloadDetails.downloadFrom, () -> Cache.addToCache(downloadInfo, tempFile));
+                return actualBytes;
+            } finally {
+                Files.deleteIfExists(tempFile.toPath());
             }
+        }
+    }
 
-            resource.setLocalFile(cacheFile);
-            return actualBytes;
+    /**
+     * Writes the missing segments of a partial download and moves the complete content into the cache.
+     * The first missing segment is read from the open response, all others are requested in parallel.
+     */
+    private long tryDownloading(final DownloadDetails downloadDetails, final PartialDownload partialDownload, final VersionId version, final DownloadRace race) throws IOException {
+        final URL downloadFrom = downloadDetails.downloadFrom;
+        final List<PartialDownload.Segment> segments = partialDownload.getIncompleteSegments();
+        LOG.debug("Downloading {} of {} bytes of {} in {} segments", partialDownload.getSize() - partialDownload.getWritten(), partialDownload.getSize(), downloadFrom, segments.size());
+        final LongConsumer progress = written -> race.reportProgress(partialDownload.getSize(), written);
+        progress.accept(partialDownload.getWritten());
+
+        final List<Future<?>> otherSegments = segments.stream()
+                .skip(1)
+                .map(segment -> SEGMENT_THREADS.submit(() -> {
+                    downloadSegment(downloadFrom, partialDownload, segment, race, progress);
+                    return null;
+                }))
+                .collect(Collectors.toList());
+
+        IOException failure = null;
+        try {
+            partialDownload.write(segments.get(0), new AbortableInputStream(downloadDetails.inputStream, race, downloadFrom), progress);
+        } catch (IOException e) {
+            failure = e;
         }
+        for (final Future<?> segment : otherSegments) {
+            try {
+                segment.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (failure == null) {
+                    failure = new InterruptedIOException("Interrupted while downloading " + downloadFrom);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+
+        final File downloadedFile = partialDownload.complete();
+        final String contentDigest = ContentDigest.of(downloadedFile);
+        if (downloadDetails.contentDigest != null && !downloadDetails.contentDigest.equals(contentDigest)) {
+            partialDownload.discard();
+            throw new IOException("Content downloaded from " + downloadFrom + " does not match the digest sent by the server");
+        }
+
+        final DownloadInfo downloadInfo = new DownloadInfo(resource.getLocation(), version, downloadDetails.lastModified, contentDigest);
+        commit(race, downloadFrom, () -> Cache.addToCache(downloadInfo, downloadedFile));
+        partialDownload.discard();
+        return partialDownload.getSize();
+    }
+
+    private void downloadSegment(final URL downloadFrom, final PartialDownload partialDownload, final PartialDownload.Segment segment, final DownloadRace race, final LongConsumer progress) throws IOException {
+        try (final CloseableConnection connection = getRangeConnection(downloadFrom, partialDownload, segment, race);
+             final Closeable ignored = race.closeWhenLost(connection)) {
+            final DownloadDetails downloadDetails = getDownloadDetails(connection);
+            if (!partialDownload.isContinuedBy(downloadDetails, segment)) {
+                throw new IOException("Content of " + downloadFrom + " changed during the download");
+            }
+            partialDownload.write(segment, new AbortableInputStream(downloadDetails.inputStream, race, downloadFrom), progress);
+        }
+    }
+
+    /**
+     * Moves a complete download into the cache and uses it for the resource, unless another download won the race.
+     */
+    private File commit(final DownloadRace race, final URL downloadFrom, final DownloadRace.Commit<File> commit) throws IOException {
+        final File cacheFile = race.commit(commit).orElseThrow(() -> new DownloadAbortedException(downloadFrom));
+        resource.setLocalFile(cacheFile);
+        return cacheFile;
+    }
+
+    /**
+     * Uses content already stored in the cache instead of downloading it.
+     *
+     * @return the cache file or empty if the content is no longer stored, for example removed by another process
+     */
+    private Optional<File> commitFromContentStore(final DownloadDetails downloadDetails, final VersionId version, final DownloadRace race) throws IOException {
+        LOG.debug("Content of {} is already in the cache - skipping download", downloadDetails.downloadFrom);
+        final DownloadInfo downloadInfo = new DownloadInfo(resource.getLocation(), version, downloadDetails.lastModified, downloadDetails.contentDigest);
+        final Optional<File> cacheFile = race.commitIfAvailable(() -> Cache.addToCacheFromContentStore(downloadInfo));
+        if (!cacheFile.isPresent() && race.isDecided()) {
+            throw new DownloadAbortedException(downloadDetails.downloadFrom);
+        }
+        cacheFile.ifPresent(resource::setLocalFile);
+        return cacheFile;
+    }
+
+    /**
+     * The digest advertised by the server can only be used if the response body is the plain content of the resource.
+     */
+    private static boolean isAvailableInContentStore(final DownloadDetails downloadDetails) {
+        return downloadDetails.contentDigest != null
+                && isPlainContent(downloadDetails)
+                && Cache.hasContent(downloadDetails.contentDigest);
+    }
+
+    /**
+     * Only a large response with the plain content of the resource from a server which supports range requests
+     * is stored as partial download.
+     */
+    private static boolean isResumable(final DownloadDetails downloadDetails) {
+        final String protocol = downloadDetails.downloadFrom.getProtocol();
+        return ("http".equals(protocol) || "https".equals(protocol))
+                && !downloadDetails.isPartialContent()
+                && downloadDetails.acceptsRanges
+                && downloadDetails.validator != null
+                && downloadDetails.totalSize >= PartialDownload.MIN_SIZE
+                && isPlainContent(downloadDetails);
+    }
+
+    private static boolean isPlainContent(final DownloadDetails downloadDetails) {
+        return downloadDetails.contentEncoding == null
+                && !downloadDetails.downloadFrom.getPath().endsWith(PACK_GZ_EXTENSION)
+                && (downloadDetails.contentType == null || !downloadDetails.contentType.startsWith(JAR_DIFF_MIME_TYPE));
     }
 
     protected abstract VersionId getVersion(URL downloadFrom, final String versionHeaderValue);
@@ -222,14 +491,28 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
             final String version = connection.getHeaderField(VERSION_ID_HEADER);
             final String contentType = connection.getHeaderField(CONTENT_TYPE_HEADER);
             final String contentEncoding = connection.getHeaderField(CONTENT_ENCODING_HEADER);
-            final long totalSize = connection.getContentLength();
-            final NotifyingInputStream inputStream = new NotifyingInputStream(connection.getInputStream(), totalSize, resource::setTransferred);
+            final boolean partialContent = connection.getResponseCode() == HttpURLConnection.HTTP_PARTIAL;
+            final String contentDigest = getAdvertisedDigest(connection::getHeaderField, partialContent);
+            final String validator = getValidator(connection::getHeaderField);
+            final boolean acceptsRanges = BYTES_RANGE_UNIT.equalsIgnoreCase(String.valueOf(connection.getHeaderField(ACCEPT_RANGES_HEADER)).trim());
+            final InputStream inputStream = connection.getInputStream();
 
             if (!String.valueOf(connection.getResponseCode()).startsWith("2")) {
                 throw new IllegalStateException("Request returned " + connection.getResponseCode() + " for URL " + connection.getURL());
             }
 
-            return new DownloadDetails(downloadFrom, inputStream, contentType, contentEncoding, version, lastModified, totalSize);
+            if (partialContent) {
+                final Matcher contentRange = CONTENT_RANGE.matcher(String.valueOf(connection.getHeaderField(CONTENT_RANGE_HEADER)).trim());
+                if (!contentRange.matches()) {
+                    throw new IOException("Invalid content range of partial content from " + downloadFrom);
+                }
+                final long rangeStart = Long.parseLong(contentRange.group(1));
+                final long totalSize = Long.parseLong(contentRange.group(2));
+                return new DownloadDetails(downloadFrom, inputStream, contentType, contentEncoding, version, lastModified, totalSize, contentDigest, validator, acceptsRanges, rangeStart);
+            }
+
+            final long totalSize = connection.getContentLength();
+            return new DownloadDetails(downloadFrom, inputStream, contentType, contentEncoding, version, lastModified, totalSize, contentDigest, validator, acceptsRanges, DownloadDetails.COMPLETE_CONTENT);
         } catch (IOException ex) {
             if (INVALID_HTTP_RESPONSE.equals(ex.getMessage())) {
                 LOG.warn(INVALID_HTTP_RESPONSE + " message detected. Attempting direct socket");
@@ -257,9 +540,34 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
         final String version = headerMap.get(VERSION_ID_HEADER);
         final String contentType = headerMap.get(CONTENT_TYPE_HEADER);
         final String contentEncoding = headerMap.get(CONTENT_ENCODING_HEADER);
-        final CountingInputStream inputStream = new CountingInputStream(new ByteArrayInputStream(body));
+        final String contentDigest = getAdvertisedDigest(headerMap::get, false);
+        final InputStream inputStream = new ByteArrayInputStream(body);
 
-        return new DownloadDetails(url, inputStream, contentType, contentEncoding, version, lastModified, body.length);
+        return new DownloadDetails(url, inputStream, contentType, contentEncoding, version, lastModified, body.length, contentDigest);
+    }
+
+    /**
+     * The digest of a partial content only covers the range, only a digest of the whole representation can be used.
+     */
+    private static String getAdvertisedDigest(final Function<String, String> headers, final boolean partialContent) {
+        final Stream<String> digestHeaders = partialContent ? Stream.of(REPR_DIGEST_HEADER, DIGEST_HEADER) : Stream.of(REPR_DIGEST_HEADER, CONTENT_DIGEST_HEADER, DIGEST_HEADER);
+        return digestHeaders
+                .map(headers)
+                .map(ContentDigest::fromHttpHeader)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * A weak entity tag must not be used to continue a download, the modification date is used instead.
+     */
+    private static String getValidator(final Function<String, String> headers) {
+        final String entityTag = headers.apply(ETAG_HEADER);
+        if (entityTag != null && !entityTag.startsWith("W/")) {
+            return entityTag;
+        }
+        return headers.apply(LAST_MODIFIED_HEADER);
     }
 
     private Object[] loadUrlWithInvalidHeaderBytes(final URL url) throws IOException {
@@ -303,7 +611,9 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
         try {
             return Optional.ofNullable(future.get());
         } catch (InterruptedException | ExecutionException e) {
-            downLoadExceptions.add(e);
+            if (!(e.getCause() instanceof DownloadAbortedException)) {
+                downLoadExceptions.add(e);
+            }
             return Optional.empty();
         }
     }
@@ -313,4 +623,54 @@ abstract class BaseResourceDownloader implements ResourceDownloader {
         LOG.debug("Invalidating resource in cache: {} / {}", location, version);
         Cache.invalidateExistingCacheFile(location, version);
     }
+
+    /**
+     * Stops reading from the server as soon as another download has won the race.
+     * A read which fails because the race closed the connection is reported as aborted.
+     */
+    private static class AbortableInputStream extends FilterInputStream {
+        private final DownloadRace race;
+        private final URL downloadFrom;
+
+        AbortableInputStream(final InputStream in, final DownloadRace race, final URL downloadFrom) {
+            super(in);
+            this.race = race;
+            this.downloadFrom = downloadFrom;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkNotAborted();
+            try {
+                return super.read();
+            } catch (IOException e) {
+                checkNotAborted();
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkNotAborted();
+            try {
+                return super.read(b, off, len);
+            } catch (IOException e) {
+                // the connection was closed as another download won the race
+                checkNotAborted();
+                throw e;
+            }
+        }
+
+        private void checkNotAborted() throws DownloadAbortedException {
+            if (race.isDecided()) {
+                throw new DownloadAbortedException(downloadFrom);
+            }
+        }
+    }
+
+    private static class DownloadAbortedException extends IOException {
+        DownloadAbortedException(final URL downloadFrom) {
+            super("Download from " + downloadFrom + " was aborted as another download completed first");
+        }
+    }
 }
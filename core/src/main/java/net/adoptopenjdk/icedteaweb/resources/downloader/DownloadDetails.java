@@ -7,15 +7,31 @@ import java.net.URL;
  * ...
  */
 class DownloadDetails {
+    static final long COMPLETE_CONTENT = -1;
+
     final URL downloadFrom;
-    final CountingInputStream inputStream;
+    final InputStream inputStream;
     final String contentType;
     final String contentEncoding;
     final String version;
     final long lastModified;
     final long totalSize;
+    final String contentDigest;
+    final String validator;
+    final boolean acceptsRanges;
+    final long rangeStart;
+
+    DownloadDetails(URL downloadFrom, InputStream inputStream, String contentType, String contentEncoding, String version, long lastModified, long totalSize, String contentDigest) {
+        this(downloadFrom, inputStream, contentType, contentEncoding, version, lastModified, totalSize, contentDigest, null, false, COMPLETE_CONTENT);
+    }
 
-    DownloadDetails(URL downloadFrom, CountingInputStream inputStream, String contentType, String contentEncoding, String version, long lastModified, long totalSize) {
+    /**
+     * @param validator     the strong validator of the content to be sent with a range request, may be {@code null}
+     * @param acceptsRanges whether the server announced to support range requests
+     * @param rangeStart    the offset of the first byte of the stream in the content or {@link #COMPLETE_CONTENT}
+     */
+    DownloadDetails(URL downloadFrom, InputStream inputStream, String contentType, String contentEncoding, String version, long lastModified, long totalSize, String contentDigest,
+                    String validator, boolean acceptsRanges, long rangeStart) {
         this.downloadFrom = downloadFrom;
         this.inputStream = inputStream;
         this.contentType = contentType;
@@ -23,5 +39,13 @@ class DownloadDetails {
         this.version = version;
         this.lastModified = lastModified;
         this.totalSize = totalSize;
+        this.contentDigest = contentDigest;
+        this.validator = validator;
+        this.acceptsRanges = acceptsRanges;
+        this.rangeStart = rangeStart;
+    }
+
+    boolean isPartialContent() {
+        return rangeStart != COMPLETE_CONTENT;
     }
 }
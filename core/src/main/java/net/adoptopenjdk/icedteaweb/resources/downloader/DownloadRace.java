@@ -0,0 +1,159 @@
+package net.adoptopenjdk.icedteaweb.resources.downloader;
+
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.resources.Resource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.createCachedDaemonThreadPool;
+
+/**
+ * Decides which of several concurrent downloads of the same resource is moved into the cache.
+ * The race is only decided once a download has been committed successfully, a download which
+ * fails to commit leaves the race open for the others. Once the race is decided the connections of the
+ * other downloads are closed, so a download blocked in a read from a stalled server is aborted too.
+ */
+class DownloadRace {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DownloadRace.class);
+
+    /**
+     * Closing a connection waits for a read blocked on it to return, so the winner does not close them itself.
+     * A connection still waiting for the response is closed right away.
+     */
+    private static final ExecutorService CLOSING_THREADS = createCachedDaemonThreadPool();
+
+    private final Resource resource;
+    private final boolean racing;
+    private final Map<Closeable, Thread> connections = new HashMap<>();
+    private volatile boolean decided;
+    private long reportedTransferred = -1;
+
+    DownloadRace(final Resource resource) {
+        this(resource, false);
+    }
+
+    /**
+     * @param resource the resource downloaded
+     * @param racing   whether several downloads of the resource run at the same time
+     */
+    DownloadRace(final Resource resource, final boolean racing) {
+        this.resource = resource;
+        this.racing = racing;
+    }
+
+    boolean isRacing() {
+        return racing;
+    }
+
+    boolean isDecided() {
+        return decided;
+    }
+
+    /**
+     * Commits a complete download unless another download has already been committed.
+     * Only one commit runs at a time.
+     *
+     * @param commit moves the download into the cache
+     * @return the result of the commit or empty if another download won the race
+     * @throws IOException if the commit fails, the race is not decided in this case
+     */
+    <T> Optional<T> commit(final Commit<T> commit) throws IOException {
+        return commitIfAvailable(() -> Optional.of(commit.run()));
+    }
+
+    /**
+     * Commits a download unless another download has already been committed.
+     * If the commit has nothing to move into the cache the race stays open.
+     *
+     * @param commit moves the download into the cache, returns empty if there is nothing to commit
+     * @return the result of the commit or empty if nothing was committed or another download won the race
+     * @throws IOException if the commit fails, the race is not decided in this case
+     */
+    <T> Optional<T> commitIfAvailable(final Commit<Optional<T>> commit) throws IOException {
+        final Optional<T> result;
+        final List<Closeable> losers;
+        synchronized (this) {
+            if (decided) {
+                return Optional.empty();
+            }
+            result = commit.run();
+            decided = result.isPresent();
+            losers = decided ? takeConnectionsOfOtherThreads() : Collections.emptyList();
+        }
+        losers.forEach(connection -> CLOSING_THREADS.execute(() -> closeQuietly(connection)));
+        return result;
+    }
+
+    /**
+     * Watches the connection of a download, it is closed as soon as another download wins the race.
+     * A connection opened after the race was decided is closed right away.
+     *
+     * @param connection the connection opened by the current thread
+     * @return stops watching the connection when closed
+     */
+    Closeable closeWhenLost(final Closeable connection) {
+        final boolean lost;
+        synchronized (this) {
+            lost = decided;
+            if (!lost) {
+                connections.put(connection, Thread.currentThread());
+            }
+        }
+        if (lost) {
+            closeQuietly(connection);
+        }
+        return () -> {
+            synchronized (this) {
+                connections.remove(connection);
+            }
+        };
+    }
+
+    private List<Closeable> takeConnectionsOfOtherThreads() {
+        final List<Closeable> result = new ArrayList<>();
+        connections.forEach((connection, thread) -> {
+            if (thread != Thread.currentThread()) {
+                result.add(connection);
+            }
+        });
+        connections.clear();
+        return result;
+    }
+
+    private static void closeQuietly(final Closeable connection) {
+        try {
+            connection.close();
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Failed to close the connection of an aborted download: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reports the progress of one download. As the downloads run in parallel only the download
+     * which has transferred the most bytes is shown, so the progress does not jump between them.
+     *
+     * @param size        the total size of the download
+     * @param transferred the number of bytes transferred so far
+     */
+    synchronized void reportProgress(final long size, final long transferred) {
+        if (!decided && transferred >= reportedTransferred) {
+            reportedTransferred = transferred;
+            resource.setSize(size);
+            resource.setTransferred(transferred);
+        }
+    }
+
+    interface Commit<T> {
+        T run() throws IOException;
+    }
+}
@@ -16,9 +16,6 @@
 
 package net.adoptopenjdk.icedteaweb.resources.downloader;
 
-import net.adoptopenjdk.icedteaweb.io.IOUtils;
-
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.zip.GZIPInputStream;
@@ -29,7 +26,6 @@ import java.util.zip.GZIPInputStream;
 public class GzipUnpacker implements StreamUnpacker {
     @Override
     public InputStream unpack(InputStream input) throws IOException {
-        final byte[] content = IOUtils.readContent(new GZIPInputStream(input));
-        return new ByteArrayInputStream(content);
+        return new GZIPInputStream(input);
     }
 }
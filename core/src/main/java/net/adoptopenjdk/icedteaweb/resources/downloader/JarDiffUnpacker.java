@@ -7,15 +7,11 @@ import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.adoptopenjdk.icedteaweb.resources.jardiff.JarDiffMerger;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.UUID;
-import java.util.jar.JarFile;
-import java.util.jar.JarOutputStream;
 
 import static net.sourceforge.jnlp.config.PathsAndFiles.TMP_DIR;
 
@@ -40,7 +36,6 @@ class JarDiffUnpacker implements StreamUnpacker {
 
         LOG.info("Trying to merge JarDiff for '{}'", cacheFile.getName());
 
-        final JarFile originalJar = new JarFile(cacheFile);
         final File diffJarFile = new File(TMP_DIR.getFile(), UUID.randomUUID().toString() + JARDIFF_EXTENSION);
 
         try {
@@ -49,19 +44,28 @@ class JarDiffUnpacker implements StreamUnpacker {
             LOG.error("Error creating tmp dir for jardiff.", e);
         }
 
-        try(final FileOutputStream outputStream = new FileOutputStream(diffJarFile)) {
-            IOUtils.copy(input, outputStream);
-            final JarFile diffJar = new JarFile(diffJarFile);
-            final ByteArrayOutputStream mergedJarContent = new ByteArrayOutputStream();
-            try(final JarOutputStream resultJarOutputStream = new JarOutputStream(mergedJarContent)) {
-                JarDiffMerger.merge(originalJar, diffJar, resultJarOutputStream);
-            }
-            return new ByteArrayInputStream(mergedJarContent.toByteArray());
-        } finally {
-            if(diffJarFile.exists() && !diffJarFile.delete()) {
-                LOG.debug("Temp file '{}' for JarDiff merge can not be deleted. Will try to delete it on exit", diffJarFile.getName());
-                diffJarFile.deleteOnExit();
+        try {
+            try (final FileOutputStream outputStream = new FileOutputStream(diffJarFile)) {
+                IOUtils.copy(input, outputStream);
             }
+            // the merged jar is written while it is read, the diff is deleted once the merge is done
+            return UnpackerPipe.open(output -> {
+                try {
+                    JarDiffMerger.merge(cacheFile, diffJarFile, output);
+                } finally {
+                    deleteDiffJar(diffJarFile);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            deleteDiffJar(diffJarFile);
+            throw e;
+        }
+    }
+
+    private static void deleteDiffJar(final File diffJarFile) {
+        if (diffJarFile.exists() && !diffJarFile.delete()) {
+            LOG.debug("Temp file '{}' for JarDiff merge can not be deleted. Will try to delete it on exit", diffJarFile.getName());
+            diffJarFile.deleteOnExit();
         }
     }
 }
@@ -0,0 +1,411 @@
+package net.adoptopenjdk.icedteaweb.resources.downloader;
+
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
+import net.adoptopenjdk.icedteaweb.resources.cache.ContentDigest;
+import net.sourceforge.jnlp.util.AtomicFiles;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * A download which is written into the cache piece by piece, so it can be continued with HTTP range requests
+ * after the connection broke, even by a later launch. The content is kept together with the validator of the
+ * response, its ETag or Last-Modified header, which makes sure all pieces belong to the same content.
+ * The content may be split into segments which are downloaded in parallel.
+ * Only one process at a time works on the download of a url.
+ */
+class PartialDownload implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PartialDownload.class);
+
+    /**
+     * Smaller downloads are simply started over.
+     */
+    static final long MIN_SIZE = 1024 * 1024;
+
+    private static final long MIN_SEGMENT_SIZE = 4 * 1024 * 1024;
+    private static final long SAVE_INTERVAL = 8 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String DATA_SUFFIX = ".part";
+    private static final String STATE_SUFFIX = ".properties";
+    private static final String LOCK_SUFFIX = ".lock";
+
+    private static final String FORMAT_VERSION = "1";
+    private static final String KEY_FORMAT = "format";
+    private static final String KEY_LOCATION = "location";
+    private static final String KEY_VALIDATOR = "validator";
+    private static final String KEY_SIZE = "size";
+    private static final String KEY_SEGMENTS = "segments";
+    private static final String KEY_SEGMENT_START = ".start";
+    private static final String KEY_SEGMENT_END = ".end";
+    private static final String KEY_SEGMENT_WRITTEN = ".written";
+
+    private final URL location;
+    private final File dataFile;
+    private final File stateFile;
+    private final FileChannel lockChannel;
+    private FileChannel dataChannel;
+
+    private String validator;
+    private long size;
+    private List<Segment> segments = Collections.emptyList();
+    private long unsaved = 0;
+
+    private PartialDownload(final URL location, final File dir, final String name, final FileChannel lockChannel) {
+        this.location = location;
+        this.dataFile = new File(dir, name + DATA_SUFFIX);
+        this.stateFile = new File(dir, name + STATE_SUFFIX);
+        this.lockChannel = lockChannel;
+    }
+
+    /**
+     * Looks for an earlier partial download of the url.
+     *
+     * @return the partial download or empty if there is none or another process is working on it
+     */
+    static Optional<PartialDownload> find(final URL location) {
+        try {
+            if (!getStateFile(location).isFile()) {
+                return Optional.empty();
+            }
+            final Optional<PartialDownload> partial = lock(location);
+            if (partial.isPresent() && !partial.get().load()) {
+                LOG.debug("Partial download of {} cannot be continued", location);
+                partial.get().discard();
+                partial.get().close();
+                return Optional.empty();
+            }
+            return partial;
+        } catch (IOException e) {
+            LOG.debug("Cannot continue the download of {}: {}", location, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Starts a new partial download of the url and replaces any earlier one.
+     *
+     * @param validator        the strong validator of the content
+     * @param size             the size of the content
+     * @param maxSegmentCount  the maximum number of segments to split the content into
+     * @return the partial download or empty if another process is working on the url
+     */
+    static Optional<PartialDownload> start(final URL location, final String validator, final long size, final int maxSegmentCount) {
+        try {
+            final Optional<PartialDownload> partial = lock(location);
+            if (partial.isPresent()) {
+                try {
+                    partial.get().start(validator, size, (int) Math.max(1, Math.min(maxSegmentCount, size / MIN_SEGMENT_SIZE)));
+                } catch (IOException e) {
+                    partial.get().close();
+                    throw e;
+                }
+            }
+            return partial;
+        } catch (IOException e) {
+            LOG.debug("Cannot store the partial download of {}: {}", location, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<PartialDownload> lock(final URL location) throws IOException {
+        final File dir = Cache.getPartialDownloadDir();
+        final String name = getName(location);
+        final FileChannel lockChannel = FileChannel.open(new File(dir, name + LOCK_SUFFIX).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            final FileLock lock = lockChannel.tryLock();
+            if (lock != null) {
+                final PartialDownload partial = new PartialDownload(location, dir, name, lockChannel);
+                partial.dataChannel = FileChannel.open(partial.dataFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                return Optional.of(partial);
+            }
+        } catch (OverlappingFileLockException e) {
+            // another thread of this process is working on the url
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+        LOG.debug("Partial download of {} is locked by another download", location);
+        lockChannel.close();
+        return Optional.empty();
+    }
+
+    private static File getStateFile(final URL location) throws IOException {
+        return new File(Cache.getPartialDownloadDir(), getName(location) + STATE_SUFFIX);
+    }
+
+    private static String getName(final URL location) {
+        return ContentDigest.toHex(ContentDigest.newMessageDigest().digest(location.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void start(final String validator, final long size, final int segmentCount) throws IOException {
+        this.validator = validator;
+        this.size = size;
+        final long segmentSize = size / segmentCount;
+        final List<Segment> newSegments = new ArrayList<>(segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            newSegments.add(new Segment(i * segmentSize, i == segmentCount - 1 ? size : (i + 1) * segmentSize, 0));
+        }
+        this.segments = newSegments;
+        dataChannel.truncate(0);
+        save();
+        LOG.debug("Started partial download of {} with {} segments", location, segmentCount);
+    }
+
+    /**
+     * Loads the state of an earlier download.
+     *
+     * @return whether the earlier download belongs to the url and can be continued
+     */
+    private boolean load() {
+        final Properties state = new Properties();
+        try (InputStream in = Files.newInputStream(stateFile.toPath())) {
+            state.load(in);
+        } catch (IOException e) {
+            LOG.debug("Failed to read state of partial download {}: {}", stateFile, e.getMessage());
+            return false;
+        }
+        try {
+            if (!FORMAT_VERSION.equals(state.getProperty(KEY_FORMAT)) || !location.toString().equals(state.getProperty(KEY_LOCATION))) {
+                return false;
+            }
+            validator = state.getProperty(KEY_VALIDATOR);
+            size = Long.parseLong(state.getProperty(KEY_SIZE));
+            final int segmentCount = Integer.parseInt(state.getProperty(KEY_SEGMENTS));
+            final List<Segment> loaded = new ArrayList<>(segmentCount);
+            long expectedStart = 0;
+            for (int i = 0; i < segmentCount; i++) {
+                final Segment segment = new Segment(
+                        Long.parseLong(state.getProperty(KEY_SEGMENTS + "." + i + KEY_SEGMENT_START)),
+                        Long.parseLong(state.getProperty(KEY_SEGMENTS + "." + i + KEY_SEGMENT_END)),
+                        Long.parseLong(state.getProperty(KEY_SEGMENTS + "." + i + KEY_SEGMENT_WRITTEN)));
+                if (segment.start != expectedStart || segment.written < 0 || segment.getPosition() > segment.end || segment.getPosition() > dataChannel.size()) {
+                    return false;
+                }
+                expectedStart = segment.end;
+                loaded.add(segment);
+            }
+            segments = loaded;
+            return validator != null && expectedStart == size && !getIncompleteSegments().isEmpty();
+        } catch (NumberFormatException | IOException e) {
+            return false;
+        }
+    }
+
+    String getValidator() {
+        return validator;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the number of bytes already written
+     */
+    long getWritten() {
+        long written = 0;
+        for (final Segment segment : segments) {
+            written += segment.written;
+        }
+        return written;
+    }
+
+    /**
+     * @return the segments which are not completely written, in the order of the content
+     */
+    List<Segment> getIncompleteSegments() {
+        return segments.stream()
+                .filter(segment -> !segment.isComplete())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return whether the response continues the first incomplete segment of this download
+     */
+    boolean isContinuedBy(final DownloadDetails downloadDetails) {
+        final List<Segment> incomplete = getIncompleteSegments();
+        return !incomplete.isEmpty() && isContinuedBy(downloadDetails, incomplete.get(0));
+    }
+
+    /**
+     * @return whether the response continues the segment of this download
+     */
+    boolean isContinuedBy(final DownloadDetails downloadDetails, final Segment segment) {
+        return downloadDetails.isPartialContent()
+                && downloadDetails.rangeStart == segment.getPosition()
+                && downloadDetails.totalSize == size
+                && validator.equals(downloadDetails.validator);
+    }
+
+    /**
+     * Writes the content of the stream into the segment until the segment is complete.
+     * The progress is saved even if the stream fails.
+     *
+     * @param progress receives the number of bytes written of the whole download from time to time
+     * @throws IOException if the stream ends before the segment is complete
+     */
+    void write(final Segment segment, final InputStream in, final LongConsumer progress) throws IOException {
+        final long expected = segment.end - segment.getPosition();
+        final long notificationInterval = Math.max(size / 100, BUFFER_SIZE);
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long read = 0;
+        long notified = 0;
+        try {
+            while (!segment.isComplete()) {
+                final int count = in.read(buffer, 0, (int) Math.min(buffer.length, segment.end - segment.getPosition()));
+                if (count == -1) {
+                    throw new IOException(String.format("Did read %d bytes from server but expected %d", read, expected));
+                }
+                final ByteBuffer data = ByteBuffer.wrap(buffer, 0, count);
+                long position = segment.getPosition();
+                while (data.hasRemaining()) {
+                    position += dataChannel.write(data, position);
+                }
+                segment.written += count;
+                read += count;
+
+                if (read - notified >= notificationInterval) {
+                    notified = read;
+                    progress.accept(getWritten());
+                }
+                if (addUnsaved(count) >= SAVE_INTERVAL) {
+                    save();
+                }
+            }
+        } finally {
+            try {
+                save();
+            } catch (IOException e) {
+                LOG.debug("Failed to save state of partial download of {}: {}", location, e.getMessage());
+            }
+            progress.accept(getWritten());
+        }
+    }
+
+    private synchronized long addUnsaved(final long count) {
+        unsaved += count;
+        return unsaved;
+    }
+
+    /**
+     * Checks that all segments are complete and closes the content.
+     *
+     * @return the file with the complete content, which may be moved into the cache
+     * @throws IOException if the content is not complete
+     */
+    File complete() throws IOException {
+        if (!getIncompleteSegments().isEmpty() || dataChannel.size() != size) {
+            throw new IOException(String.format("Download of %s is incomplete with %d of %d bytes", location, dataChannel.size(), size));
+        }
+        dataChannel.force(false);
+        dataChannel.close();
+        return dataFile;
+    }
+
+    /**
+     * Deletes the content and state of the download. It is still locked until it is closed.
+     */
+    void discard() {
+        try {
+            dataChannel.close();
+            Files.deleteIfExists(stateFile.toPath());
+            Files.deleteIfExists(dataFile.toPath());
+        } catch (IOException e) {
+            LOG.debug("Failed to delete partial download of {}: {}", location, e.getMessage());
+        }
+        segments = Collections.emptyList();
+    }
+
+    /**
+     * Releases the lock. The content and state are kept unless the download was discarded.
+     */
+    @Override
+    public void close() {
+        try {
+            dataChannel.close();
+            lockChannel.close();
+        } catch (IOException e) {
+            LOG.debug("Failed to close partial download of {}: {}", location, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the state atomically. The content is forced to the disk first, so the state never claims
+     * more content than there is.
+     */
+    private synchronized void save() throws IOException {
+        if (!dataChannel.isOpen()) {
+            return;
+        }
+        final Properties state = new Properties();
+        state.setProperty(KEY_FORMAT, FORMAT_VERSION);
+        state.setProperty(KEY_LOCATION, location.toString());
+        state.setProperty(KEY_VALIDATOR, validator);
+        state.setProperty(KEY_SIZE, Long.toString(size));
+        state.setProperty(KEY_SEGMENTS, Integer.toString(segments.size()));
+        for (int i = 0; i < segments.size(); i++) {
+            final Segment segment = segments.get(i);
+            state.setProperty(KEY_SEGMENTS + "." + i + KEY_SEGMENT_START, Long.toString(segment.start));
+            state.setProperty(KEY_SEGMENTS + "." + i + KEY_SEGMENT_END, Long.toString(segment.end));
+            state.setProperty(KEY_SEGMENTS + "." + i + KEY_SEGMENT_WRITTEN, Long.toString(segment.written));
+        }
+        dataChannel.force(false);
+        unsaved = 0;
+
+        AtomicFiles.write(stateFile, out -> state.store(out, "Partial download"));
+    }
+
+    /**
+     * A range of the content. Only one thread at a time writes a segment.
+     */
+    static class Segment {
+        private final long start;
+        private final long end;
+        private volatile long written;
+
+        private Segment(final long start, final long end, final long written) {
+            this.start = start;
+            this.end = end;
+            this.written = written;
+        }
+
+        /**
+         * @return the offset of the next byte to write
+         */
+        long getPosition() {
+            return start + written;
+        }
+
+        /**
+         * @return the offset of the last byte of the segment
+         */
+        long getLast() {
+            return end - 1;
+        }
+
+        boolean isComplete() {
+            return getPosition() == end;
+        }
+    }
+}
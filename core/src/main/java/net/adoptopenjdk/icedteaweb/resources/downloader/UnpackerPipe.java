@@ -0,0 +1,98 @@
+package net.adoptopenjdk.icedteaweb.resources.downloader;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.createCachedDaemonThreadPool;
+
+/**
+ * Provides the output of an unpacker which writes to an output stream as input stream.
+ * The unpacker runs on a separate thread and only the buffer of the pipe is held in memory,
+ * no matter how big the unpacked content is. A failure of the unpacker is thrown by the
+ * input stream when the end of the content is reached, an {@link IOException} as it is.
+ */
+class UnpackerPipe {
+
+    private static final int PIPE_SIZE = 64 * 1024;
+
+    private static final ExecutorService UNPACKER_THREADS = createCachedDaemonThreadPool();
+
+    interface Unpacker {
+        void writeTo(OutputStream output) throws Exception;
+    }
+
+    private UnpackerPipe() {
+        // do not instantiate
+    }
+
+    static InputStream open(final Unpacker unpacker) throws IOException {
+        final PipedInputStream pipeInput = new PipedInputStream(PIPE_SIZE);
+        final PipedOutputStream pipeOutput = new PipedOutputStream(pipeInput);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        UNPACKER_THREADS.execute(() -> {
+            try {
+                unpacker.writeTo(new UnclosableOutputStream(pipeOutput));
+            } catch (Throwable t) {
+                // must be recorded before the pipe is closed
+                failure.set(t);
+            } finally {
+                try {
+                    pipeOutput.close();
+                } catch (IOException ignored) {
+                    // reader is gone
+                }
+            }
+        });
+
+        return new FilterInputStream(pipeInput) {
+            @Override
+            public int read() throws IOException {
+                return checkFailure(super.read());
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                return checkFailure(super.read(b, off, len));
+            }
+
+            private int checkFailure(final int result) throws IOException {
+                final Throwable cause = failure.get();
+                if (result == -1 && cause != null) {
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IOException("Failed to unpack", cause);
+                }
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Keeps the pipe open when the unpacker closes its stream, so a failure is recorded before the reader sees the end.
+     */
+    private static class UnclosableOutputStream extends FilterOutputStream {
+
+        private UnclosableOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -89,6 +89,7 @@ abstract class BaseResourceInitializer implements ResourceInitializer {
         try {
             return Optional.ofNullable(future.get());
         } catch (InterruptedException | ExecutionException e) {
+            future.cancel(true);
             LOG.debug("failed to determine best URL: {}", e.getMessage());
             return Optional.empty();
         }
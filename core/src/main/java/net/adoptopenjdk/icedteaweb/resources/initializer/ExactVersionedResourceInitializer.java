@@ -12,6 +12,7 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 import static net.adoptopenjdk.icedteaweb.resources.initializer.ResourceUrlCreator.getUrl;
 import static net.adoptopenjdk.icedteaweb.resources.initializer.ResourceUrlCreator.getVersionedUrl;
@@ -43,6 +44,14 @@ class ExactVersionedResourceInitializer extends BaseResourceInitializer {
         return initFromCache(versionId);
     }
 
+    @Override
+    public Optional<InitializationResult> initFromCacheOnly() {
+        if (Cache.isCached(resource.getLocation(), versionId) && !resource.forceUpdateRequested()) {
+            return Optional.of(initFromCache(versionId));
+        }
+        return Optional.empty();
+    }
+
     private InitializationResult findDownloadUrl() {
         final List<URL> candidateUrls = getUrlCandidates();
         LOG.debug("Candidate URLs for {}: {}", resource, candidateUrls);
@@ -6,6 +6,8 @@ import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.adoptopenjdk.icedteaweb.resources.Resource;
 import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
 
+import java.util.Optional;
+
 import static net.adoptopenjdk.icedteaweb.resources.ResourceStatus.ERROR;
 
 /**
@@ -20,14 +22,19 @@ class OfflineResourceInitializer extends BaseResourceInitializer {
 
     @Override
     public InitializationResult init() {
-        if (Cache.isAnyCached(resource.getLocation(), resource.getRequestVersion())) {
-            final VersionId version = Cache.getBestMatchingVersionInCache(resource.getLocation(), resource.getRequestVersion());
-            return initFromCache(version);
-        } else {
+        return initFromCacheOnly().orElseGet(() -> {
             LOG.warn("Resource '{}' not found in cache. Continuing but you may experience errors", resource.getLocation());
             resource.setStatus(ERROR);
             return new InitializationResult();
-        }
+        });
+    }
 
+    @Override
+    public Optional<InitializationResult> initFromCacheOnly() {
+        if (Cache.isAnyCached(resource.getLocation(), resource.getRequestVersion())) {
+            final VersionId version = Cache.getBestMatchingVersionInCache(resource.getLocation(), resource.getRequestVersion());
+            return Optional.of(initFromCache(version));
+        }
+        return Optional.empty();
     }
 }
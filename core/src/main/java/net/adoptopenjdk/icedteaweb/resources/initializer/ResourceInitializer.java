@@ -4,6 +4,8 @@ import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
 import net.adoptopenjdk.icedteaweb.resources.Resource;
 import net.sourceforge.jnlp.runtime.JNLPRuntime;
 
+import java.util.Optional;
+
 public interface ResourceInitializer {
 
     static ResourceInitializer of(final Resource resource) {
@@ -24,4 +26,13 @@ public interface ResourceInitializer {
     }
 
     InitializationResult init();
+
+    /**
+     * Initializes the resource if this is possible without contacting a server.
+     *
+     * @return the result or empty if the resource can only be initialized by {@link #init()}
+     */
+    default Optional<InitializationResult> initFromCacheOnly() {
+        return Optional.empty();
+    }
 }
@@ -60,7 +60,7 @@ class ResourceUrlCreator {
 
     static List<URL> prependHttps(List<URL> urls) {
         final List<URL> result = new ArrayList<>();
-        final boolean noHttpsPreferred = Boolean.parseBoolean(getConfiguration().getProperty(KEY_HTTPS_DONT_ENFORCE));
+        final boolean noHttpsPreferred = getConfiguration().getSnapshot().getBoolean(KEY_HTTPS_DONT_ENFORCE);
         if (!noHttpsPreferred) {
             //preferring https and  overriding case, when application was moved to https, but the jnlp stayed intact
             for (final URL url : urls) {
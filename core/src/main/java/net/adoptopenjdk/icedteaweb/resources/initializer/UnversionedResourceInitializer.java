@@ -9,6 +9,7 @@ import net.adoptopenjdk.icedteaweb.resources.cache.ResourceInfo;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static net.adoptopenjdk.icedteaweb.resources.initializer.ResourceUrlCreator.getUrl;
 
@@ -35,6 +36,14 @@ class UnversionedResourceInitializer extends BaseResourceInitializer {
         }
     }
 
+    @Override
+    public Optional<InitializationResult> initFromCacheOnly() {
+        if (Cache.isCached(resource.getLocation(), null) && !needsUpdateCheck()) {
+            return Optional.of(initFromCache());
+        }
+        return Optional.empty();
+    }
+
     private InitializationResult findDownloadUrl() {
         final List<URL> candidateUrls = getUrlCandidates();
         LOG.debug("Candidate URLs for {}: {}", resource, candidateUrls);
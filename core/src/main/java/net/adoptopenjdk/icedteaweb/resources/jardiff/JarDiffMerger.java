@@ -6,13 +6,22 @@ import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.jar.JarEntry;
@@ -22,6 +31,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
 
 public class JarDiffMerger {
 
@@ -48,12 +58,14 @@ public class JarDiffMerger {
 
         try {
             final Set<JarEntry> newContent = getNewContent(jarDiff);
+            final Set<String> newNames = newContent.stream().map(JarEntry::getName).collect(Collectors.toSet());
             final Set<String> removedContent = getRemovedContent(jarDiff);
             final Set<MovedJar> movedContent = getMovedContent(jarDiff);
+            final Set<String> movedOldNames = getOldNames(movedContent);
             final Set<JarEntry> unmodifiedContent = oldJar.stream()
-                    .filter(e -> !containsEntryWithSameName(newContent, e.getName()))
+                    .filter(e -> !newNames.contains(e.getName()))
                     .filter(e -> !removedContent.contains(e.getName()))
-                    .filter(e -> !containsOldName(movedContent, e.getName()))
+                    .filter(e -> !movedOldNames.contains(e.getName()))
                     .collect(Collectors.toSet());
 
             newContent.forEach(e -> {
@@ -93,21 +105,104 @@ public class JarDiffMerger {
         }
     }
 
-    private static boolean containsEntryWithSameName(final Collection<JarEntry> collection, final String name) {
-        Assert.requireNonNull(collection, "collection");
-        Assert.requireNonBlank(name, "name");
+    /**
+     * Merges the jar diff into the old jar like {@link #merge(JarFile, JarFile, JarOutputStream)}, but copies
+     * the compressed data of all entries as it is instead of inflating and deflating every entry again.
+     * Archives this is not possible for, like zip64 archives, are merged the regular way.
+     *
+     * @param oldJar       the old jar
+     * @param jarDiff      the jar diff
+     * @param outputStream the stream the merged jar is written to, which is not closed
+     * @throws IOException if the jars cannot be read or the merged jar cannot be written
+     */
+    public static void merge(final File oldJar, final File jarDiff, final OutputStream outputStream) throws IOException {
+        Assert.requireNonNull(oldJar, "oldJar");
+        Assert.requireNonNull(jarDiff, "jarDiff");
+        Assert.requireNonNull(outputStream, "outputStream");
+
+        LOG.debug("JarDiff raw merge for original jar '{}' and diff jar '{}' starts", oldJar.getName(), jarDiff.getName());
+
+        try (final FileChannel oldChannel = FileChannel.open(oldJar.toPath(), StandardOpenOption.READ);
+             final FileChannel diffChannel = FileChannel.open(jarDiff.toPath(), StandardOpenOption.READ);
+             final JarFile diffJar = new JarFile(jarDiff)) {
+
+            List<RawZipWriter.Item> items;
+            try {
+                items = getMergedItems(oldChannel, diffChannel, diffJar);
+            } catch (ZipException e) {
+                LOG.debug("JarDiff: Raw merge is not possible, will merge the regular way: {}", e.getMessage());
+                items = null;
+            }
 
-        return collection.stream()
-                .anyMatch(e -> Objects.equals(name, e.getName()));
+            if (items != null && RawZipWriter.fitsWithoutZip64(items)) {
+                RawZipWriter.write(items, outputStream);
+            } else {
+                try (final JarFile oldJarFile = new JarFile(oldJar)) {
+                    merge(oldJarFile, diffJar, new JarOutputStream(outputStream));
+                }
+            }
+        }
     }
 
-    private static boolean containsOldName(final Collection<MovedJar> collection, final String oldName) {
-        Assert.requireNonNull(collection, "collection");
-        Assert.requireNonBlank(oldName, "oldName");
+    /**
+     * Returns the entries of the merged jar: the entries of the old jar in their order, replaced by new
+     * content of the same name, followed by the moved entries and the remaining new content.
+     */
+    private static List<RawZipWriter.Item> getMergedItems(final FileChannel oldChannel, final FileChannel diffChannel, final JarFile diffJar)
+            throws IOException {
+        final Map<String, ZipDirectory.Entry> newContent = new LinkedHashMap<>();
+        for (final ZipDirectory.Entry entry : ZipDirectory.read(diffChannel).getEntries()) {
+            if (!Objects.equals(entry.getName(), INDEX_FILE)) {
+                newContent.put(entry.getName(), entry);
+            }
+        }
+        final Set<String> removedContent = getRemovedContent(diffJar);
+        final Set<MovedJar> movedContent = getMovedContent(diffJar);
+        final Set<String> movedOldNames = getOldNames(movedContent);
+
+        final List<ZipDirectory.Entry> oldEntries = ZipDirectory.read(oldChannel).getEntries();
+        final Map<String, ZipDirectory.Entry> oldContent = new HashMap<>();
+        oldEntries.forEach(e -> oldContent.put(e.getName(), e));
+
+        final List<RawZipWriter.Item> result = new ArrayList<>();
+        final Set<String> added = new HashSet<>();
+        for (final ZipDirectory.Entry oldEntry : oldEntries) {
+            final String name = oldEntry.getName();
+            final ZipDirectory.Entry newEntry = newContent.get(name);
+            if (newEntry != null) {
+                LOG.debug("JarDiff: Adding new content '{}'", name);
+                result.add(RawZipWriter.Item.of(diffChannel, newEntry));
+                added.add(name);
+            } else if (!removedContent.contains(name) && !movedOldNames.contains(name)) {
+                LOG.debug("JarDiff: Adding unmodified content '{}'", name);
+                result.add(RawZipWriter.Item.of(oldChannel, oldEntry));
+            }
+        }
+
+        for (final MovedJar moved : movedContent) {
+            final String oldName = moved.getOldName();
+            final String newName = moved.getNewName();
+            LOG.debug("JarDiff: Adding moved content '{}' -> '{}'", oldName, newName);
+            final ZipDirectory.Entry oldEntry = oldContent.get(oldName);
+            if (oldEntry == null) {
+                throw new IllegalStateException("Error in jardiff merge. Moved entry '" + oldName + "' can not be found in original jar");
+            }
+            result.add(RawZipWriter.Item.of(oldChannel, oldEntry, newName));
+        }
 
-        return collection.stream()
+        for (final ZipDirectory.Entry newEntry : newContent.values()) {
+            if (!added.contains(newEntry.getName())) {
+                LOG.debug("JarDiff: Adding new content '{}'", newEntry.getName());
+                result.add(RawZipWriter.Item.of(diffChannel, newEntry));
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> getOldNames(final Collection<MovedJar> movedContent) {
+        return movedContent.stream()
                 .map(MovedJar::getOldName)
-                .anyMatch(n -> Objects.equals(n, oldName));
+                .collect(Collectors.toSet());
     }
 
     private static Set<JarEntry> getNewContent(final JarFile jarDiff) {
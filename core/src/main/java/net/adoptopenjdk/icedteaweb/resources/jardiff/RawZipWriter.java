@@ -0,0 +1,202 @@
+package net.adoptopenjdk.icedteaweb.resources.jardiff;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipException;
+
+import static net.adoptopenjdk.icedteaweb.resources.jardiff.ZipDirectory.CENTRAL_HEADER_SIGNATURE;
+import static net.adoptopenjdk.icedteaweb.resources.jardiff.ZipDirectory.CENTRAL_HEADER_SIZE;
+import static net.adoptopenjdk.icedteaweb.resources.jardiff.ZipDirectory.END_HEADER_SIGNATURE;
+import static net.adoptopenjdk.icedteaweb.resources.jardiff.ZipDirectory.END_HEADER_SIZE;
+import static net.adoptopenjdk.icedteaweb.resources.jardiff.ZipDirectory.LOCAL_HEADER_SIGNATURE;
+import static net.adoptopenjdk.icedteaweb.resources.jardiff.ZipDirectory.LOCAL_HEADER_SIZE;
+import static net.adoptopenjdk.icedteaweb.resources.jardiff.ZipDirectory.MAX_ENTRIES;
+import static net.adoptopenjdk.icedteaweb.resources.jardiff.ZipDirectory.MAX_SIZE;
+
+/**
+ * Writes a zip file from entries of other zip files. The compressed data of the entries is copied as it is,
+ * so nothing is inflated or deflated again and the content of every entry stays byte for byte the same.
+ */
+class RawZipWriter {
+
+    private static final int DATA_DESCRIPTOR_FLAG = 1 << 3;
+    private static final int UTF8_FLAG = 1 << 11;
+
+    private final OutputStream out;
+    private final WritableByteChannel channel;
+    private long written = 0;
+
+    private RawZipWriter(final OutputStream out) {
+        this.out = new BufferedOutputStream(out, 64 * 1024);
+        this.channel = Channels.newChannel(this.out);
+    }
+
+    /**
+     * @return whether the items can be written without the zip64 extensions, which are not supported
+     */
+    static boolean fitsWithoutZip64(final List<Item> items) {
+        if (items.size() > MAX_ENTRIES) {
+            return false;
+        }
+        long size = END_HEADER_SIZE;
+        for (final Item item : items) {
+            size += item.getLocalSize() + item.getCentralSize();
+        }
+        return size <= MAX_SIZE;
+    }
+
+    /**
+     * Writes the items to the stream. The stream is flushed but not closed.
+     *
+     * @throws ZipException if an entry name occurs twice or zip64 extensions would be needed, before anything is written
+     */
+    static void write(final List<Item> items, final OutputStream out) throws IOException {
+        if (!fitsWithoutZip64(items)) {
+            throw new ZipException("Too many or too large entries");
+        }
+        final Set<String> names = new HashSet<>();
+        for (final Item item : items) {
+            if (!names.add(new String(item.name, StandardCharsets.UTF_8))) {
+                throw new ZipException("duplicate entry: " + new String(item.name, StandardCharsets.UTF_8));
+            }
+        }
+
+        final RawZipWriter writer = new RawZipWriter(out);
+        final long[] offsets = new long[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            offsets[i] = writer.written;
+            writer.writeLocal(items.get(i));
+        }
+        final long directoryOffset = writer.written;
+        for (int i = 0; i < items.size(); i++) {
+            writer.writeCentral(items.get(i), offsets[i]);
+        }
+        writer.writeEnd(items.size(), directoryOffset, writer.written - directoryOffset);
+        writer.out.flush();
+    }
+
+    private void writeLocal(final Item item) throws IOException {
+        final ZipDirectory.Entry entry = item.entry;
+        final ByteBuffer header = newBuffer(LOCAL_HEADER_SIZE);
+        header.putInt(LOCAL_HEADER_SIGNATURE);
+        header.putShort((short) entry.versionNeeded);
+        header.putShort((short) item.flags);
+        header.putShort((short) entry.method);
+        header.putShort((short) entry.time);
+        header.putShort((short) entry.date);
+        header.putInt((int) entry.crc);
+        header.putInt((int) entry.compressedSize);
+        header.putInt((int) entry.size);
+        header.putShort((short) item.name.length);
+        header.putShort((short) item.localHeader.extra.length);
+        write(header.array());
+        write(item.name);
+        write(item.localHeader.extra);
+
+        long position = item.localHeader.dataOffset;
+        final long end = position + entry.compressedSize;
+        while (position < end) {
+            final long transferred = item.source.transferTo(position, end - position, channel);
+            if (transferred <= 0) {
+                throw new ZipException("Unexpected end of entry " + entry.getName());
+            }
+            position += transferred;
+        }
+        written += entry.compressedSize;
+    }
+
+    private void writeCentral(final Item item, final long localHeaderOffset) throws IOException {
+        final ZipDirectory.Entry entry = item.entry;
+        final ByteBuffer header = newBuffer(CENTRAL_HEADER_SIZE);
+        header.putInt(CENTRAL_HEADER_SIGNATURE);
+        header.putShort((short) entry.versionMadeBy);
+        header.putShort((short) entry.versionNeeded);
+        header.putShort((short) item.flags);
+        header.putShort((short) entry.method);
+        header.putShort((short) entry.time);
+        header.putShort((short) entry.date);
+        header.putInt((int) entry.crc);
+        header.putInt((int) entry.compressedSize);
+        header.putInt((int) entry.size);
+        header.putShort((short) item.name.length);
+        header.putShort((short) entry.extra.length);
+        header.putShort((short) entry.comment.length);
+        header.putShort((short) 0);
+        header.putShort((short) entry.internalAttributes);
+        header.putInt((int) entry.externalAttributes);
+        header.putInt((int) localHeaderOffset);
+        write(header.array());
+        write(item.name);
+        write(entry.extra);
+        write(entry.comment);
+    }
+
+    private void writeEnd(final int entryCount, final long directoryOffset, final long directorySize) throws IOException {
+        final ByteBuffer end = newBuffer(END_HEADER_SIZE);
+        end.putInt(END_HEADER_SIGNATURE);
+        end.putShort((short) 0);
+        end.putShort((short) 0);
+        end.putShort((short) entryCount);
+        end.putShort((short) entryCount);
+        end.putInt((int) directorySize);
+        end.putInt((int) directoryOffset);
+        end.putShort((short) 0);
+        write(end.array());
+    }
+
+    private void write(final byte[] bytes) throws IOException {
+        out.write(bytes);
+        written += bytes.length;
+    }
+
+    private static ByteBuffer newBuffer(final int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * An entry of a zip file to be copied, optionally under a new name.
+     */
+    static class Item {
+        private final FileChannel source;
+        private final ZipDirectory.Entry entry;
+        private final ZipDirectory.LocalHeader localHeader;
+        private final byte[] name;
+        private final int flags;
+
+        private Item(final FileChannel source, final ZipDirectory.Entry entry, final ZipDirectory.LocalHeader localHeader, final byte[] name, final int flags) {
+            this.source = source;
+            this.entry = entry;
+            this.localHeader = localHeader;
+            this.name = name;
+            this.flags = flags;
+        }
+
+        static Item of(final FileChannel source, final ZipDirectory.Entry entry) throws IOException {
+            // sizes and crc are known, so they are written to the local header instead of a data descriptor
+            return new Item(source, entry, entry.readLocalHeader(source), entry.name, entry.flags & ~DATA_DESCRIPTOR_FLAG);
+        }
+
+        static Item of(final FileChannel source, final ZipDirectory.Entry entry, final String newName) throws IOException {
+            final int flags = (entry.flags & ~DATA_DESCRIPTOR_FLAG) | UTF8_FLAG;
+            return new Item(source, entry, entry.readLocalHeader(source), newName.getBytes(StandardCharsets.UTF_8), flags);
+        }
+
+        private long getLocalSize() {
+            return LOCAL_HEADER_SIZE + name.length + localHeader.extra.length + entry.compressedSize;
+        }
+
+        private long getCentralSize() {
+            return CENTRAL_HEADER_SIZE + name.length + entry.extra.length + entry.comment.length;
+        }
+    }
+}
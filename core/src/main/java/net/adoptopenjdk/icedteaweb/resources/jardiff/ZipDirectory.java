@@ -0,0 +1,206 @@
+package net.adoptopenjdk.icedteaweb.resources.jardiff;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipException;
+
+/**
+ * The central directory of a zip file, read directly from the file so that the compressed data of an entry
+ * can be located and copied without inflating it. Only the plain zip format used by jars is supported:
+ * zip64, multi-disk and encrypted archives are rejected with a {@link ZipException}.
+ */
+class ZipDirectory {
+
+    static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    static final int END_HEADER_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_LOCATOR_SIGNATURE = 0x07064b50;
+
+    static final int LOCAL_HEADER_SIZE = 30;
+    static final int CENTRAL_HEADER_SIZE = 46;
+    static final int END_HEADER_SIZE = 22;
+    private static final int ZIP64_END_LOCATOR_SIZE = 20;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    static final int MAX_ENTRIES = 0xFFFF;
+    static final long MAX_SIZE = 0xFFFFFFFFL;
+
+    private static final int ENCRYPTED_FLAG = 1;
+
+    private final List<Entry> entries;
+
+    private ZipDirectory(final List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * @return the entries in the order of the central directory
+     */
+    List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    static ZipDirectory read(final FileChannel channel) throws IOException {
+        final long fileSize = channel.size();
+        final int tailSize = (int) Math.min(fileSize, END_HEADER_SIZE + MAX_COMMENT_SIZE);
+        final ByteBuffer tail = read(channel, fileSize - tailSize, tailSize);
+
+        int end = -1;
+        for (int i = tailSize - END_HEADER_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_HEADER_SIGNATURE && i + END_HEADER_SIZE + unsignedShort(tail, i + 20) <= tailSize) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) {
+            throw new ZipException("End of central directory not found");
+        }
+        if (end >= ZIP64_END_LOCATOR_SIZE && tail.getInt(end - ZIP64_END_LOCATOR_SIZE) == ZIP64_END_LOCATOR_SIGNATURE) {
+            throw new ZipException("Zip64 archives are not supported");
+        }
+
+        final int disk = unsignedShort(tail, end + 4);
+        final int directoryDisk = unsignedShort(tail, end + 6);
+        final int entryCount = unsignedShort(tail, end + 10);
+        final long directorySize = unsignedInt(tail, end + 12);
+        final long directoryOffset = unsignedInt(tail, end + 16);
+        if (disk != 0 || directoryDisk != 0) {
+            throw new ZipException("Multi-disk archives are not supported");
+        }
+        if (directoryOffset + directorySize > fileSize) {
+            throw new ZipException("Invalid central directory");
+        }
+
+        final ByteBuffer directory = read(channel, directoryOffset, (int) directorySize);
+        final List<Entry> entries = new ArrayList<>(entryCount);
+        int position = 0;
+        for (int i = 0; i < entryCount; i++) {
+            if (position + CENTRAL_HEADER_SIZE > directorySize || directory.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+                throw new ZipException("Invalid central directory header");
+            }
+            final Entry entry = new Entry(directory, position);
+            if ((entry.flags & ENCRYPTED_FLAG) != 0) {
+                throw new ZipException("Encrypted entry " + entry.getName() + " is not supported");
+            }
+            if (entry.compressedSize == MAX_SIZE || entry.size == MAX_SIZE || entry.localHeaderOffset == MAX_SIZE) {
+                throw new ZipException("Zip64 entry " + entry.getName() + " is not supported");
+            }
+            entries.add(entry);
+            position += CENTRAL_HEADER_SIZE + entry.name.length + entry.extra.length + entry.comment.length;
+        }
+        return new ZipDirectory(entries);
+    }
+
+    static ByteBuffer read(final FileChannel channel, final long position, final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of zip file");
+            }
+        }
+        return buffer;
+    }
+
+    private static int unsignedShort(final ByteBuffer buffer, final int index) {
+        return buffer.getShort(index) & 0xFFFF;
+    }
+
+    private static long unsignedInt(final ByteBuffer buffer, final int index) {
+        return buffer.getInt(index) & 0xFFFFFFFFL;
+    }
+
+    private static byte[] bytes(final ByteBuffer buffer, final int index, final int length) {
+        final byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = buffer.get(index + i);
+        }
+        return result;
+    }
+
+    /**
+     * An entry of the central directory.
+     */
+    static class Entry {
+        final int versionMadeBy;
+        final int versionNeeded;
+        final int flags;
+        final int method;
+        final int time;
+        final int date;
+        final long crc;
+        final long compressedSize;
+        final long size;
+        final int internalAttributes;
+        final long externalAttributes;
+        final long localHeaderOffset;
+        final byte[] name;
+        final byte[] extra;
+        final byte[] comment;
+
+        private Entry(final ByteBuffer directory, final int position) {
+            versionMadeBy = unsignedShort(directory, position + 4);
+            versionNeeded = unsignedShort(directory, position + 6);
+            flags = unsignedShort(directory, position + 8);
+            method = unsignedShort(directory, position + 10);
+            time = unsignedShort(directory, position + 12);
+            date = unsignedShort(directory, position + 14);
+            crc = unsignedInt(directory, position + 16);
+            compressedSize = unsignedInt(directory, position + 20);
+            size = unsignedInt(directory, position + 24);
+            final int nameLength = unsignedShort(directory, position + 28);
+            final int extraLength = unsignedShort(directory, position + 30);
+            final int commentLength = unsignedShort(directory, position + 32);
+            internalAttributes = unsignedShort(directory, position + 36);
+            externalAttributes = unsignedInt(directory, position + 38);
+            localHeaderOffset = unsignedInt(directory, position + 42);
+            name = bytes(directory, position + CENTRAL_HEADER_SIZE, nameLength);
+            extra = bytes(directory, position + CENTRAL_HEADER_SIZE + nameLength, extraLength);
+            comment = bytes(directory, position + CENTRAL_HEADER_SIZE + nameLength + extraLength, commentLength);
+        }
+
+        /**
+         * @return the name of the entry, decoded like {@link java.util.jar.JarFile} does
+         */
+        String getName() {
+            return new String(name, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Reads the local header of the entry.
+         */
+        LocalHeader readLocalHeader(final FileChannel channel) throws IOException {
+            final ByteBuffer header = read(channel, localHeaderOffset, LOCAL_HEADER_SIZE);
+            if (header.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+                throw new ZipException("Invalid local header of entry " + getName());
+            }
+            final int nameLength = unsignedShort(header, 26);
+            final int extraLength = unsignedShort(header, 28);
+            final ByteBuffer extra = read(channel, localHeaderOffset + LOCAL_HEADER_SIZE + nameLength, extraLength);
+            final long dataOffset = localHeaderOffset + LOCAL_HEADER_SIZE + nameLength + extraLength;
+            if (dataOffset + compressedSize > channel.size()) {
+                throw new ZipException("Invalid size of entry " + getName());
+            }
+            return new LocalHeader(extra.array(), dataOffset);
+        }
+    }
+
+    /**
+     * The parts of a local header which are not repeated in the central directory.
+     */
+    static class LocalHeader {
+        final byte[] extra;
+        final long dataOffset;
+
+        private LocalHeader(final byte[] extra, final long dataOffset) {
+            this.extra = extra;
+            this.dataOffset = dataOffset;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package net.sourceforge.jnlp;
+
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
+import net.adoptopenjdk.icedteaweb.resources.cache.ContentDigest;
+import net.adoptopenjdk.icedteaweb.xmlparser.ParseException;
+import net.adoptopenjdk.icedteaweb.xmlparser.ParserType;
+import net.adoptopenjdk.icedteaweb.xmlparser.XmlNode;
+import net.adoptopenjdk.icedteaweb.xmlparser.XmlNodeSerializer;
+import net.adoptopenjdk.icedteaweb.xmlparser.XmlParserFactory;
+import net.sourceforge.jnlp.util.AtomicFiles;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The parsed xml tree of a jnlp file. For a cached jnlp file the tree is stored next to the file
+ * and reused as long as the content of the file is unchanged, so a launch with an unchanged
+ * descriptor does not parse the xml again. Trees of the strict and the malformed xml parser
+ * are stored separately.
+ */
+class CachedJnlpTree {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachedJnlpTree.class);
+
+    private static final String SIDECAR_PREFIX = "tree-";
+    private static final int FORMAT_VERSION = 1;
+
+    private CachedJnlpTree() {
+        // do not instantiate
+    }
+
+    /**
+     * Returns the root of the parsed jnlp file. The stored tree is used if present,
+     * otherwise the content is parsed and the result is stored.
+     *
+     * @param jnlp       the local jnlp file
+     * @param content    the content of the file
+     * @param parserType the parser to use
+     * @return the root node of the jnlp file
+     * @throws ParseException if the content is not valid xml
+     */
+    static XmlNode getRootNode(final File jnlp, final byte[] content, final ParserType parserType) throws ParseException {
+        final String digest = ContentDigest.toHex(ContentDigest.newMessageDigest().digest(content));
+        final Optional<File> storeFile = Cache.getSidecarFile(jnlp, SIDECAR_PREFIX + parserType.name().toLowerCase(Locale.ENGLISH));
+        final Optional<XmlNode> stored = storeFile.flatMap(f -> load(f, digest));
+        if (stored.isPresent()) {
+            LOG.debug("Using stored xml tree of {}", jnlp);
+            // as if the parser had been used, so later parse errors have the same message
+            ParseException.setUsed(parserType);
+            return stored.get();
+        }
+
+        final XmlNode root = XmlParserFactory.getParser(parserType).getRootNode(new ByteArrayInputStream(content));
+        storeFile.ifPresent(f -> store(f, digest, root));
+        return root;
+    }
+
+    /**
+     * Loads the tree stored for a jnlp file.
+     *
+     * @return the tree or empty if nothing has been stored or it belongs to a different content
+     */
+    static Optional<XmlNode> load(final File storeFile, final String digest) {
+        if (!storeFile.isFile()) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(storeFile.toPath())))) {
+            if (in.readInt() != FORMAT_VERSION || !digest.equals(in.readUTF())) {
+                LOG.debug("Stored xml tree {} does not match the jnlp file", storeFile);
+                return Optional.empty();
+            }
+            return Optional.of(XmlNodeSerializer.read(in));
+        } catch (IOException e) {
+            LOG.debug("Failed to read stored xml tree {}: {}", storeFile, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the tree of a jnlp file. Failures are logged and otherwise ignored.
+     */
+    static void store(final File storeFile, final String digest, final XmlNode root) {
+        try {
+            AtomicFiles.write(storeFile, out -> {
+                final DataOutputStream data = new DataOutputStream(out);
+                data.writeInt(FORMAT_VERSION);
+                data.writeUTF(digest);
+                XmlNodeSerializer.write(root, data);
+            });
+        } catch (IOException e) {
+            LOG.debug("Failed to store xml tree {}: {}", storeFile, e.getMessage());
+        }
+    }
+}
@@ -52,6 +52,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -257,7 +258,34 @@ public class JNLPFile {
         this.uniqueKey = uniqueKey;
 
         parse(input, location, null);
+        applyHttpAgent();
+    }
 
+    /**
+     * Create a JNLPFile from a local copy of the file at the given location.
+     * If the local copy is cached, its parsed xml is reused by later calls.
+     *
+     * @param file      the local copy of the JNLP file
+     * @param location  the location of the JNLP file
+     * @param settings  the parser settings to use while parsing the file
+     * @param uniqueKey A string that uniquely identifies connected instances
+     * @throws IOException    if an IO exception occurred
+     * @throws ParseException if the JNLP file was invalid
+     */
+    JNLPFile(final File file,
+             final URL location,
+             final ParserSettings settings,
+             final String uniqueKey
+    ) throws IOException, ParseException {
+        this.parserSettings = settings;
+        this.fileLocation = location;
+        this.uniqueKey = uniqueKey;
+
+        parse(file, location);
+        applyHttpAgent();
+    }
+
+    private void applyHttpAgent() {
         final String httpAgent = getResources().getPropertiesMap().get(HTTP_AGENT);
         if (! StringUtils.isBlank(httpAgent)) {
             System.setProperty(HTTP_AGENT, httpAgent);
@@ -728,36 +756,40 @@ public class JNLPFile {
      */
     private void parse(InputStream input, URL location, URL forceCodebase) throws ParseException {
         try {
-            final String logContent = getConfiguration().getProperty(KEY_ENABLE_LOGGING_OF_JNLP_FILE_CONTENT);
             final InputStream in;
-            if ("true".equalsIgnoreCase(logContent)) {
+            if (isContentLogged()) {
                 final byte[] content = IOUtils.readContent(input);
-                LOG.debug("Parsing JNLP file\nlocation: {}\ncodebase: {}\ncontent:\n{}",
-                        location, forceCodebase, new String(content, UTF_8));
+                logContent(content, location, forceCodebase);
                 in = new ByteArrayInputStream(content);
             } else {
                 in = input;
             }
 
             final XMLParser xmlParser = XmlParserFactory.getParser(parserSettings.getParserType());
-            final XmlNode root = xmlParser.getRootNode(in);
-            final Parser parser = new Parser(this, location, root, parserSettings, forceCodebase); // true == allow extensions
-
-            // JNLP tag information
-            specVersion = parser.getSpecVersion();
-            fileVersion = parser.getFileVersion();
-            codeBase = parser.getCodeBase();
-            sourceLocation = parser.getFileLocation() != null ? parser.getFileLocation() : location;
-            infos = parser.getInformationDescs(root);
-            parser.checkForInformation();
-            update = parser.getUpdate(root);
-            resources = parser.getResources(root, false); // false == not a j2se/java resources section
-            entryPointDesc = parser.getEntryPointDesc(root);
-            component = parser.getComponent(root);
-            security = parser.getSecurity(root);
-
-            checkForSpecialProperties();
+            parse(xmlParser.getRootNode(in), location, forceCodebase);
+        }
+        catch (ParseException ex) {
+            throw ex;
+        }
+        catch (Exception ex) {
+            LOG.error(IcedTeaWebConstants.DEFAULT_ERROR_MESSAGE, ex);
+            throw new RuntimeException(ex.toString());
+        }
+    }
 
+    /**
+     * Initialize the JNLPFile fields from a local copy of the file, reusing its
+     * parsed xml if it is cached.
+     *
+     * @param location the file location
+     */
+    private void parse(File file, URL location) throws ParseException {
+        try {
+            final byte[] content = Files.readAllBytes(file.toPath());
+            if (isContentLogged()) {
+                logContent(content, location, null);
+            }
+            parse(CachedJnlpTree.getRootNode(file, content, parserSettings.getParserType()), location, null);
         }
         catch (ParseException ex) {
             throw ex;
@@ -768,6 +800,34 @@ public class JNLPFile {
         }
     }
 
+    private static boolean isContentLogged() {
+        return "true".equalsIgnoreCase(getConfiguration().getProperty(KEY_ENABLE_LOGGING_OF_JNLP_FILE_CONTENT));
+    }
+
+    private static void logContent(byte[] content, URL location, URL forceCodebase) {
+        LOG.debug("Parsing JNLP file\nlocation: {}\ncodebase: {}\ncontent:\n{}",
+                location, forceCodebase, new String(content, UTF_8));
+    }
+
+    private void parse(XmlNode root, URL location, URL forceCodebase) throws ParseException {
+        final Parser parser = new Parser(this, location, root, parserSettings, forceCodebase); // true == allow extensions
+
+        // JNLP tag information
+        specVersion = parser.getSpecVersion();
+        fileVersion = parser.getFileVersion();
+        codeBase = parser.getCodeBase();
+        sourceLocation = parser.getFileLocation() != null ? parser.getFileLocation() : location;
+        infos = parser.getInformationDescs(root);
+        parser.checkForInformation();
+        update = parser.getUpdate(root);
+        resources = parser.getResources(root, false); // false == not a j2se/java resources section
+        entryPointDesc = parser.getEntryPointDesc(root);
+        component = parser.getComponent(root);
+        security = parser.getSecurity(root);
+
+        checkForSpecialProperties();
+    }
+
     /**
      * Inspects the JNLP file to check if it contains any special properties
      */
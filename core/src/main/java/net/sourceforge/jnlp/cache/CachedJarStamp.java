@@ -0,0 +1,55 @@
+package net.sourceforge.jnlp.cache;
+
+import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
+
+import java.io.File;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Identifies the jar a file stored next to it was derived from, so the file can be reused as long as
+ * the jar is unchanged. The jar is identified by its size and modification time and, if the cache
+ * recorded one when the jar was downloaded, by its content digest. The recorded digest is not
+ * computed from the file on disk, so it does not replace the modification time.
+ */
+public final class CachedJarStamp {
+
+    private static final String KEY_FORMAT = "format";
+    private static final String KEY_JAR_SIZE = "jar.size";
+    private static final String KEY_JAR_LAST_MODIFIED = "jar.lastModified";
+    private static final String KEY_JAR_DIGEST = "jar.sha-256";
+
+    private CachedJarStamp() {
+        // utility class
+    }
+
+    /**
+     * Records the format of the stored file and the identity of the jar.
+     *
+     * @param properties the stored properties
+     * @param format     the format version of the stored file
+     * @param jar        the jar the stored file was derived from
+     */
+    public static void write(final Properties properties, final String format, final File jar) {
+        properties.setProperty(KEY_FORMAT, format);
+        properties.setProperty(KEY_JAR_SIZE, Long.toString(jar.length()));
+        properties.setProperty(KEY_JAR_LAST_MODIFIED, Long.toString(jar.lastModified()));
+        Cache.getContentDigest(jar).ifPresent(digest -> properties.setProperty(KEY_JAR_DIGEST, digest));
+    }
+
+    /**
+     * @param properties the stored properties
+     * @param format     the current format version of the stored file
+     * @param jar        the jar the stored file should be derived from
+     * @return whether the properties were written with {@link #write} in the given format for this jar
+     */
+    public static boolean matches(final Properties properties, final String format, final File jar) {
+        if (!format.equals(properties.getProperty(KEY_FORMAT))
+                || !Long.toString(jar.length()).equals(properties.getProperty(KEY_JAR_SIZE))
+                || !Long.toString(jar.lastModified()).equals(properties.getProperty(KEY_JAR_LAST_MODIFIED))) {
+            return false;
+        }
+        final Optional<String> digest = Cache.getContentDigest(jar);
+        return !digest.isPresent() || digest.get().equals(properties.getProperty(KEY_JAR_DIGEST));
+    }
+}
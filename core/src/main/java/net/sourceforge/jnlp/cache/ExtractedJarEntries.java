@@ -0,0 +1,189 @@
+package net.sourceforge.jnlp.cache;
+
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.resources.cache.ContentDigest;
+import net.sourceforge.jnlp.util.AtomicFiles;
+import net.sourceforge.jnlp.util.RestrictedFileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Function;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Entries of a cached jar, like native libraries or nested jars, extracted into a directory next to the jar.
+ * An entry is extracted once and reused by later launches, only missing or modified entries are extracted again
+ * and all of them if the jar changed, see {@link CachedJarStamp}. Every entry is written to a temporary file and atomically moved into
+ * place, followed by the index of the directory. So several processes may extract and use the entries
+ * concurrently and never see a partially written file.
+ */
+public class ExtractedJarEntries {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExtractedJarEntries.class);
+
+    private static final String INDEX_FILE_NAME = ".index";
+    private static final String FORMAT_VERSION = "1";
+
+    private static final String KEY_SIZE = ".size";
+    private static final String KEY_DIGEST = ".sha-256";
+
+    private ExtractedJarEntries() {
+        // do not instantiate
+    }
+
+    /**
+     * Makes sure the given entries of the jar are extracted into the directory.
+     *
+     * @param jar        the cached jar
+     * @param directory  the directory of the extracted entries
+     * @param entryNames the names of the jar entries to extract
+     * @param fileNames  maps an entry name to the path of the extracted file relative to the directory
+     * @return the extracted file of every entry found in the jar, in the order of the entry names
+     * @throws IOException if the entries could not be extracted
+     */
+    public static Map<String, File> extract(final File jar, final File directory, final List<String> entryNames,
+                                            final Function<String, String> fileNames) throws IOException {
+        final Properties index = loadIndex(jar, directory);
+        final List<String> missing = new ArrayList<>();
+        for (final String entryName : entryNames) {
+            final String name = fileNames.apply(entryName);
+            if (!isExtracted(index, name, new File(directory, name))) {
+                missing.add(entryName);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            LOG.debug("Reusing extracted entries of {} in {}", jar, directory);
+            return getExtractedFiles(directory, entryNames, fileNames);
+        }
+
+        createDirectory(directory);
+        LOG.debug("Extracting {} entries of {} to {}", missing.size(), jar, directory);
+        try (JarFile jarFile = new JarFile(jar, false)) {
+            for (final String entryName : missing) {
+                final JarEntry entry = jarFile.getJarEntry(entryName);
+                if (entry == null) {
+                    continue;
+                }
+                final String name = fileNames.apply(entryName);
+                final File target = new File(directory, name);
+                createDirectory(target.getParentFile());
+                final File tempFile = Files.createTempFile(target.getParentFile().toPath(), target.getName(), ".tmp").toFile();
+                try {
+                    final MessageDigest messageDigest = ContentDigest.newMessageDigest();
+                    try (ReadableByteChannel in = Channels.newChannel(new DigestInputStream(jarFile.getInputStream(entry), messageDigest));
+                         FileChannel out = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE)) {
+                        long position = 0;
+                        long transferred;
+                        while ((transferred = out.transferFrom(in, position, Long.MAX_VALUE)) > 0) {
+                            position += transferred;
+                        }
+                    }
+                    final String digest = ContentDigest.toHex(messageDigest.digest());
+                    moveIntoPlace(tempFile, target, digest);
+                    index.setProperty(name + KEY_SIZE, Long.toString(target.length()));
+                    index.setProperty(name + KEY_DIGEST, digest);
+                } finally {
+                    Files.deleteIfExists(tempFile.toPath());
+                }
+            }
+        }
+        AtomicFiles.write(new File(directory, INDEX_FILE_NAME), out -> index.store(out, "Extracted jar entries"));
+        return getExtractedFiles(directory, entryNames, fileNames);
+    }
+
+    private static Map<String, File> getExtractedFiles(final File directory, final List<String> entryNames, final Function<String, String> fileNames) {
+        final Map<String, File> result = new LinkedHashMap<>();
+        for (final String entryName : entryNames) {
+            final File file = new File(directory, fileNames.apply(entryName));
+            if (file.isFile()) {
+                result.put(entryName, file);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Loads the index of the directory. The index is empty if it does not belong to the current content of the jar.
+     */
+    private static Properties loadIndex(final File jar, final File directory) {
+        final Properties index = new Properties();
+        final File indexFile = new File(directory, INDEX_FILE_NAME);
+        if (indexFile.isFile()) {
+            try (InputStream in = Files.newInputStream(indexFile.toPath())) {
+                index.load(in);
+            } catch (IOException e) {
+                LOG.debug("Failed to read index of extracted entries {}: {}", indexFile, e.getMessage());
+                index.clear();
+            }
+        }
+
+        if (!CachedJarStamp.matches(index, FORMAT_VERSION, jar)) {
+            index.clear();
+            CachedJarStamp.write(index, FORMAT_VERSION, jar);
+        }
+        return index;
+    }
+
+    private static boolean isExtracted(final Properties index, final String name, final File file) {
+        return index.getProperty(name + KEY_DIGEST) != null
+                && file.isFile()
+                && Long.toString(file.length()).equals(index.getProperty(name + KEY_SIZE));
+    }
+
+    private static void createDirectory(final File directory) throws IOException {
+        if (!directory.isDirectory()) {
+            try {
+                RestrictedFileUtils.createRestrictedDirectory(directory);
+            } catch (IOException e) {
+                // may have been created by another process in the meantime
+                if (!directory.isDirectory()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the target with the temporary file. A file loaded by another process cannot be
+     * replaced on some platforms, which is fine as long as it has the same content.
+     */
+    private static void moveIntoPlace(final File tempFile, final File target, final String digest) throws IOException {
+        try {
+            AtomicFiles.move(tempFile, target);
+        } catch (IOException e) {
+            if (target.isFile() && digest.equals(digestOf(target))) {
+                LOG.debug("Extracted file {} is in use and unchanged", target);
+                return;
+            }
+            throw e;
+        }
+    }
+
+    private static String digestOf(final File file) throws IOException {
+        final MessageDigest messageDigest = ContentDigest.newMessageDigest();
+        final byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, read);
+            }
+        }
+        return ContentDigest.toHex(messageDigest.digest());
+    }
+}
@@ -0,0 +1,232 @@
+package net.sourceforge.jnlp.cache;
+
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
+import net.sourceforge.jnlp.util.AtomicFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static net.sourceforge.jnlp.cache.NativeLibraryStorage.NATIVE_LIBRARY_EXTENSIONS;
+
+/**
+ * The facts about a jar needed to activate it: nested jars, native libraries, whether it has a
+ * jar index or a manifest class path, and the packages of its classes.
+ * They are collected in a single pass over the entries of the jar. For a cached jar the result
+ * is stored next to the jar, see {@link CachedJarStamp}.
+ */
+public class JarMetadata {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JarMetadata.class);
+
+    private static final String SIDECAR_NAME = "metadata";
+    private static final String FORMAT_VERSION = "1";
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String JAR_SUFFIX = ".jar";
+    private static final String INDEX_LIST = "META-INF/INDEX.LIST";
+    private static final String ENTRY_SEPARATOR = "\n";
+
+    private static final String KEY_JAR_INDEX = "jarIndex";
+    private static final String KEY_CLASS_PATH = "classPath";
+    private static final String KEY_DEFAULT_PACKAGE = "defaultPackage";
+    private static final String KEY_PACKAGES = "packages";
+    private static final String KEY_NESTED_JARS = "nestedJars";
+    private static final String KEY_NATIVE_LIBRARIES = "nativeLibraries";
+
+    private final boolean jarIndex;
+    private final boolean classPath;
+    private final Set<String> packages;
+    private final List<String> nestedJars;
+    private final List<String> nativeLibraries;
+
+    private JarMetadata(boolean jarIndex, boolean classPath, Set<String> packages, List<String> nestedJars, List<String> nativeLibraries) {
+        this.jarIndex = jarIndex;
+        this.classPath = classPath;
+        this.packages = packages;
+        this.nestedJars = nestedJars;
+        this.nativeLibraries = nativeLibraries;
+    }
+
+    /**
+     * @return whether the jar contains a META-INF/INDEX.LIST
+     */
+    public boolean hasJarIndex() {
+        return jarIndex;
+    }
+
+    /**
+     * @return whether the manifest of the jar declares a Class-Path
+     */
+    public boolean hasClassPath() {
+        return classPath;
+    }
+
+    /**
+     * @return the packages of the classes in the jar, the default package as empty string
+     */
+    public Set<String> getPackages() {
+        return Collections.unmodifiableSet(packages);
+    }
+
+    /**
+     * @return the names of the entries which are jars themselves
+     */
+    public List<String> getNestedJars() {
+        return Collections.unmodifiableList(nestedJars);
+    }
+
+    /**
+     * @return the names of the entries which are native libraries
+     */
+    public List<String> getNativeLibraries() {
+        return Collections.unmodifiableList(nativeLibraries);
+    }
+
+    /**
+     * Returns the metadata of the given jar. For a cached jar the stored metadata is used
+     * if present, otherwise the jar is read and the result is stored.
+     *
+     * @param jar the local jar file
+     * @return the metadata of the jar
+     * @throws IOException if the jar cannot be read
+     */
+    public static JarMetadata of(final File jar) throws IOException {
+        final Optional<File> storeFile = Cache.getSidecarFile(jar, SIDECAR_NAME);
+        final Optional<JarMetadata> stored = storeFile.flatMap(f -> load(f, jar));
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        final JarMetadata metadata = read(jar);
+        storeFile.ifPresent(f -> metadata.store(f, jar));
+        return metadata;
+    }
+
+    static JarMetadata read(final File jar) throws IOException {
+        try (JarFile jarFile = new JarFile(jar, false)) {
+            final Manifest manifest = jarFile.getManifest();
+            final boolean classPath = manifest != null && manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH) != null;
+
+            boolean jarIndex = false;
+            final Set<String> packages = new HashSet<>();
+            final List<String> nestedJars = new ArrayList<>();
+            final List<String> nativeLibraries = new ArrayList<>();
+            final Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                final JarEntry entry = entries.nextElement();
+                final String name = entry.getName();
+                if (name.endsWith(JAR_SUFFIX)) {
+                    nestedJars.add(name);
+                }
+                if (name.equals(INDEX_LIST)) {
+                    jarIndex = true;
+                }
+                if (name.endsWith(CLASS_SUFFIX)) {
+                    final int lastSlash = name.lastIndexOf('/');
+                    packages.add(lastSlash < 0 ? "" : name.substring(0, lastSlash).replace('/', '.'));
+                }
+                if (!entry.isDirectory() && isNativeLibrary(name)) {
+                    nativeLibraries.add(name);
+                }
+            }
+            return new JarMetadata(jarIndex, classPath, packages, nestedJars, nativeLibraries);
+        }
+    }
+
+    private static boolean isNativeLibrary(final String entryName) {
+        final String fileName = new File(entryName).getName();
+        for (final String suffix : NATIVE_LIBRARY_EXTENSIONS) {
+            if (fileName.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loads the metadata stored for the given jar.
+     *
+     * @return the metadata or empty if nothing has been stored or the jar has changed since
+     */
+    static Optional<JarMetadata> load(final File storeFile, final File jar) {
+        if (!storeFile.isFile()) {
+            return Optional.empty();
+        }
+        final Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(storeFile.toPath())) {
+            properties.load(in);
+        } catch (IOException e) {
+            LOG.debug("Failed to read stored jar metadata {}: {}", storeFile, e.getMessage());
+            return Optional.empty();
+        }
+
+        if (!CachedJarStamp.matches(properties, FORMAT_VERSION, jar)
+                || properties.getProperty(KEY_PACKAGES) == null
+                || properties.getProperty(KEY_NESTED_JARS) == null
+                || properties.getProperty(KEY_NATIVE_LIBRARIES) == null) {
+            LOG.debug("Stored jar metadata {} does not match {}", storeFile, jar);
+            return Optional.empty();
+        }
+
+        final Set<String> packages = new HashSet<>(split(properties.getProperty(KEY_PACKAGES), ","));
+        if (Boolean.parseBoolean(properties.getProperty(KEY_DEFAULT_PACKAGE))) {
+            packages.add("");
+        }
+        return Optional.of(new JarMetadata(
+                Boolean.parseBoolean(properties.getProperty(KEY_JAR_INDEX)),
+                Boolean.parseBoolean(properties.getProperty(KEY_CLASS_PATH)),
+                packages,
+                split(properties.getProperty(KEY_NESTED_JARS), ENTRY_SEPARATOR),
+                split(properties.getProperty(KEY_NATIVE_LIBRARIES), ENTRY_SEPARATOR)));
+    }
+
+    /**
+     * Stores the metadata of the given jar. Failures are logged and otherwise ignored.
+     */
+    void store(final File storeFile, final File jar) {
+        if (Stream.concat(nestedJars.stream(), nativeLibraries.stream()).anyMatch(name -> name.contains(ENTRY_SEPARATOR))) {
+            LOG.debug("Not storing metadata of {} as an entry name contains a line break", jar);
+            return;
+        }
+
+        final Properties properties = new Properties();
+        CachedJarStamp.write(properties, FORMAT_VERSION, jar);
+        properties.setProperty(KEY_JAR_INDEX, Boolean.toString(jarIndex));
+        properties.setProperty(KEY_CLASS_PATH, Boolean.toString(classPath));
+        properties.setProperty(KEY_DEFAULT_PACKAGE, Boolean.toString(packages.contains("")));
+        properties.setProperty(KEY_PACKAGES, packages.stream().filter(p -> !p.isEmpty()).sorted().collect(Collectors.joining(",")));
+        properties.setProperty(KEY_NESTED_JARS, String.join(ENTRY_SEPARATOR, nestedJars));
+        properties.setProperty(KEY_NATIVE_LIBRARIES, String.join(ENTRY_SEPARATOR, nativeLibraries));
+
+        try {
+            AtomicFiles.write(storeFile, out -> properties.store(out, "Metadata of " + jar.getName()));
+        } catch (IOException e) {
+            LOG.debug("Failed to store metadata of {}: {}", jar, e.getMessage());
+        }
+    }
+
+    private static List<String> split(final String value, final String separator) {
+        if (value.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(Arrays.asList(value.split(separator)));
+    }
+}
@@ -6,16 +6,17 @@ import net.adoptopenjdk.icedteaweb.io.IOUtils;
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.adoptopenjdk.icedteaweb.resources.ResourceTracker;
+import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
 import net.sourceforge.jnlp.util.RestrictedFileUtils;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
@@ -31,10 +32,15 @@ public class NativeLibraryStorage {
     private static final Random RANDOM = new Random();
     public static final String NATIVE_LIB_EXT_DYLIB = ".dylib";
     public static final String NATIVE_LIB_EXT_JNILIB = ".jnilib";
+    /**
+     * Name of the directory next to a cached jar containing its extracted native libraries.
+     */
+    private static final String NATIVE_SIDECAR_NAME = "native";
+
     static final String[] NATIVE_LIBRARY_EXTENSIONS = {".so", NATIVE_LIB_EXT_DYLIB, NATIVE_LIB_EXT_JNILIB, ".framework", ".dll"};
 
     private final ResourceTracker tracker;
-    private final List<File> nativeSearchDirectories = new ArrayList<>();
+    private final List<File> nativeSearchDirectories = new CopyOnWriteArrayList<>();
 
     /**
      * Temporary directory to store native jar entries, added to our search path
@@ -97,8 +103,9 @@ public class NativeLibraryStorage {
 
     /**
      * Search for and enable any native code contained in a JAR by copying the
-     * native files into the filesystem. Called in the security context of the
-     * classloader.
+     * native files into the filesystem. The native files of a cached JAR are
+     * extracted next to it once and reused by later launches. Called in the
+     * security context of the classloader.
      *
      * @param jarLocation location of jar to be searched
      */
@@ -111,34 +118,38 @@ public class NativeLibraryStorage {
         }
 
         try {
-            try (JarFile jarFile = new JarFile(localFile, false)) {
-                final Enumeration<JarEntry> entries = jarFile.entries();
+            final List<String> nativeLibraries = JarMetadata.of(localFile).getNativeLibraries();
+            if (nativeLibraries.isEmpty()) {
+                return;
+            }
 
-                while (entries.hasMoreElements()) {
-                    final JarEntry e = entries.nextElement();
+            final Optional<File> cachedDirectory = Cache.getSidecarFile(localFile, NATIVE_SIDECAR_NAME);
+            if (cachedDirectory.isPresent()) {
+                try {
+                    ExtractedJarEntries.extract(localFile, cachedDirectory.get(), nativeLibraries, entryName -> new File(entryName).getName());
+                    if (!nativeSearchDirectories.contains(cachedDirectory.get())) {
+                        nativeSearchDirectories.add(cachedDirectory.get());
+                    }
+                    return;
+                } catch (IOException ex) {
+                    LOG.debug("Failed to extract the native libraries of {} next to the cached jar - will use a temporary folder: {}", localFile, ex.getMessage());
+                }
+            }
 
-                    if (e.isDirectory()) {
+            try (JarFile jarFile = new JarFile(localFile, false)) {
+                for (final String entryName : nativeLibraries) {
+                    final JarEntry e = jarFile.getJarEntry(entryName);
+                    if (e == null) {
                         continue;
                     }
 
                     final String name = new File(e.getName()).getName();
-                    boolean isLibrary = false;
-
-                    for (final String suffix : NATIVE_LIBRARY_EXTENSIONS) {
-                        if (name.endsWith(suffix)) {
-                            isLibrary = true;
-                            break;
-                        }
+                    final File outFile = new File(getNativeStoreDirectory(), name);
+                    if (!outFile.isFile()) {
+                        RestrictedFileUtils.createRestrictedFile(outFile);
                     }
-
-                    if (isLibrary) {
-                        final File outFile = new File(getNativeStoreDirectory(), name);
-                        if (!outFile.isFile()) {
-                            RestrictedFileUtils.createRestrictedFile(outFile);
-                        }
-                        try (FileOutputStream out = new FileOutputStream(outFile)) {
-                            IOUtils.copy(jarFile.getInputStream(e), out, 4096);
-                        }
+                    try (FileOutputStream out = new FileOutputStream(outFile)) {
+                        IOUtils.copy(jarFile.getInputStream(e), out, 4096);
                     }
                 }
             }
@@ -0,0 +1,205 @@
+package net.sourceforge.jnlp.config;
+
+import net.adoptopenjdk.icedteaweb.http.CloseableConnection;
+import net.adoptopenjdk.icedteaweb.http.ConnectionFactory;
+import net.adoptopenjdk.icedteaweb.http.HttpMethod;
+import net.adoptopenjdk.icedteaweb.io.IOUtils;
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.sourceforge.jnlp.util.AtomicFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.ETAG_HEADER;
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.IF_MODIFIED_SINCE_HEADER;
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.IF_NONE_MATCH_HEADER;
+import static net.adoptopenjdk.icedteaweb.resources.JnlpDownloadProtocolConstants.LAST_MODIFIED_HEADER;
+
+/**
+ * A local copy of the system level deployment.properties served over http. The copy is used
+ * without asking the server as long as it is younger than the max age. An older copy is still
+ * used, but revalidated in the background with a conditional request, so the updated content
+ * is used from the next start on. Only a mandatory file or a missing copy is fetched while waiting.
+ */
+class CachedSystemProperties {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachedSystemProperties.class);
+
+    private static final String INFO_SUFFIX = ".info";
+    private static final String FORMAT_VERSION = "1";
+
+    private static final String KEY_FORMAT = "format";
+    private static final String KEY_URL = "url";
+    private static final String KEY_ETAG = "etag";
+    private static final String KEY_LAST_MODIFIED = "lastModified";
+    private static final String KEY_VALIDATED = "validated";
+
+    /**
+     * The configuration with the connection timeouts is still being loaded, so the defaults of
+     * {@link ConfigurationConstants#KEY_HTTPCONNECTION_CONNECT_TIMEOUT} and
+     * {@link ConfigurationConstants#KEY_HTTPCONNECTION_READ_TIMEOUT} are used.
+     */
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int READ_TIMEOUT = 10000;
+
+    private final URL url;
+    private final File contentFile;
+    private final File infoFile;
+    private final long maxAgeMillis;
+
+    /**
+     * @param url          the remote location of the properties
+     * @param contentFile  the file for the local copy
+     * @param maxAgeMillis how long the local copy is used without revalidation
+     */
+    CachedSystemProperties(final URL url, final File contentFile, final long maxAgeMillis) {
+        this.url = url;
+        this.contentFile = contentFile;
+        this.infoFile = new File(contentFile.getPath() + INFO_SUFFIX);
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * @return whether the properties at the given location can be cached
+     */
+    static boolean isCacheable(final URL url) {
+        return url != null && ("http".equalsIgnoreCase(url.getProtocol()) || "https".equalsIgnoreCase(url.getProtocol()));
+    }
+
+    /**
+     * Returns the content of the properties.
+     *
+     * @param validate whether the server must be asked before the content is returned
+     * @return the content of the properties file
+     * @throws IOException if there is no local copy, or validation is requested, and the server cannot be reached
+     */
+    byte[] getContent(final boolean validate) throws IOException {
+        final Optional<Copy> copy = readCopy();
+        if (copy.isPresent() && !validate) {
+            if (System.currentTimeMillis() - copy.get().validated >= maxAgeMillis) {
+                revalidateInBackground(copy.get());
+            } else {
+                LOG.debug("Using local copy of {}", url);
+            }
+            return copy.get().content;
+        }
+        return fetch(copy.orElse(null));
+    }
+
+    private void revalidateInBackground(final Copy copy) {
+        // own thread, a server which does not answer must not hold a thread of the shared download pool
+        final Thread thread = new Thread(() -> {
+            try {
+                fetch(copy);
+            } catch (IOException e) {
+                LOG.warn("Could not revalidate local copy of {}: {}", url, e.getMessage());
+            }
+        }, "SystemPropertiesRevalidation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Requests the properties from the server, conditionally if a local copy exists.
+     */
+    private byte[] fetch(final Copy copy) throws IOException {
+        final Map<String, String> requestProperties = new HashMap<>();
+        if (copy != null && copy.etag != null) {
+            requestProperties.put(IF_NONE_MATCH_HEADER, copy.etag);
+        }
+        if (copy != null && copy.lastModified != null) {
+            requestProperties.put(IF_MODIFIED_SINCE_HEADER, copy.lastModified);
+        }
+
+        try (final CloseableConnection connection = ConnectionFactory.openConnection(url, HttpMethod.GET, requestProperties, CONNECT_TIMEOUT, READ_TIMEOUT)) {
+            final int responseCode = connection.getResponseCode();
+            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && copy != null) {
+                LOG.debug("Local copy of {} is up to date", url);
+                writeInfo(copy.etag, copy.lastModified);
+                return copy.content;
+            }
+            if (responseCode != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Unexpected response " + responseCode + " for " + url);
+            }
+
+            final byte[] content;
+            try (final InputStream in = connection.getInputStream()) {
+                content = IOUtils.readContent(in);
+            }
+            LOG.debug("Storing local copy of {}", url);
+            store(content, connection.getHeaderField(ETAG_HEADER), connection.getHeaderField(LAST_MODIFIED_HEADER));
+            return content;
+        }
+    }
+
+    private Optional<Copy> readCopy() {
+        if (!contentFile.isFile() || !infoFile.isFile()) {
+            return Optional.empty();
+        }
+        try {
+            final Properties info = new Properties();
+            try (final InputStream in = Files.newInputStream(infoFile.toPath())) {
+                info.load(in);
+            }
+            if (!FORMAT_VERSION.equals(info.getProperty(KEY_FORMAT)) || !url.toExternalForm().equals(info.getProperty(KEY_URL))) {
+                return Optional.empty();
+            }
+            final long validated = Long.parseLong(info.getProperty(KEY_VALIDATED, "0"));
+            final byte[] content = Files.readAllBytes(contentFile.toPath());
+            return Optional.of(new Copy(content, info.getProperty(KEY_ETAG), info.getProperty(KEY_LAST_MODIFIED), validated));
+        } catch (IOException | NumberFormatException e) {
+            LOG.debug("Failed to read local copy of {}: {}", url, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void store(final byte[] content, final String etag, final String lastModified) {
+        try {
+            final File parent = contentFile.getAbsoluteFile().getParentFile();
+            if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+                throw new IOException("Cannot create directory " + parent);
+            }
+            AtomicFiles.write(contentFile, out -> out.write(content));
+            writeInfo(etag, lastModified);
+        } catch (IOException e) {
+            LOG.warn("Failed to store local copy of {}: {}", url, e.getMessage());
+        }
+    }
+
+    private void writeInfo(final String etag, final String lastModified) throws IOException {
+        final Properties info = new Properties();
+        info.setProperty(KEY_FORMAT, FORMAT_VERSION);
+        info.setProperty(KEY_URL, url.toExternalForm());
+        info.setProperty(KEY_VALIDATED, Long.toString(System.currentTimeMillis()));
+        if (etag != null) {
+            info.setProperty(KEY_ETAG, etag);
+        }
+        if (lastModified != null) {
+            info.setProperty(KEY_LAST_MODIFIED, lastModified);
+        }
+        AtomicFiles.write(infoFile, out -> info.store(out, "Local copy of " + url));
+    }
+
+    private static class Copy {
+        private final byte[] content;
+        private final String etag;
+        private final String lastModified;
+        private final long validated;
+
+        private Copy(final byte[] content, final String etag, final String lastModified, final long validated) {
+            this.content = content;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.validated = validated;
+        }
+    }
+}
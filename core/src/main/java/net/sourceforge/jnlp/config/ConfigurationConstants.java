@@ -136,6 +136,16 @@ public interface ConfigurationConstants {
     String KEY_PARALLEL_RESOURCE_DOWNLOAD_COUNT = "deployment.cache.parallelDownloadCount";
     int DEFAULT_PARALLEL_RESOURCE_DOWNLOAD_COUNT = 6;
 
+    /**
+     * Boolean. Download a resource from all its candidate URLs at the same time and keep the first complete download
+     */
+    String KEY_RACE_RESOURCE_DOWNLOADS = "deployment.cache.raceDownloads";
+
+    /**
+     * Integer. Number of HTTP range requests a large resource is downloaded with in parallel
+     */
+    String KEY_DOWNLOAD_SEGMENT_COUNT = "deployment.cache.downloadSegmentCount";
+
     /**
      * Boolean. Only install the custom authenticator if true
      */
@@ -146,6 +156,11 @@ public interface ConfigurationConstants {
      */
     String KEY_SECURITY_DISABLE_RESTRICTED_FILES = "deployment.security.itw.disablerestrictedfiles";
 
+    /**
+     * Boolean. Store the signers found in a cached jar next to it and reuse them while the jar is unchanged
+     */
+    String KEY_SECURITY_STORE_JAR_SIGNATURES = "deployment.security.itw.storejarsignatures";
+
     String KEY_STRICT_JNLP_CLASSLOADER = "deployment.jnlpclassloader.strict";
 
     /**
@@ -263,6 +278,13 @@ public interface ConfigurationConstants {
 
     String KEY_SYSTEM_CONFIG_MANDATORY = "deployment.system.config.mandatory";
 
+    /**
+     * Integer. Seconds a local copy of remote system properties is used before it is revalidated in the background
+     */
+    String KEY_SYSTEM_CONFIG_MAX_AGE = "deployment.system.config.maxAge";
+
+    int DEFAULT_SYSTEM_CONFIG_MAX_AGE = 3600;
+
     /**
      * Possibility to control hack which resizes very small applets
      */
@@ -0,0 +1,87 @@
+package net.sourceforge.jnlp.config;
+
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static net.adoptopenjdk.icedteaweb.config.validators.ValidatorUtils.splitCombination;
+
+/**
+ * The values of a {@link DeploymentConfiguration} at one point in time. A snapshot never changes,
+ * the configuration replaces it whenever one of its values changes. Typed values are parsed on
+ * first use and then kept, so settings read for every resource are not parsed again each time.
+ */
+public final class ConfigurationSnapshot {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigurationSnapshot.class);
+
+    private final Map<String, String> values;
+
+    private final Map<String, Optional<Integer>> intValues = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> booleanValues = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> listValues = new ConcurrentHashMap<>();
+
+    ConfigurationSnapshot(final Map<String, Setting> settings) {
+        final Map<String, String> copy = new HashMap<>();
+        for (final Map.Entry<String, Setting> entry : settings.entrySet()) {
+            final String value = entry.getValue() == null ? null : entry.getValue().getValue();
+            if (value != null) {
+                copy.put(entry.getKey(), value);
+            }
+        }
+        this.values = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * @param key the property key
+     * @return the value for the key, or null if it can not be found
+     */
+    public String getProperty(final String key) {
+        return values.get(key);
+    }
+
+    /**
+     * @param key          the property key
+     * @param defaultValue the value if the key is missing, blank or not a number
+     * @return the value for the key as int
+     */
+    public int getInt(final String key, final int defaultValue) {
+        return intValues.computeIfAbsent(key, this::parseInt).orElse(defaultValue);
+    }
+
+    /**
+     * @param key the property key
+     * @return whether the value for the key is {@code true}, ignoring case
+     */
+    public boolean getBoolean(final String key) {
+        return booleanValues.computeIfAbsent(key, k -> Boolean.parseBoolean(values.get(k)));
+    }
+
+    /**
+     * @param key the property key
+     * @return the comma separated values for the key
+     * @see DeploymentConfiguration#getPropertyAsList(String)
+     */
+    public List<String> getList(final String key) {
+        return listValues.computeIfAbsent(key, k -> Collections.unmodifiableList(splitCombination(values.get(k))));
+    }
+
+    private Optional<Integer> parseInt(final String key) {
+        final String value = values.get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Integer.valueOf(value.trim()));
+        } catch (NumberFormatException e) {
+            LOG.error("Could not parse {} with value '{}' - reason {}", key, value, e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
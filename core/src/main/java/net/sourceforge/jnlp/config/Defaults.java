@@ -250,6 +250,11 @@ public class Defaults {
                     String.valueOf(false),
                     ValidatorFactory.createBooleanValidator()
             ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_SECURITY_STORE_JAR_SIGNATURES,
+                    String.valueOf(true),
+                    ValidatorFactory.createBooleanValidator()
+            ),
 
             /*
              * networking
@@ -490,6 +495,16 @@ public class Defaults {
                     String.valueOf(ConfigurationConstants.DEFAULT_PARALLEL_RESOURCE_DOWNLOAD_COUNT),
                     ValidatorFactory.createRangedIntegerValidator(1, 24)
             ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_RACE_RESOURCE_DOWNLOADS,
+                    String.valueOf(true),
+                    ValidatorFactory.createBooleanValidator()
+            ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_DOWNLOAD_SEGMENT_COUNT,
+                    String.valueOf(1),
+                    ValidatorFactory.createRangedIntegerValidator(1, 8)
+            ),
 
             /*
              * JVM executable for itw
@@ -522,6 +537,11 @@ public class Defaults {
                     String.valueOf(false),
                     ValidatorFactory.createBooleanValidator()
             ),
+            Setting.createDefault(
+                    ConfigurationConstants.KEY_SYSTEM_CONFIG_MAX_AGE,
+                    String.valueOf(ConfigurationConstants.DEFAULT_SYSTEM_CONFIG_MAX_AGE),
+                    ValidatorFactory.createRangedIntegerValidator(0, Integer.MAX_VALUE)
+            ),
             Setting.createDefault(
                     ConfigurationConstants.KEY_SMALL_SIZE_OVERRIDE_WIDTH,
                     String.valueOf(800),
@@ -28,6 +28,7 @@ import javax.imageio.spi.IIORegistry;
 import javax.naming.ConfigurationException;
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -51,6 +52,7 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static net.adoptopenjdk.icedteaweb.config.validators.ValidatorUtils.splitCombination;
 import static net.adoptopenjdk.icedteaweb.i18n.Translator.R;
 import static net.sourceforge.jnlp.config.ConfigurationConstants.DEPLOYMENT_PROPERTIES;
@@ -66,6 +68,9 @@ public final class DeploymentConfiguration {
     private static final Logger LOG = LoggerFactory.getLogger(DeploymentConfiguration.class);
     public static final String LOCKED_POSTFIX = ".locked";
 
+    /** name of the local copy of remote system properties */
+    private static final String SYSTEM_PROPERTIES_COPY = "system." + DEPLOYMENT_PROPERTIES;
+
     private String userComments;
 
     private ConfigurationException loadingException = null;
@@ -81,6 +86,9 @@ public final class DeploymentConfiguration {
     /** The system's subdirResult deployment.config file */
     private URL systemPropertiesFile = null;
 
+    /** how long a local copy of remote system properties is used without asking the server */
+    private long systemPropertiesMaxAgeMillis = SECONDS.toMillis(ConfigurationConstants.DEFAULT_SYSTEM_CONFIG_MAX_AGE);
+
     /** Source of always right and only path to file (even if underlying path changes) */
     private final InfrastructureFileDescriptor userDeploymentFileDescriptor;
 
@@ -93,6 +101,9 @@ public final class DeploymentConfiguration {
     /** the deployment properties that cannot be changed */
     private final Map<String, Setting> unchangeableConfiguration;
 
+    /** the values of the current deployment properties, replaced whenever they change */
+    private volatile ConfigurationSnapshot snapshot;
+
     public DeploymentConfiguration() {
         this(PathsAndFiles.USER_DEPLOYMENT_FILE);
     }
@@ -101,6 +112,7 @@ public final class DeploymentConfiguration {
         userDeploymentFileDescriptor = configFile;
         currentConfiguration = new HashMap<>();
         unchangeableConfiguration = new HashMap<>();
+        snapshot = new ConfigurationSnapshot(currentConfiguration);
         try {
             final IcoReaderSpi spi = new IcoReaderSpi();
             IIORegistry.getDefaultInstance().registerServiceProvider(spi);
@@ -139,6 +151,7 @@ public final class DeploymentConfiguration {
     public void resetToDefaults() {
         currentConfiguration.clear();
         currentConfiguration.putAll(Defaults.getDefaults());
+        updateSnapshot();
     }
 
     static boolean checkUrl(final URL file) {
@@ -216,6 +229,7 @@ public final class DeploymentConfiguration {
 
         currentConfiguration.clear();
         currentConfiguration.putAll(properties);
+        updateSnapshot();
     }
 
     /**
@@ -240,12 +254,42 @@ public final class DeploymentConfiguration {
                 /*
                  * Second, read the System level deployment.properties file
                  */
+                if (CachedSystemProperties.isCacheable(systemPropertiesFile)) {
+                    return loadCachedSystemProperties();
+                }
                 return loadProperties(ConfigType.SYSTEM, systemPropertiesFile, systemPropertiesMandatory);
             }
         }
         return new HashMap<>();
     }
 
+    /**
+     * Loads the remote system properties through a local copy next to the user's deployment.properties.
+     * The server is only asked while waiting if the system properties are mandatory or no copy exists yet.
+     *
+     * @see CachedSystemProperties
+     */
+    private Map<String, Setting> loadCachedSystemProperties() throws ConfigurationException {
+        final File copy = new File(userDeploymentFileDescriptor.getFile().getParentFile(), SYSTEM_PROPERTIES_COPY);
+        final CachedSystemProperties cachedProperties = new CachedSystemProperties(systemPropertiesFile, copy, systemPropertiesMaxAgeMillis);
+
+        LOG.info("Loading {} level properties from: {}", ConfigType.SYSTEM, systemPropertiesFile);
+        try {
+            final byte[] content = cachedProperties.getContent(systemPropertiesMandatory);
+            return parseProperties(new ByteArrayInputStream(content), systemPropertiesFile);
+        } catch (final IOException e) {
+            final String message = String.format("No %s level %s found at %s.", ConfigType.SYSTEM, DEPLOYMENT_PROPERTIES, systemPropertiesFile);
+            if (systemPropertiesMandatory) {
+                final ConfigurationException configurationException = new ConfigurationException(message);
+                configurationException.initCause(e);
+                LOG.error(message, e);
+                throw configurationException;
+            }
+            LOG.warn(message);
+            return new HashMap<>();
+        }
+    }
+
     /**
      * Copies the current configuration into the target
      * @param target properties where to copy actual ones
@@ -285,6 +329,28 @@ public final class DeploymentConfiguration {
         return splitCombination(getProperty(key));
     }
 
+    /**
+     * Returns the current values of the configuration. Prefer this over {@link #getProperty(String)}
+     * for settings which are read often, as the snapshot parses every value only once.
+     * The returned snapshot does not change, a new one is created whenever the configuration is
+     * loaded, reset, saved or a property is set.
+     *
+     * @return the current values of the configuration
+     */
+    public ConfigurationSnapshot getSnapshot() {
+        final SecurityManager sm = System.getSecurityManager();
+        if (sm != null) {
+            if (userPropertiesFile != null) {
+                sm.checkRead(userPropertiesFile.toString());
+            }
+        }
+        return snapshot;
+    }
+
+    private void updateSnapshot() {
+        snapshot = new ConfigurationSnapshot(currentConfiguration);
+    }
+
     /**
      * @return a Set containing all the property names
      */
@@ -336,6 +402,7 @@ public final class DeploymentConfiguration {
         } else {
             currentConfiguration.put(key, Setting.createUnknown(key, value));
         }
+        updateSnapshot();
     }
 
     /**
@@ -451,6 +518,7 @@ public final class DeploymentConfiguration {
             final Setting mandatory = systemConfiguration.get(ConfigurationConstants.KEY_SYSTEM_CONFIG_MANDATORY);
             systemPropertiesMandatory = Boolean.parseBoolean(mandatory == null ? null : mandatory.getValue()); //never null
             LOG.info("System level settings {} are mandatory: {}", DEPLOYMENT_PROPERTIES, systemPropertiesMandatory);
+            systemPropertiesMaxAgeMillis = SECONDS.toMillis(getMaxAge(systemConfiguration.get(ConfigurationConstants.KEY_SYSTEM_CONFIG_MAX_AGE)));
             systemPropertiesFile = new URL(urlString);
             LOG.info("Using System level {} : {}", DEPLOYMENT_PROPERTIES, systemPropertiesFile);
             return true;
@@ -466,6 +534,17 @@ public final class DeploymentConfiguration {
         }
     }
 
+    private static long getMaxAge(final Setting maxAge) {
+        if (maxAge != null && maxAge.getValue() != null) {
+            try {
+                return Math.max(0, Long.parseLong(maxAge.getValue().trim()));
+            } catch (final NumberFormatException e) {
+                LOG.warn("Invalid value '{}' for {}", maxAge.getValue(), ConfigurationConstants.KEY_SYSTEM_CONFIG_MAX_AGE);
+            }
+        }
+        return ConfigurationConstants.DEFAULT_SYSTEM_CONFIG_MAX_AGE;
+    }
+
     /**
      * Loads the properties from the given file into a map of {@link Setting}s. If the given properties file does not
      * exist or the URL is invalid and not mandatory, an empty Map is returned. If the file is considered to be
@@ -523,6 +602,9 @@ public final class DeploymentConfiguration {
             sm.checkWrite(userPropertiesFile.toString());
         }
 
+        // settings may have been changed directly through getRaw()
+        updateSnapshot();
+
         LOG.info("Saving properties into {}", userPropertiesFile.toString());
         final Properties toSave = new Properties();
 
@@ -577,15 +659,25 @@ public final class DeploymentConfiguration {
      * @throws IOException if an IO problem occurs
      */
     private static Map<String, Setting> parsePropertiesFile(final URL propertiesFile) throws IOException {
-        final Map<String, Setting> result = new HashMap<>();
-
-        final Properties properties = new Properties();
-
         try (final CloseableConnection con = ConnectionFactory.openConnection(propertiesFile)) {
             try (final InputStream inputStream = con.getInputStream()) {
-                properties.load(inputStream);
+                return parseProperties(inputStream, propertiesFile);
             }
         }
+    }
+
+    /**
+     * Reads properties and returns a map representing the properties
+     *
+     * @param inputStream the content of the properties file
+     * @param propertiesFile the location the properties were read from
+     * @throws IOException if an IO problem occurs
+     */
+    private static Map<String, Setting> parseProperties(final InputStream inputStream, final URL propertiesFile) throws IOException {
+        final Map<String, Setting> result = new HashMap<>();
+
+        final Properties properties = new Properties();
+        properties.load(inputStream);
 
         final Set<String> keys = properties.stringPropertyNames();
         for (final String key : keys) {
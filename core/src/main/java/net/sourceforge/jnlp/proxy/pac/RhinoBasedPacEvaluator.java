@@ -39,8 +39,10 @@ import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.sourceforge.jnlp.util.TimedHashMap;
 import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
 import org.mozilla.javascript.Function;
 import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -72,6 +74,21 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
     private final String pacContents;
     private final URL pacUrl;
     private final TimedHashMap<String, String> cache;
+    private CompiledPac compiledPac;
+
+    /**
+     * Contexts with dynamic scope so that the functions of the shared PAC scope
+     * resolve global variables against the scope of the current lookup.
+     */
+    private static final ContextFactory PAC_CONTEXT_FACTORY = new ContextFactory() {
+        @Override
+        protected boolean hasFeature(Context cx, int featureIndex) {
+            if (featureIndex == Context.FEATURE_DYNAMIC_SCOPE) {
+                return true;
+            }
+            return super.hasFeature(cx, featureIndex);
+        }
+    };
 
     /**
      * Initialize a new object by using the PAC file located at the given URL.
@@ -125,8 +142,7 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
             return PacConstants.DIRECT;
         }
 
-        EvaluatePacAction evaluatePacAction = new EvaluatePacAction(pacContents, pacUrl.toString(),
-                pacHelperFunctionContents, url);
+        EvaluatePacAction evaluatePacAction = new EvaluatePacAction(url);
 
         // Purposefully giving only these permissions rather than using java.policy. The "evaluatePacAction"
         // isn't supposed to do very much and so doesn't require all the default permissions given by
@@ -201,39 +217,80 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
      * Gets an entry from the cache
      */
     private String getFromCache(URL url) {
-        String lookupString = url.getProtocol() + "://" + url.getHost();
-        String result = cache.get(lookupString);
-        return result;
+        synchronized (cache) {
+            return cache.get(getCacheKey(url));
+        }
     }
 
     /**
      * Adds an entry to the cache
      */
     private void addToCache(URL url, String proxyResult) {
-        String lookupString = url.getAuthority() + "://" + url.getHost();
-        cache.put(lookupString, proxyResult);
+        synchronized (cache) {
+            cache.put(getCacheKey(url), proxyResult);
+        }
+    }
+
+    private static String getCacheKey(URL url) {
+        return url.getProtocol() + "://" + url.getHost();
+    }
+
+    /**
+     * Returns the compiled PAC script. The helper functions and the PAC file are compiled
+     * and evaluated only once. Must be called from within the sandbox.
+     */
+    private synchronized CompiledPac getCompiledPac(Context cx) {
+        if (compiledPac == null) {
+            compiledPac = new CompiledPac(cx, pacHelperFunctionContents, pacContents, pacUrl.toString());
+        }
+        return compiledPac;
+    }
+
+    /**
+     * The PAC script evaluated into a sealed scope which is shared by all lookups.
+     * Each lookup calls {@code FindProxyForURL} with its own scope inheriting from the
+     * shared one, so global variables set by the PAC script during a lookup do not leak
+     * into other lookups running at the same time.
+     */
+    private static class CompiledPac {
+
+        private final ScriptableObject sharedScope;
+        private final Function findProxyFunction;
+
+        CompiledPac(Context cx, String pacFuncsContents, String pacContents, String pacUrl) {
+            sharedScope = cx.initStandardObjects(null, true);
+            cx.compileString(pacFuncsContents, "internal", 1, null).exec(cx, sharedScope);
+            cx.compileString(pacContents, pacUrl, 1, null).exec(cx, sharedScope);
+            sharedScope.sealObject();
+
+            final Object functionObj = ScriptableObject.getProperty(sharedScope, "FindProxyForURL");
+            findProxyFunction = functionObj instanceof Function ? (Function) functionObj : null;
+        }
+
+        String findProxyForURL(Context cx, URL url) {
+            final Scriptable lookupScope = cx.newObject(sharedScope);
+            lookupScope.setPrototype(sharedScope);
+            lookupScope.setParentScope(null);
+
+            Object[] args = { url.toString(), url.getHost() };
+            return (String) findProxyFunction.call(cx, lookupScope, lookupScope, args);
+        }
     }
 
     /**
      * Helper classs to run remote javascript code (specified by the user as
      * PAC URL) inside a sandbox.
      */
-    private static class EvaluatePacAction implements PrivilegedAction<String> {
+    private class EvaluatePacAction implements PrivilegedAction<String> {
 
-        private String pacContents;
-        private String pacUrl;
-        private String pacFuncsContents;
-        private URL url;
+        private final URL url;
 
-        public EvaluatePacAction(String pacContents, String pacUrl, String pacFuncsContents, URL url) {
-            this.pacContents = pacContents;
-            this.pacUrl = pacUrl;
-            this.pacFuncsContents = pacFuncsContents;
+        public EvaluatePacAction(URL url) {
             this.url = url;
         }
 
         public String run() {
-            Context cx = Context.enter();
+            Context cx = PAC_CONTEXT_FACTORY.enterContext();
             try {
                 /*
                  * TODO defense in depth.
@@ -241,25 +298,16 @@ public class RhinoBasedPacEvaluator implements PacEvaluator {
                  * This is already running within a sandbox, but we can (and we
                  * should) lock it down further. Look into ClassShutter.
                  */
-                Scriptable scope = cx.initStandardObjects();
                 // any optimization level greater than -1 will trigger code generation
                 // and this block will then need classloader permissions
                 cx.setOptimizationLevel(-1);
-                Object result = null;
-                result = cx.evaluateString(scope, pacFuncsContents, "internal", 1, null);
-                result = cx.evaluateString(scope, pacContents, pacUrl, 1, null);
 
-                Object functionObj = scope.get("FindProxyForURL", scope);
-                if (!(functionObj instanceof Function)) {
+                final CompiledPac pac = getCompiledPac(cx);
+                if (pac.findProxyFunction == null) {
                     LOG.error("FindProxyForURL not found");
                     return null;
-                } else {
-                    Function findProxyFunction = (Function) functionObj;
-
-                    Object[] args = { url.toString(), url.getHost() };
-                    result = findProxyFunction.call(cx, scope, scope, args);
-                    return (String) result;
                 }
+                return pac.findProxyForURL(cx, url);
             } catch (Exception e) {
                 LOG.error(IcedTeaWebConstants.DEFAULT_ERROR_MESSAGE, e);
                 return PacConstants.DIRECT;
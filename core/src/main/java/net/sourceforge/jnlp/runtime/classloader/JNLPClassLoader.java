@@ -23,6 +23,7 @@ import net.adoptopenjdk.icedteaweb.jnlp.element.application.AppletDesc;
 import net.adoptopenjdk.icedteaweb.jnlp.element.application.ApplicationDesc;
 import net.adoptopenjdk.icedteaweb.jnlp.element.resource.ExtensionDesc;
 import net.adoptopenjdk.icedteaweb.jnlp.element.resource.JARDesc;
+import net.adoptopenjdk.icedteaweb.jnlp.element.resource.PackageDesc;
 import net.adoptopenjdk.icedteaweb.jnlp.element.resource.ResourcesDesc;
 import net.adoptopenjdk.icedteaweb.jnlp.element.security.SecurityDesc;
 import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
@@ -43,6 +44,8 @@ import net.sourceforge.jnlp.LaunchException;
 import net.sourceforge.jnlp.NullJnlpFileException;
 import net.sourceforge.jnlp.ParserSettings;
 import net.sourceforge.jnlp.cache.CacheUtil;
+import net.sourceforge.jnlp.cache.ExtractedJarEntries;
+import net.sourceforge.jnlp.cache.JarMetadata;
 import net.sourceforge.jnlp.cache.NativeLibraryStorage;
 import net.sourceforge.jnlp.config.ConfigurationConstants;
 import net.sourceforge.jnlp.runtime.ApplicationInstance;
@@ -56,7 +59,6 @@ import net.sourceforge.jnlp.util.UrlUtils;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.FilePermission;
 import java.io.IOException;
 import java.io.InputStream;
@@ -69,6 +71,7 @@ import java.security.AccessControlException;
 import java.security.AccessController;
 import java.security.AllPermission;
 import java.security.CodeSource;
+import java.security.NoSuchAlgorithmException;
 import java.security.Permission;
 import java.security.PermissionCollection;
 import java.security.Permissions;
@@ -77,6 +80,7 @@ import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.security.ProtectionDomain;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -87,12 +91,15 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.jar.Attributes;
 import java.util.jar.JarEntry;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static net.adoptopenjdk.icedteaweb.i18n.Translator.R;
@@ -125,6 +132,21 @@ public class JNLPClassLoader extends URLClassLoader {
     private static final String TEMPLATE = "JNLP-INF/APPLICATION_TEMPLATE.JNLP";
     private static final String APPLICATION = "JNLP-INF/APPLICATION.JNLP";
 
+    /**
+     * maximum number of missing class or resource names remembered by a loader
+     */
+    private static final int MAX_MISSING_NAMES = 1024;
+
+    /**
+     * maximum number of extensions prepared concurrently
+     */
+    private static final int MAX_PARALLEL_EXTENSIONS = 6;
+
+    /**
+     * Name of the directory next to a cached jar containing its extracted nested jars.
+     */
+    private static final String NESTED_SIDECAR_NAME = "nested";
+
     /**
      * Actions to specify how cache is to be managed *
      */
@@ -213,11 +235,12 @@ public class JNLPClassLoader extends URLClassLoader {
     private final ArrayList<Permission> runtimePermissions = new ArrayList<>();
 
     /**
-     * all jars not yet part of classloader or active Synchronized since this
-     * field may become shared data between multiple classloading threads. See
-     * loadClass(String) and CodebaseClassLoader.findClassNonRecursive(String).
+     * all jars not yet part of classloader or active. Copy-on-write since this
+     * field may become shared data between multiple classloading threads, which
+     * iterate over it without locking. See loadClass(String) and
+     * CodebaseClassLoader.findClassNonRecursive(String).
      */
-    private final List<JARDesc> available = Collections.synchronizedList(new ArrayList<>());
+    private final List<JARDesc> available = new CopyOnWriteArrayList<>();
 
     /**
      * the jar cert verifier tool to verify our jars
@@ -227,36 +250,41 @@ public class JNLPClassLoader extends URLClassLoader {
     private SigningState signing = SigningState.NONE;
 
     /**
-     * ArrayList containing jar indexes for various jars available to this
-     * classloader Synchronized since this field may become shared data between
-     * multiple classloading threads/ See loadClass(String) and
+     * List containing jar indexes for various jars available to this
+     * classloader. Copy-on-write since this field may become shared data between
+     * multiple classloading threads. See loadClass(String) and
      * CodebaseClassLoader.findClassNonRecursive(String).
      */
-    private final List<JarIndexAccess> jarIndexes = Collections.synchronizedList(new ArrayList<>());
+    private final List<JarIndexAccess> jarIndexes = new CopyOnWriteArrayList<>();
 
     /**
-     * Set of classpath strings declared in the manifest.mf files Synchronized
+     * Set of classpath strings declared in the manifest.mf files. Copy-on-write
      * since this field may become shared data between multiple classloading
      * threads. See loadClass(String) and
      * CodebaseClassLoader.findClassNonRecursive(String).
      */
-    private final Set<String> classpaths = Collections.synchronizedSet(new HashSet<>());
+    private final Set<String> classpaths = new CopyOnWriteArraySet<>();
 
     /**
-     * File entries in the jar files available to this classloader Synchronized
-     * sinc this field may become shared data between multiple classloading
-     * threads. See loadClass(String) and
+     * Map of specific original (remote) CodeSource Urls to securitydesc.
+     * Concurrent since this field may become shared data between multiple
+     * classloading threads. See loadClass(String) and
      * CodebaseClassLoader.findClassNonRecursive(String).
      */
-    private final Set<String> jarEntries = Collections.synchronizedSet(new TreeSet<>());
+    final Map<URL, SecurityDesc> jarLocationSecurityMap = new ConcurrentHashMap<>();
 
     /**
-     * Map of specific original (remote) CodeSource Urls to securitydesc
-     * Synchronized since this field may become shared data between multiple
-     * classloading threads. See loadClass(String) and
-     * CodebaseClassLoader.findClassNonRecursive(String).
+     * Package indexes of the downloaded jars not yet part of the classloader.
+     * Used to skip lazy jars which cannot contain a requested class.
      */
-    final Map<URL, SecurityDesc> jarLocationSecurityMap = Collections.synchronizedMap(new HashMap<>());
+    private final Map<URL, JarPackageIndex> packageIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * Names of classes and resources which could not be found.
+     * Invalidated whenever a loader gets new jars.
+     */
+    private final NegativeLookupCache missingClasses = new NegativeLookupCache(MAX_MISSING_NAMES);
+    private final NegativeLookupCache missingResources = new NegativeLookupCache(MAX_MISSING_NAMES);
 
     /*Set to prevent once tried-to-get resources to be tried again*/
     private final Set<URL> alreadyTried = Collections.synchronizedSet(new HashSet<>());
@@ -357,7 +385,7 @@ public class JNLPClassLoader extends URLClassLoader {
     }
 
     private static boolean isCertUnderestimated() {
-        return Boolean.parseBoolean(JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_SECURITY_ITW_IGNORECERTISSUES))
+        return JNLPRuntime.getConfiguration().getSnapshot().getBoolean(ConfigurationConstants.KEY_SECURITY_ITW_IGNORECERTISSUES)
                 && !JNLPRuntime.isSecurityEnabled();
     }
 
@@ -514,40 +542,41 @@ public class JNLPClassLoader extends URLClassLoader {
     }
 
     /**
-     * Returns a JNLP classloader for the JNLP file at the specified location.
+     * Returns the loader of an extension. The loader registered for the unique key is reused
+     * if it was created for the location of the extension.
      *
-     * @param location       the file's location
-     * @param uniqueKey      key to manage applets/applications in shared vm
-     * @param version        the file's version
-     * @param settings       settings of parser
-     * @param policy         the update policy to use when downloading resources
-     * @param mainName       Overrides the main class name of the application
-     * @param enableCodeBase whether to enable codebase search or not
-     * @return classloader of this app
-     * @throws java.io.IOException                  when IO fails
-     * @throws ParseException                       when parsing fails
-     * @throws net.sourceforge.jnlp.LaunchException when launch is doomed
+     * @param ext       the extension
+     * @param uniqueKey key to manage applets/applications in shared vm
+     * @param prepared  the prepared extension or null if the preparation was skipped as a loader was registered
+     * @return classloader of the extension
      */
-    private static JNLPClassLoader getInstance(final URL location, final String uniqueKey, final VersionString version, final ParserSettings settings, final UpdatePolicy policy, final String mainName, boolean enableCodeBase)
+    private JNLPClassLoader getExtensionLoader(final ExtensionDesc ext, final String uniqueKey, final PreparedExtension prepared)
             throws IOException, ParseException, LaunchException {
 
-        JNLPClassLoader loader;
-
         synchronized (getUniqueKeyLock(uniqueKey)) {
-            loader = uniqueKeyToLoader.get(uniqueKey);
-
-            if (loader == null || loader.getJNLPFile().getFileLocation() == null || !location.toString().equals(loader.getJNLPFile().getFileLocation().toString())) {
-                final JNLPFile jnlpFile = new JNLPFileFactory().create(location, uniqueKey, version, settings, policy);
-
-                loader = getInstance(jnlpFile, policy, mainName, enableCodeBase);
+            final Optional<JNLPClassLoader> registered = getRegisteredLoader(uniqueKey, ext.getLocation());
+            if (registered.isPresent()) {
+                return registered.get();
             }
+            // the registered loader may have been released since the preparation was skipped
+            final PreparedExtension extension = prepared != null ? prepared : prepareExtension(ext, uniqueKey);
+            return getInstance(extension.file, updatePolicy, mainClass, enableCodeBase);
         }
+    }
 
-        return loader;
+    private static Optional<JNLPClassLoader> getRegisteredLoader(final String uniqueKey, final URL location) {
+        final JNLPClassLoader loader = uniqueKeyToLoader.get(uniqueKey);
+        if (loader == null || loader.getJNLPFile().getFileLocation() == null || !location.toString().equals(loader.getJNLPFile().getFileLocation().toString())) {
+            return Optional.empty();
+        }
+        return Optional.of(loader);
     }
 
     /**
      * Load the extensions specified in the JNLP file.
+     * The extension files are fetched and their initial jars downloaded concurrently,
+     * the loaders are then created one after the other in the order of the extensions.
+     * An extension whose loader is already registered for the unique key is not prepared.
      */
     private void initializeExtensions() {
         final List<Exception> exceptions = new ArrayList<>();
@@ -557,14 +586,10 @@ public class JNLPClassLoader extends URLClassLoader {
         final ExtensionDesc[] extDescs = resources.getExtensions();
         if (extDescs != null) {
             final String uniqueKey = this.getJNLPFile().getUniqueKey();
-            for (ExtensionDesc ext : extDescs) {
-                try {
-                    final JNLPClassLoader loader = getInstance(ext.getLocation(), uniqueKey, ext.getVersion(), file.getParserSettings(), updatePolicy, mainClass, enableCodeBase);
-                    loaderList.add(loader);
-                } catch (Exception ex) {
-                    exceptions.add(new Exception("Exception while initializing extension '" + ext.getLocation() + "'", ex));
-                }
-            }
+            loaderList.addAll(ParallelPreparation.run(Arrays.asList(extDescs), MAX_PARALLEL_EXTENSIONS,
+                    ext -> getRegisteredLoader(uniqueKey, ext.getLocation()).isPresent() ? null : prepareExtension(ext, uniqueKey),
+                    (ext, prepared) -> getExtensionLoader(ext, uniqueKey, prepared),
+                    (ext, e) -> exceptions.add(new Exception("Exception while initializing extension '" + ext.getLocation() + "'", e))));
         }
 
         if (exceptions.size() > 0) {
@@ -575,6 +600,50 @@ public class JNLPClassLoader extends URLClassLoader {
         loaders = loaderList.toArray(new JNLPClassLoader[0]);
     }
 
+    /**
+     * Fetches and parses the file of an extension and downloads its initial jars.
+     * This does not touch any classloader, so it may run while another thread holds the
+     * lock of the unique key. Failing downloads are reported later by the loader of the extension.
+     */
+    private PreparedExtension prepareExtension(final ExtensionDesc ext, final String uniqueKey) throws IOException, ParseException {
+        final JNLPFile extensionFile = new JNLPFileFactory().create(ext.getLocation(), uniqueKey, ext.getVersion(), file.getParserSettings(), updatePolicy);
+
+        // the downloaded resources are shared with the tracker of the extension loader as long as this tracker is alive
+        final ResourceTracker prefetchTracker = new ResourceTracker(true, extensionFile.getDownloadOptions(), JNLPRuntime.getDefaultUpdatePolicy());
+        final JARDesc[] jars = extensionFile.getResources().getJARs();
+        final List<URL> initialJars = new ArrayList<>();
+        for (JARDesc jar : jars) {
+            if (jar.isEager() || jar.isMain()) {
+                prefetchTracker.addResource(jar.getLocation(), jar.getVersion(),
+                        jar.isCacheable() ? JNLPRuntime.getDefaultUpdatePolicy() : UpdatePolicy.FORCE);
+                initialJars.add(jar.getLocation());
+            }
+        }
+        try {
+            prefetchTracker.waitForResources(initialJars.toArray(new URL[0]));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOG.debug("Failed to prefetch the jars of extension '{}': {}", ext.getLocation(), e.getMessage());
+        }
+        return new PreparedExtension(extensionFile, prefetchTracker);
+    }
+
+    /**
+     * A parsed extension file together with the tracker holding its downloaded initial jars.
+     * Trackers share resources through a weak list only, so the tracker is kept until the loader
+     * of the extension has been created and its own tracker has picked up the downloaded jars.
+     */
+    private static class PreparedExtension {
+        private final JNLPFile file;
+        private final ResourceTracker prefetchTracker;
+
+        private PreparedExtension(final JNLPFile file, final ResourceTracker prefetchTracker) {
+            this.file = file;
+            this.prefetchTracker = prefetchTracker;
+        }
+    }
+
     /**
      * Make permission objects for the classpath.
      */
@@ -821,7 +890,7 @@ public class JNLPClassLoader extends URLClassLoader {
         for (JARDesc jarDesc : validJars) {
             final URL codebase = getJnlpFileCodebase();
             final SecurityDesc jarSecurity = securityDelegate.getCodebaseSecurityDesc(jarDesc, codebase);
-            jarLocationSecurityMap.put(jarDesc.getLocation(), jarSecurity);
+            putCodeSourceSecurity(jarDesc.getLocation(), jarSecurity);
         }
 
         activateJars(initialJars);
@@ -1151,13 +1220,11 @@ public class JNLPClassLoader extends URLClassLoader {
         final LinkedHashSet<JARDesc> jars = new LinkedHashSet<>();
 
         // "available" field can be affected by two different threads
-        // working in loadClass(String)
+        // working in loadClass(String), iterating works on a snapshot
         if (part != null) {
-            synchronized (available) {
-                for (JARDesc jar : available) {
-                    if (part.equals(jar.getPart())) {
-                        jars.add(jar);
-                    }
+            for (JARDesc jar : available) {
+                if (part.equals(jar.getPart())) {
+                    jars.add(jar);
                 }
             }
         }
@@ -1183,84 +1250,48 @@ public class JNLPClassLoader extends URLClassLoader {
 
         for (JARDesc jar : jars) {
             available.remove(jar);
+            packageIndexes.remove(jar.getLocation());
 
             // add jar
             File localFile = tracker.getCacheFile(jar.getLocation());
             try {
                 URL location = jar.getLocation(); // non-cacheable, use source location
+                final JarMetadata metadata = localFile != null ? JarMetadata.of(localFile) : null;
                 if (localFile != null) {
                     location = localFile.toURI().toURL(); // cached file
-                    // This is really not the best way.. but we need some way for
-                    // PluginAppletViewer::getCachedImageRef() to check if the image
-                    // is available locally, and it cannot use getResources() because
-                    // that prefetches the resource, which confuses MediaTracker.waitForAll()
-                    // which does a wait(), waiting for notification (presumably
-                    // thrown after a resource is fetched). This bug manifests itself
-                    // particularly when using The FileManager applet from Webmin.
-                    try (JarFile jarFile = new JarFile(localFile)) {
-                        for (JarEntry je : Collections.list(jarFile.entries())) {
-
-                            // another jar in my jar? it is more likely than you think
-                            if (je.getName().endsWith(".jar")) {
-                                // We need to extract that jar so that it can be loaded
-                                // (inline loading with "jar:..!/..." path will not work
-                                // with standard classloader methods)
-
-                                String name = je.getName();
-                                if (name.contains("..")) {
-                                    name = CacheUtil.hex(name, name);
-                                }
-                                String extractedJarLocation = localFile + ".nested/" + name;
-                                File parentDir = new File(extractedJarLocation).getParentFile();
-                                if (!parentDir.isDirectory() && !parentDir.mkdirs()) {
-                                    throw new RuntimeException("Unable to extract nested jar.");
-                                }
-                                FileOutputStream extractedJar = new FileOutputStream(extractedJarLocation);
-                                InputStream is = jarFile.getInputStream(je);
-
-                                byte[] bytes = new byte[1024];
-                                int read = is.read(bytes);
-                                int fileSize = read;
-                                while (read > 0) {
-                                    extractedJar.write(bytes, 0, read);
-                                    read = is.read(bytes);
-                                    fileSize += read;
-                                }
-
-                                is.close();
-                                extractedJar.close();
-
-                                // 0 byte file? skip
-                                if (fileSize <= 0) {
-                                    continue;
-                                }
+                    if (!metadata.getNestedJars().isEmpty()) {
+                        // another jar in my jar? it is more likely than you think
+                        for (Map.Entry<String, File> nestedJar : extractNestedJars(localFile, metadata.getNestedJars()).entrySet()) {
+                            final File extractedJar = nestedJar.getValue();
+
+                            // 0 byte file? skip
+                            if (extractedJar.length() <= 0) {
+                                continue;
+                            }
 
-                                tracker.addResource(new File(extractedJarLocation).toURI().toURL(), (VersionString) null);
+                            tracker.addResource(extractedJar.toURI().toURL(), (VersionString) null);
 
-                                URL codebase = file.getCodeBase();
-                                if (codebase == null) {
-                                    //FIXME: codebase should be the codebase of the Main Jar not
-                                    //the location. Although, it still works in the current state.
-                                    codebase = file.getResources().getMainJAR().getLocation();
-                                }
+                            URL codebase = file.getCodeBase();
+                            if (codebase == null) {
+                                //FIXME: codebase should be the codebase of the Main Jar not
+                                //the location. Although, it still works in the current state.
+                                codebase = file.getResources().getMainJAR().getLocation();
+                            }
 
-                                final SecurityDesc jarSecurity = securityDelegate.getJarPermissions(codebase);
+                            final SecurityDesc jarSecurity = securityDelegate.getJarPermissions(codebase);
 
-                                try {
-                                    URL fileURL = new URL("file://" + extractedJarLocation);
-                                    // there is no remote URL for this, so lets fake one
-                                    URL fakeRemote = new URL(jar.getLocation().toString() + "!" + je.getName());
-                                    CachedJarFileCallback.getInstance().addMapping(fakeRemote, fileURL);
-                                    addURL(fakeRemote);
+                            try {
+                                URL fileURL = new URL("file://" + extractedJar);
+                                // there is no remote URL for this, so lets fake one
+                                URL fakeRemote = new URL(jar.getLocation().toString() + "!" + nestedJar.getKey());
+                                CachedJarFileCallback.getInstance().addMapping(fakeRemote, fileURL);
+                                addURL(fakeRemote);
 
-                                    jarLocationSecurityMap.put(fakeRemote, jarSecurity);
+                                putCodeSourceSecurity(fakeRemote, jarSecurity);
 
-                                } catch (MalformedURLException mfue) {
-                                    LOG.error("Unable to add extracted nested jar to classpath", mfue);
-                                }
+                            } catch (MalformedURLException mfue) {
+                                LOG.error("Unable to add extracted nested jar to classpath", mfue);
                             }
-
-                            jarEntries.add(je.getName());
                         }
                     }
                 }
@@ -1272,10 +1303,12 @@ public class JNLPClassLoader extends URLClassLoader {
                 if (localFile != null) {
                     CachedJarFileCallback.getInstance().addMapping(jar.getLocation(), localFile.toURI().toURL());
 
-                    try (JarFile jarFile = new JarFile(localFile.getAbsolutePath())) {
-                        JarIndexAccess index = JarIndexAccess.getJarIndex(jarFile.getNative());
-                        if (index != null) {
-                            jarIndexes.add(index);
+                    if (metadata.hasJarIndex()) {
+                        try (JarFile jarFile = new JarFile(localFile.getAbsolutePath())) {
+                            JarIndexAccess index = JarIndexAccess.getJarIndex(jarFile.getNative());
+                            if (index != null) {
+                                jarIndexes.add(index);
+                            }
                         }
                     }
                 } else {
@@ -1294,6 +1327,30 @@ public class JNLPClassLoader extends URLClassLoader {
         return null;
     }
 
+    /**
+     * Extracts the jars nested in a jar, as inline loading with "jar:..!/..."
+     * path will not work with standard classloader methods. The jars nested in
+     * a cached jar are extracted once per cache entry and reused afterwards.
+     *
+     * @return the extracted file of every nested jar
+     */
+    private static Map<String, File> extractNestedJars(final File localFile, final List<String> nestedJars) throws IOException {
+        final File directory = Cache.getSidecarFile(localFile, NESTED_SIDECAR_NAME)
+                .orElseGet(() -> new File(localFile + ".nested"));
+        return ExtractedJarEntries.extract(localFile, directory, nestedJars, JNLPClassLoader::getNestedJarFileName);
+    }
+
+    private static String getNestedJarFileName(final String name) {
+        if (!name.contains("..")) {
+            return name;
+        }
+        try {
+            return CacheUtil.hex(name, name);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     /**
      * Return the absolute path to the native library.
      */
@@ -1422,21 +1479,27 @@ public class JNLPClassLoader extends URLClassLoader {
      * classloader instance when not needed is not in general a good idea
      * because it can and will lead to deadlock when multithreaded classloading
      * is in effect. The solution is to keep the fields thread safe on their
-     * own. This is accomplished by wrapping them in Collections.synchronized*
-     * to provide atomic add/remove operations, and synchronizing on them when
-     * iterating or performing multiple mutations. See bug report RH976833. On
+     * own. This is accomplished by using copy-on-write and concurrent
+     * collections, which provide atomic add/remove operations and iterate over
+     * a snapshot, so no thread waits for a jar another thread is downloading
+     * while iterating over them. See bug report RH976833. On
      * some systems this bug will manifest itself as deadlock on every webpage
      * with more than one Java applet, potentially also causing the browser
      * process to hang. More information in the mailing list archives:
      * http://mail.openjdk.java.net/pipermail/distro-pkg-dev/2013-September/024536.html
      * <p>
-     * Affected fields: available, classpaths, jarIndexes, jarEntries,
+     * Affected fields: available, classpaths, jarIndexes,
      * jarLocationSecurityMap
      */
     @Override
     public Class<?> loadClass(final String name) throws ClassNotFoundException {
         final List<ExceptionalSupplier<Class<?>, ClassNotFoundException>> list = new ArrayList<>();
         synchronized (getClassLoadingLock(name)) {
+            if (missingClasses.isKnownMiss(name)) {
+                LOG.debug("Class {} is known to be missing, lookups saved: {}", name, missingClasses.getSavedLookups());
+                throw new ClassNotFoundException(name);
+            }
+            final long generation = NegativeLookupCache.currentGeneration();
             list.add(() -> findLoadedClassAll(name));
             list.add(() -> loadClassFromParentClassloader(name));
             list.add(() -> loadClassExt(name));
@@ -1446,7 +1509,10 @@ public class JNLPClassLoader extends URLClassLoader {
                     .map(ExceptionalSupplier::getResultOfCallOrNull)
                     .filter(Objects::nonNull)
                     .findFirst()
-                    .orElseThrow(() -> new ClassNotFoundException(name));
+                    .orElseThrow(() -> {
+                        missingClasses.addMiss(name, generation);
+                        return new ClassNotFoundException(name);
+                    });
         }
     }
 
@@ -1462,19 +1528,16 @@ public class JNLPClassLoader extends URLClassLoader {
     private Class<?> loadClassFromInternalManifestClasspath(final String name) throws ClassNotFoundException {
         // Look in 'Class-Path' as specified in the manifest file
 
-        // This field synchronized before iterating over it since it may
-        // be shared data between threads
-        synchronized (classpaths) {
-            for (String classpath : classpaths) {
-                JARDesc desc;
-                try {
-                    URL jarUrl = new URL(file.getCodeBase(), classpath);
-                    desc = new JARDesc(jarUrl, null, null, false, true, false, true);
-                } catch (MalformedURLException mfe) {
-                    throw new ClassNotFoundException(name, mfe);
-                }
-                addNewJar(desc);
+        // This field may be shared data between threads, iterating works on a snapshot
+        for (String classpath : classpaths) {
+            JARDesc desc;
+            try {
+                URL jarUrl = new URL(file.getCodeBase(), classpath);
+                desc = new JARDesc(jarUrl, null, null, false, true, false, true);
+            } catch (MalformedURLException mfe) {
+                throw new ClassNotFoundException(name, mfe);
             }
+            addNewJar(desc);
         }
 
         return loadClassExt(name);
@@ -1484,27 +1547,24 @@ public class JNLPClassLoader extends URLClassLoader {
         // As a last resort, look in any available indexes
         // Currently this loads jars directly from the site. We cannot cache it because this
         // call is initiated from within the applet, which does not have disk read/write permissions
-        // This field synchronized before iterating over it since it may
-        // be shared data between threads
-        synchronized (jarIndexes) {
-            for (JarIndexAccess index : jarIndexes) {
-                // Non-generic code in sun.misc.JarIndex
-                LinkedList<String> jarList = index.get(name.replace('.', '/'));
-
-                if (jarList != null) {
-                    for (String jarName : jarList) {
-                        try {
-                            final JARDesc desc = new JARDesc(new URL(file.getCodeBase(), jarName),
-                                    null, null, false, true, false, true);
-                            addNewJar(desc);
-                        } catch (MalformedURLException mfe) {
-                            LOG.debug("encountered invalid URL for {} - {}", file.getCodeBase(), jarName);
-                        }
+        // This field may be shared data between threads, iterating works on a snapshot
+        for (JarIndexAccess index : jarIndexes) {
+            // Non-generic code in sun.misc.JarIndex
+            LinkedList<String> jarList = index.get(name.replace('.', '/'));
+
+            if (jarList != null) {
+                for (String jarName : jarList) {
+                    try {
+                        final JARDesc desc = new JARDesc(new URL(file.getCodeBase(), jarName),
+                                null, null, false, true, false, true);
+                        addNewJar(desc);
+                    } catch (MalformedURLException mfe) {
+                        LOG.debug("encountered invalid URL for {} - {}", file.getCodeBase(), jarName);
                     }
-
-                    // If it still fails, let it error out
-                    return loadClassExt(name);
                 }
+
+                // If it still fails, let it error out
+                return loadClassExt(name);
             }
         }
         throw new ClassNotFoundException(name);
@@ -1565,7 +1625,7 @@ public class JNLPClassLoader extends URLClassLoader {
 
                 final SecurityDesc security = securityDelegate.getJarPermissions(file.getCodeBase());
 
-                jarLocationSecurityMap.put(remoteURL, security);
+                putCodeSourceSecurity(remoteURL, security);
 
                 return null;
             });
@@ -1582,6 +1642,15 @@ public class JNLPClassLoader extends URLClassLoader {
         }
     }
 
+    /**
+     * Adds the URL to the classloader and invalidates the names known to be missing.
+     */
+    @Override
+    protected void addURL(URL url) {
+        super.addURL(url);
+        NegativeLookupCache.invalidateAll();
+    }
+
     /**
      * Find the class in this loader or any of its extension loaders.
      */
@@ -1632,7 +1701,7 @@ public class JNLPClassLoader extends URLClassLoader {
             JNLPClassLoader addedTo;
 
             try {
-                addedTo = addNextResource();
+                addedTo = addNextResource(name);
             } catch (LaunchException e) {
 
                 /*
@@ -1687,6 +1756,11 @@ public class JNLPClassLoader extends URLClassLoader {
      */
     @Override
     public Enumeration<URL> findResources(String name) throws IOException {
+        if (missingResources.isKnownMiss(name)) {
+            LOG.debug("Resource {} is known to be missing, lookups saved: {}", name, missingResources.getSavedLookups());
+            return Collections.emptyEnumeration();
+        }
+        final long generation = NegativeLookupCache.currentGeneration();
         Enumeration<URL> lresources = findResourcesBySearching(name);
 
         try {
@@ -1698,6 +1772,9 @@ public class JNLPClassLoader extends URLClassLoader {
             LOG.error("Failed to load resources", le);
         }
 
+        if (!lresources.hasMoreElements()) {
+            missingResources.addMiss(name, generation);
+        }
         return lresources;
     }
 
@@ -1794,9 +1871,96 @@ public class JNLPClassLoader extends URLClassLoader {
         return this;
     }
 
+    /**
+     * Adds the next unused resource which may contain the given class to the
+     * classloader. Jars known not to contain the package of the class are
+     * skipped. Jars of a part declared for the class by a package element of
+     * the JNLP file are added first.
+     *
+     * @param className the name of the class to find
+     * @return the classloader that resources were added to, or null
+     * @throws LaunchException Thrown if the signed JNLP file, within the main
+     *                         jar, fails to be verified or does not match
+     */
+    private JNLPClassLoader addNextResource(final String className) throws LaunchException {
+        final Optional<JARDesc> nextJar = getNextJarFor(className);
+        if (!nextJar.isPresent()) {
+            for (int i = 1; i < loaders.length; i++) {
+                JNLPClassLoader result = loaders[i].addNextResource(className);
+
+                if (result != null) {
+                    return result;
+                }
+            }
+            return null;
+        }
+
+        final List<JARDesc> jars = getNextJarsToLoad(nextJar.get());
+
+        checkForMain(jars);
+        activateJars(jars);
+
+        return this;
+    }
+
+    /**
+     * Returns the next jar which may contain the class. If the package of the class is declared for a part,
+     * only the jars of that part are considered. Otherwise a jar is only considered if its packages may contain
+     * the class, which waits for the jar to be downloaded.
+     */
+    private Optional<JARDesc> getNextJarFor(final String className) {
+        final Set<String> declaredParts = Stream.of(resources.getPackages(className))
+                .map(PackageDesc::getPart)
+                .collect(Collectors.toSet());
+        if (!declaredParts.isEmpty()) {
+            return available.stream()
+                    .filter(jar -> declaredParts.contains(jar.getPart()))
+                    .filter(jar -> !tracker.checkResource(jar.getLocation()) || mayContainClass(jar, className))
+                    .findFirst();
+        }
+        return available.stream()
+                .filter(jar -> mayContainClass(jar, className))
+                .findFirst();
+    }
+
+    private boolean mayContainClass(final JARDesc jar, final String className) {
+        final URL location = jar.getLocation();
+        JarPackageIndex index = packageIndexes.get(location);
+        if (index == null) {
+            // not in computeIfAbsent as this may wait for the download of the jar
+            index = AccessController.doPrivileged((PrivilegedAction<JarPackageIndex>) () -> getPackageIndex(location), acc);
+            if (index != null) {
+                packageIndexes.putIfAbsent(location, index);
+            }
+        }
+        return index == null || index.mayContainClass(className);
+    }
+
+    /**
+     * Returns the package index of a jar, waiting for its download. It is derived
+     * from the metadata of the jar which is stored next to the cached jar.
+     *
+     * @return the index or null if it cannot be determined
+     */
+    private JarPackageIndex getPackageIndex(final URL location) {
+        final File jarFile = tracker.getCacheFile(location);
+        if (jarFile == null) {
+            return null;
+        }
+
+        try {
+            return JarPackageIndex.of(JarMetadata.of(jarFile));
+        } catch (IOException e) {
+            LOG.debug("Failed to read the packages of {}: {}", jarFile, e.getMessage());
+            return null;
+        }
+    }
+
     private List<JARDesc> getNextJarsToLoad() {
-        final JARDesc nextJar = available.get(0);
+        return getNextJarsToLoad(available.get(0));
+    }
 
+    private List<JARDesc> getNextJarsToLoad(final JARDesc nextJar) {
         final LinkedHashSet<JARDesc> result = new LinkedHashSet<>();
         result.add(nextJar);
         result.addAll(getAllAvailableJarsInPart(nextJar.getPart()));
@@ -1846,18 +2010,21 @@ public class JNLPClassLoader extends URLClassLoader {
      */
     private SecurityDesc getCodeSourceSecurity(URL source) {
         SecurityDesc sec = jarLocationSecurityMap.get(source);
-        synchronized (alreadyTried) {
-            if (sec == null && !alreadyTried.contains(source)) {
-                alreadyTried.add(source);
-                //try to load the jar which is requesting the permissions, but was NOT downloaded by standard way
-                LOG.info("Application is trying to get permissions for {}, which was not added by standard way. Trying to download and verify!", source.toString());
-                try {
-                    JARDesc des = new JARDesc(source, null, null, false, false, false, false);
-                    addNewJar(des);
-                    sec = jarLocationSecurityMap.get(source);
-                } catch (Throwable t) {
-                    LOG.error("Error while getting security", t);
-                    sec = null;
+        if (sec == null) {
+            synchronized (alreadyTried) {
+                sec = jarLocationSecurityMap.get(source);
+                if (sec == null && !alreadyTried.contains(source)) {
+                    alreadyTried.add(source);
+                    //try to load the jar which is requesting the permissions, but was NOT downloaded by standard way
+                    LOG.info("Application is trying to get permissions for {}, which was not added by standard way. Trying to download and verify!", source.toString());
+                    try {
+                        JARDesc des = new JARDesc(source, null, null, false, false, false, false);
+                        addNewJar(des);
+                        sec = jarLocationSecurityMap.get(source);
+                    } catch (Throwable t) {
+                        LOG.error("Error while getting security", t);
+                        sec = null;
+                    }
                 }
             }
         }
@@ -1867,6 +2034,16 @@ public class JNLPClassLoader extends URLClassLoader {
         return sec;
     }
 
+    /**
+     * Records the security descriptor of a code source URL. A missing descriptor
+     * is not recorded, which is the same as an unknown code source.
+     */
+    private void putCodeSourceSecurity(final URL location, final SecurityDesc security) {
+        if (security != null) {
+            jarLocationSecurityMap.put(location, security);
+        }
+    }
+
     /**
      * Merges the code source/security descriptor mapping from another loader
      *
@@ -1898,11 +2075,7 @@ public class JNLPClassLoader extends URLClassLoader {
         nativeLibraryStorage.addSearchDirectories(extLoader.nativeLibraryStorage.getSearchDirectories());
 
         // security descriptors
-        synchronized (jarLocationSecurityMap) {
-            for (URL key : extLoader.jarLocationSecurityMap.keySet()) {
-                jarLocationSecurityMap.put(key, extLoader.jarLocationSecurityMap.get(key));
-            }
-        }
+        jarLocationSecurityMap.putAll(extLoader.jarLocationSecurityMap);
     }
 
     /**
@@ -1928,6 +2101,7 @@ public class JNLPClassLoader extends URLClassLoader {
         } else {
             codeBaseLoader.addURL(u);
         }
+        NegativeLookupCache.invalidateAll();
     }
 
 
@@ -2100,11 +2274,9 @@ public class JNLPClassLoader extends URLClassLoader {
         }
 
         // Permissions for all remote hosting urls
-        synchronized (jarLocationSecurityMap) {
-            for (URL u : jarLocationSecurityMap.keySet()) {
-                permissions.add(new SocketPermission(UrlUtils.getHostAndPort(u),
-                        "connect, accept"));
-            }
+        for (URL u : jarLocationSecurityMap.keySet()) {
+            permissions.add(new SocketPermission(UrlUtils.getHostAndPort(u),
+                    "connect, accept"));
         }
 
         // Permissions for codebase urls (if there is a loader)
@@ -0,0 +1,47 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import net.sourceforge.jnlp.cache.JarMetadata;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * The packages containing the classes of a jar.
+ * Used to skip lazy jars which cannot contain a requested class. A jar which may make further
+ * classes available when it is activated (nested jars, a manifest class path or a jar index)
+ * is unrestricted and may contain any class.
+ */
+class JarPackageIndex {
+
+    private static final JarPackageIndex UNRESTRICTED = new JarPackageIndex(true, Collections.emptySet());
+
+    private final boolean unrestricted;
+    private final Set<String> packages;
+
+    private JarPackageIndex(boolean unrestricted, Set<String> packages) {
+        this.unrestricted = unrestricted;
+        this.packages = packages;
+    }
+
+    /**
+     * @return whether the jar may contain the class with the given name
+     */
+    boolean mayContainClass(final String className) {
+        return unrestricted || packages.contains(getPackageName(className));
+    }
+
+    static String getPackageName(final String className) {
+        final int lastDot = className.lastIndexOf('.');
+        return lastDot < 0 ? "" : className.substring(0, lastDot);
+    }
+
+    /**
+     * Creates the index from the metadata of a jar.
+     */
+    static JarPackageIndex of(final JarMetadata metadata) {
+        if (metadata.hasClassPath() || metadata.hasJarIndex() || !metadata.getNestedJars().isEmpty()) {
+            return UNRESTRICTED;
+        }
+        return new JarPackageIndex(false, metadata.getPackages());
+    }
+}
@@ -0,0 +1,87 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of class or resource names which could not be found by a classloader.
+ * All caches are invalidated by {@link #invalidateAll()} whenever any classloader gets
+ * new jars, as a class not found before may now be found through an extension loader too.
+ * A miss is only recorded if no jars have been added while looking up the name.
+ */
+class NegativeLookupCache {
+
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private final int maxSize;
+    private final Map<String, Boolean> names;
+    private final AtomicLong savedLookups = new AtomicLong();
+    private long generation = GENERATION.get();
+
+    NegativeLookupCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.names = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > NegativeLookupCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Invalidates all caches. To be called after a classloader got new jars.
+     */
+    static void invalidateAll() {
+        GENERATION.incrementAndGet();
+    }
+
+    /**
+     * @return the current generation to pass to {@link #addMiss(String, long)} after the lookup
+     */
+    static long currentGeneration() {
+        return GENERATION.get();
+    }
+
+    /**
+     * @return whether the name is known to be missing
+     */
+    synchronized boolean isKnownMiss(final String name) {
+        clearIfInvalidated();
+        if (names.get(name) != null) {
+            savedLookups.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records the name as missing unless the caches have been invalidated since the given generation.
+     */
+    synchronized void addMiss(final String name, final long lookupGeneration) {
+        clearIfInvalidated();
+        if (lookupGeneration == generation) {
+            names.put(name, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * @return the number of lookups answered from this cache
+     */
+    long getSavedLookups() {
+        return savedLookups.get();
+    }
+
+    synchronized int size() {
+        clearIfInvalidated();
+        return names.size();
+    }
+
+    private void clearIfInvalidated() {
+        final long current = GENERATION.get();
+        if (generation != current) {
+            names.clear();
+            generation = current;
+        }
+    }
+}
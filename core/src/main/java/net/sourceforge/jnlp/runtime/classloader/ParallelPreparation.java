@@ -0,0 +1,78 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.createFixedDaemonThreadPool;
+
+/**
+ * Prepares items concurrently and then creates their results one after the other in the order of the items.
+ * An item whose preparation or creation fails is reported and left out, the other items are still created.
+ */
+class ParallelPreparation {
+
+    private ParallelPreparation() {
+        // do not instantiate
+    }
+
+    /**
+     * @param items       the items in the order of their results
+     * @param maxParallel the maximum number of items prepared at the same time
+     * @param preparer    prepares one item on a pool thread
+     * @param creator     creates the result of one item from its preparation on the calling thread
+     * @param onFailure   is told about every item which failed
+     * @return the results of the items which did not fail, in the order of the items
+     */
+    static <E, P, R> List<R> run(final List<E> items, final int maxParallel, final Preparer<E, P> preparer,
+                                 final Creator<E, P, R> creator, final BiConsumer<E, Exception> onFailure) {
+        final List<R> results = new ArrayList<>();
+        if (items.isEmpty()) {
+            return results;
+        }
+        final ExecutorService executor = createFixedDaemonThreadPool(Math.min(items.size(), maxParallel));
+        try {
+            final List<Future<P>> preparations = items.stream()
+                    .map(item -> executor.submit(() -> preparer.prepare(item)))
+                    .collect(Collectors.toList());
+            for (int i = 0; i < items.size(); i++) {
+                final E item = items.get(i);
+                try {
+                    results.add(creator.create(item, getResult(preparations.get(i))));
+                } catch (Exception e) {
+                    onFailure.accept(item, e);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return results;
+    }
+
+    private static <T> T getResult(final Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    interface Preparer<E, P> {
+        P prepare(E item) throws Exception;
+    }
+
+    interface Creator<E, P, R> {
+        R create(E item, P prepared) throws Exception;
+    }
+}
@@ -29,8 +29,11 @@ import net.adoptopenjdk.icedteaweb.jnlp.element.resource.JARDesc;
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
 import net.adoptopenjdk.icedteaweb.resources.ResourceTracker;
+import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
 import net.sourceforge.jnlp.JNLPFile;
 import net.sourceforge.jnlp.LaunchException;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
 import net.sourceforge.jnlp.runtime.classloader.SecurityDelegate;
 import net.sourceforge.jnlp.security.AppVerifier;
 import net.sourceforge.jnlp.security.CertVerifier;
@@ -60,11 +63,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.jar.JarEntry;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import java.util.zip.ZipException;
 
 import static java.time.temporal.ChronoUnit.MONTHS;
+import static net.adoptopenjdk.icedteaweb.resources.DaemonThreadPoolProvider.createFixedDaemonThreadPool;
 
 /**
  * The jar certificate verifier utility.
@@ -79,6 +87,7 @@ public class JarCertVerifier implements CertVerifier {
 
     private static final String META_INF = "META-INF/";
     private static final Pattern SIG = Pattern.compile(".*" + META_INF + "SIG-.*");
+    private static final String SIGNATURES_SIDECAR_NAME = "signatures";
 
     enum VerifyResult {
         UNSIGNED, SIGNED_OK, SIGNED_NOT_OK
@@ -233,7 +242,7 @@ public class JarCertVerifier implements CertVerifier {
      * @throws Exception Caused by issues with obtaining the jars' entries or interacting with the tracker.
      */
     private void verifyJars(final List<JARDesc> jars, final ResourceTracker tracker) throws Exception {
-
+        final List<String> jarPaths = new ArrayList<>();
         for (JARDesc jar : jars) {
             final File jarFile = tracker.getCacheFile(jar.getLocation());
 
@@ -244,17 +253,30 @@ public class JarCertVerifier implements CertVerifier {
             }
 
             final String jarPath = jarFile.getCanonicalFile().getAbsolutePath();
-            if (verifiedJars.contains(jarPath) || unverifiedJars.contains(jarPath)) {
+            if (verifiedJars.contains(jarPath) || unverifiedJars.contains(jarPath) || jarPaths.contains(jarPath)) {
                 continue;
             }
+            jarPaths.add(jarPath);
+        }
 
-            final VerifyResult result = verifyJar(jarPath);
-            if (result == VerifyResult.UNSIGNED) {
-                unverifiedJars.add(jarPath);
-            } else if (result == VerifyResult.SIGNED_NOT_OK) {
-                verifiedJars.add(jarPath);
-            } else if (result == VerifyResult.SIGNED_OK) {
-                verifiedJars.add(jarPath);
+        final int numThreads = Math.min(jarPaths.size(), Runtime.getRuntime().availableProcessors());
+        if (numThreads <= 1) {
+            for (String jarPath : jarPaths) {
+                addVerifiedJar(jarPath, getSignatures(jarPath));
+            }
+        } else {
+            // reading the signatures is CPU bound and independent for each jar.
+            // The results are merged in the order of the jars to keep the outcome deterministic.
+            final ExecutorService executor = createFixedDaemonThreadPool(numThreads);
+            try {
+                final List<Future<JarSignatures>> futures = jarPaths.stream()
+                        .map(jarPath -> executor.submit(() -> getSignatures(jarPath)))
+                        .collect(Collectors.toList());
+                for (int i = 0; i < jarPaths.size(); i++) {
+                    addVerifiedJar(jarPaths.get(i), getResult(futures.get(i)));
+                }
+            } finally {
+                executor.shutdownNow();
             }
         }
 
@@ -263,13 +285,65 @@ public class JarCertVerifier implements CertVerifier {
         }
     }
 
+    private void addVerifiedJar(final String jarPath, final JarSignatures signatures) {
+        final VerifyResult result = verifySignatures(jarPath, signatures);
+        if (result == VerifyResult.UNSIGNED) {
+            unverifiedJars.add(jarPath);
+        } else if (result == VerifyResult.SIGNED_NOT_OK) {
+            verifiedJars.add(jarPath);
+        } else if (result == VerifyResult.SIGNED_OK) {
+            verifiedJars.add(jarPath);
+        }
+    }
+
+    private static JarSignatures getResult(final Future<JarSignatures> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Collects the signers of all the jar entries of jarName.
+     * The signers found in a cached jar are stored next to it, see {@link JarSignatures}.
+     *
+     * @param jarPath The absolute path to the jar file.
+     * @return The signers found in the jar located at jarName.
+     */
+    private static JarSignatures getSignatures(final String jarPath) {
+        final File jar = new File(jarPath);
+        final Optional<File> storeFile = getSignaturesStoreFile(jar);
+        final Optional<JarSignatures> storedSignatures = storeFile.flatMap(file -> JarSignatures.load(file, jar));
+        if (storedSignatures.isPresent()) {
+            LOG.debug("Using stored signatures of {}", jarPath);
+            return storedSignatures.get();
+        }
+
+        final JarSignatures signatures = readSignatures(jarPath);
+        storeFile.ifPresent(file -> signatures.store(file, jar));
+        return signatures;
+    }
+
+    private static Optional<File> getSignaturesStoreFile(final File jar) {
+        final boolean enabled = JNLPRuntime.getConfiguration().getSnapshot().getBoolean(ConfigurationConstants.KEY_SECURITY_STORE_JAR_SIGNATURES);
+        return enabled ? Cache.getSidecarFile(jar, SIGNATURES_SIDECAR_NAME) : Optional.empty();
+    }
+
     /**
-     * Checks through all the jar entries of jarName for signers, storing all the common ones in the certs hash map.
+     * Reads all the jar entries of jarName to trigger the signature checks and collects the signers.
      *
      * @param jarPath The absolute path to the jar file.
-     * @return The return of {@link JarCertVerifier#verifyJarEntryCerts} using the entries found in the jar located at jarName.
+     * @return the signers found in the jar
      */
-    private VerifyResult verifyJar(final String jarPath) {
+    private static JarSignatures readSignatures(final String jarPath) {
         try (final JarFile jarFile = new JarFile(jarPath)) {
             final List<JarEntry> entries = new ArrayList<>();
             final byte[] buffer = new byte[8192];
@@ -287,7 +361,7 @@ public class JarCertVerifier implements CertVerifier {
                     }
                 }
             }
-            return verifyJarEntryCerts(jarPath, jarFile.getManifest() != null, entries);
+            return JarSignatures.of(jarFile.getManifest() != null, entries);
         } catch (ZipException e) {
             final File corruptedFile = new File(jarPath);
             if (corruptedFile.exists()) {
@@ -320,34 +394,23 @@ public class JarCertVerifier implements CertVerifier {
      * @throws RuntimeException Will be thrown if there are issues with entries.
      */
     VerifyResult verifyJarEntryCerts(final String jarPath, final boolean jarHasManifest, final List<JarEntry> entries) {
-        // Contains number of entries the cert with this CertPath has signed.
-        final Map<CertPath, Integer> jarSignCount = new HashMap<>();
-        final Map<CertPath, CodeSigner> codeSigners = new HashMap<>();
-        int numSignableEntriesInJar = 0;
+        return verifySignatures(jarPath, JarSignatures.of(jarHasManifest, entries));
+    }
+
+    /**
+     * Checks the signers of a jar, storing all the common ones in the certs hash map.
+     *
+     * @param jarPath    The absolute path to the jar file.
+     * @param signatures The signers found in the jar.
+     * @return see {@link #verifyJarEntryCerts(String, boolean, List)}
+     */
+    private VerifyResult verifySignatures(final String jarPath, final JarSignatures signatures) {
+        final Map<CertPath, Integer> jarSignCount = signatures.getSignCount();
+        final int numSignableEntriesInJar = signatures.getNumSignableEntries();
 
         // Record current time just before checking the jar begins.
         final ZonedDateTime now = ZonedDateTime.now();
         final ZonedDateTime expiresSoon = now.plus(6, MONTHS);
-        if (jarHasManifest) {
-            for (JarEntry je : entries) {
-                final boolean shouldHaveSignature = !je.isDirectory() && !isMetaInfFile(je.getName());
-                if (shouldHaveSignature) {
-                    numSignableEntriesInJar++;
-                    final CodeSigner[] signers = je.getCodeSigners();
-                    if (signers != null) {
-                        for (final CodeSigner signer : signers) {
-                            final CertPath certPath = signer.getSignerCertPath();
-                            codeSigners.put(certPath, signer);
-                            jarSignCount.putIfAbsent(certPath, 0);
-                            jarSignCount.computeIfPresent(certPath, (cp, count) -> count + 1);
-                        }
-                    }
-                }
-            }
-        } else {
-            // set to 1 so that unsigned jars with no manifests can't sneak in
-            numSignableEntriesInJar = 1;
-        }
 
         jarSignableEntries.put(jarPath, numSignableEntriesInJar);
 
@@ -368,7 +431,7 @@ public class JarCertVerifier implements CertVerifier {
                     final ZonedDateTime notBefore = zonedDateTime(((X509Certificate) cert).getNotBefore());
                     final ZonedDateTime notAfter = zonedDateTime(((X509Certificate) cert).getNotAfter());
 
-                    final Optional<Timestamp> optionalTsa = Optional.ofNullable(codeSigners.get(certPath))
+                    final Optional<Timestamp> optionalTsa = signatures.getCodeSigner(certPath)
                             .map(CodeSigner::getTimestamp);
 
                     final X509Certificate tsaCertificate = (X509Certificate) optionalTsa
@@ -0,0 +1,199 @@
+package net.sourceforge.jnlp.tools;
+
+import net.adoptopenjdk.icedteaweb.logging.Logger;
+import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.sourceforge.jnlp.cache.CachedJarStamp;
+import net.sourceforge.jnlp.util.AtomicFiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.CodeSigner;
+import java.security.GeneralSecurityException;
+import java.security.Timestamp;
+import java.security.cert.CertPath;
+import java.security.cert.CertificateFactory;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.jar.JarEntry;
+
+import static net.sourceforge.jnlp.tools.JarCertVerifier.isMetaInfFile;
+
+/**
+ * The signers of a jar as found by reading all its entries.
+ * Reading the entries is the expensive part of the jar verification. The result does not depend on
+ * the trust settings of the user, so it can be stored next to the jar, see {@link CachedJarStamp}.
+ */
+class JarSignatures {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JarSignatures.class);
+
+    private static final String FORMAT_VERSION = "2";
+    private static final String CERT_PATH_ENCODING = "PkiPath";
+
+    private static final String KEY_HAS_MANIFEST = "manifest";
+    private static final String KEY_SIGNABLE_ENTRIES = "signableEntries";
+    private static final String KEY_SIGNERS = "signers";
+    private static final String SIGNER_PREFIX = "signer.";
+    private static final String KEY_TYPE = ".type";
+    private static final String KEY_CERT_PATH = ".certPath";
+    private static final String KEY_SIGNED_ENTRIES = ".signedEntries";
+    private static final String KEY_TIMESTAMP = ".timestamp";
+    private static final String KEY_TSA_TYPE = ".tsa.type";
+    private static final String KEY_TSA_CERT_PATH = ".tsa.certPath";
+
+    private final boolean hasManifest;
+    private final int numSignableEntries;
+
+    /**
+     * Contains number of entries the cert with this CertPath has signed.
+     */
+    private final Map<CertPath, Integer> signCount;
+    private final Map<CertPath, CodeSigner> codeSigners;
+
+    private JarSignatures(boolean hasManifest, int numSignableEntries, Map<CertPath, Integer> signCount, Map<CertPath, CodeSigner> codeSigners) {
+        this.hasManifest = hasManifest;
+        this.numSignableEntries = numSignableEntries;
+        this.signCount = signCount;
+        this.codeSigners = codeSigners;
+    }
+
+    /**
+     * Collects the signers of the given entries. The entries must have been read completely before.
+     */
+    static JarSignatures of(final boolean jarHasManifest, final List<JarEntry> entries) {
+        if (!jarHasManifest) {
+            // set to 1 so that unsigned jars with no manifests can't sneak in
+            return new JarSignatures(false, 1, Collections.emptyMap(), Collections.emptyMap());
+        }
+
+        final Map<CertPath, Integer> signCount = new HashMap<>();
+        final Map<CertPath, CodeSigner> codeSigners = new HashMap<>();
+        int numSignableEntries = 0;
+        for (JarEntry je : entries) {
+            final boolean shouldHaveSignature = !je.isDirectory() && !isMetaInfFile(je.getName());
+            if (shouldHaveSignature) {
+                numSignableEntries++;
+                final CodeSigner[] signers = je.getCodeSigners();
+                if (signers != null) {
+                    for (final CodeSigner signer : signers) {
+                        final CertPath certPath = signer.getSignerCertPath();
+                        codeSigners.put(certPath, signer);
+                        signCount.merge(certPath, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+        return new JarSignatures(true, numSignableEntries, signCount, codeSigners);
+    }
+
+    int getNumSignableEntries() {
+        return numSignableEntries;
+    }
+
+    Map<CertPath, Integer> getSignCount() {
+        return signCount;
+    }
+
+    Optional<CodeSigner> getCodeSigner(CertPath certPath) {
+        return Optional.ofNullable(codeSigners.get(certPath));
+    }
+
+    /**
+     * Loads the signatures stored for the given jar.
+     *
+     * @return the signatures or empty if nothing has been stored or the jar has changed since
+     */
+    static Optional<JarSignatures> load(final File storeFile, final File jar) {
+        if (!storeFile.isFile()) {
+            return Optional.empty();
+        }
+        final Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(storeFile.toPath())) {
+            properties.load(in);
+        } catch (IOException e) {
+            LOG.debug("Failed to read stored signatures {}: {}", storeFile, e.getMessage());
+            return Optional.empty();
+        }
+
+        if (!CachedJarStamp.matches(properties, FORMAT_VERSION, jar)) {
+            LOG.debug("Stored signatures {} do not match {}", storeFile, jar);
+            return Optional.empty();
+        }
+
+        try {
+            final int numSigners = Integer.parseInt(properties.getProperty(KEY_SIGNERS));
+            final Map<CertPath, Integer> signCount = new HashMap<>();
+            final Map<CertPath, CodeSigner> codeSigners = new HashMap<>();
+            for (int i = 0; i < numSigners; i++) {
+                final String prefix = SIGNER_PREFIX + i;
+                final CertPath certPath = decodeCertPath(properties.getProperty(prefix + KEY_TYPE), properties.getProperty(prefix + KEY_CERT_PATH));
+                signCount.put(certPath, Integer.parseInt(properties.getProperty(prefix + KEY_SIGNED_ENTRIES)));
+
+                Timestamp timestamp = null;
+                final String timestampValue = properties.getProperty(prefix + KEY_TIMESTAMP);
+                if (timestampValue != null) {
+                    final CertPath tsaCertPath = decodeCertPath(properties.getProperty(prefix + KEY_TSA_TYPE), properties.getProperty(prefix + KEY_TSA_CERT_PATH));
+                    timestamp = new Timestamp(new Date(Long.parseLong(timestampValue)), tsaCertPath);
+                }
+                codeSigners.put(certPath, new CodeSigner(certPath, timestamp));
+            }
+            final boolean hasManifest = Boolean.parseBoolean(properties.getProperty(KEY_HAS_MANIFEST));
+            final int numSignableEntries = Integer.parseInt(properties.getProperty(KEY_SIGNABLE_ENTRIES));
+            return Optional.of(new JarSignatures(hasManifest, numSignableEntries, signCount, codeSigners));
+        } catch (RuntimeException | GeneralSecurityException e) {
+            LOG.debug("Failed to decode stored signatures {}: {}", storeFile, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the signatures of the given jar. Failures are logged and otherwise ignored.
+     */
+    void store(final File storeFile, final File jar) {
+        final Properties properties = new Properties();
+        CachedJarStamp.write(properties, FORMAT_VERSION, jar);
+        properties.setProperty(KEY_HAS_MANIFEST, Boolean.toString(hasManifest));
+        properties.setProperty(KEY_SIGNABLE_ENTRIES, Integer.toString(numSignableEntries));
+        properties.setProperty(KEY_SIGNERS, Integer.toString(signCount.size()));
+
+        try {
+            int i = 0;
+            for (Map.Entry<CertPath, Integer> entry : signCount.entrySet()) {
+                final String prefix = SIGNER_PREFIX + i++;
+                final CertPath certPath = entry.getKey();
+                properties.setProperty(prefix + KEY_TYPE, certPath.getType());
+                properties.setProperty(prefix + KEY_CERT_PATH, encodeCertPath(certPath));
+                properties.setProperty(prefix + KEY_SIGNED_ENTRIES, Integer.toString(entry.getValue()));
+
+                final Timestamp timestamp = getCodeSigner(certPath).map(CodeSigner::getTimestamp).orElse(null);
+                if (timestamp != null) {
+                    properties.setProperty(prefix + KEY_TIMESTAMP, Long.toString(timestamp.getTimestamp().getTime()));
+                    properties.setProperty(prefix + KEY_TSA_TYPE, timestamp.getSignerCertPath().getType());
+                    properties.setProperty(prefix + KEY_TSA_CERT_PATH, encodeCertPath(timestamp.getSignerCertPath()));
+                }
+            }
+
+            AtomicFiles.write(storeFile, out -> properties.store(out, "Signers of " + jar.getName()));
+        } catch (IOException | GeneralSecurityException e) {
+            LOG.debug("Failed to store signatures of {}: {}", jar, e.getMessage());
+        }
+    }
+
+    private static String encodeCertPath(final CertPath certPath) throws GeneralSecurityException {
+        return Base64.getEncoder().encodeToString(certPath.getEncoded(CERT_PATH_ENCODING));
+    }
+
+    private static CertPath decodeCertPath(final String type, final String encoded) throws GeneralSecurityException {
+        final byte[] bytes = Base64.getDecoder().decode(encoded);
+        return CertificateFactory.getInstance(type).generateCertPath(new ByteArrayInputStream(bytes), CERT_PATH_ENCODING);
+    }
+}
@@ -0,0 +1,62 @@
+package net.sourceforge.jnlp.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Replaces files so that concurrent readers see either the old or the new content, never a partially written file.
+ */
+public final class AtomicFiles {
+
+    private AtomicFiles() {
+        // utility class
+    }
+
+    /**
+     * Writes the content to a temporary file next to the target and then moves it over the target.
+     * The target is left untouched if writing fails.
+     *
+     * @param target the file to replace, its parent directory must exist
+     * @param writer writes the new content
+     * @throws IOException if the content could not be written or moved into place
+     */
+    public static void write(final File target, final ContentWriter writer) throws IOException {
+        // unique name as several processes may replace the same file at the same time
+        final File tempFile = Files.createTempFile(target.getAbsoluteFile().getParentFile().toPath(), target.getName(), ".tmp").toFile();
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile.toPath()))) {
+                writer.write(out);
+            }
+            move(tempFile, target);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * Moves the source over the target, atomically if the file system supports it.
+     *
+     * @param source the file to move
+     * @param target the file to replace
+     * @throws IOException if the file could not be moved
+     */
+    public static void move(final File source, final File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), REPLACE_EXISTING);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ContentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+}
@@ -40,4 +40,12 @@ import net.sourceforge.jnlp.util.logging.headers.MessageWithHeader;
  */
 public interface BasicOutputController {
     void log(final MessageWithHeader l);
+
+    /**
+     * @param level the level of a message
+     * @return false if messages of this level would be thrown away, so they need not be created at all
+     */
+    default boolean isLoggable(final OutputControllerLevel level) {
+        return true;
+    }
 }
@@ -65,7 +65,8 @@ public class OutputController implements BasicOutputController {
     //itw logger have to be fully initialised before start
     private final Thread consumerThread = new Thread(new MessageQueConsumer(), "Output controller consumer daemon");
     private final Thread shutdownThread = new Thread(this::shutdownLogging);
-    private boolean javaConsoleInitialized;
+    private volatile boolean javaConsoleInitialized;
+    private volatile boolean consumerStarted;
     private long pollingInterval = 1000;
 
     //bounded to instance
@@ -215,6 +216,7 @@ public class OutputController implements BasicOutputController {
 
     public void startConsumer() {
         initJavaConsole();
+        consumerStarted = true;
         consumerThread.start();
     }
 
@@ -237,6 +239,15 @@ public class OutputController implements BasicOutputController {
         this.inOutErrController = Assert.requireNonNull(inOutErrController, "inOutErrController");
     }
 
+    /**
+     * Debug messages are thrown away unless debugging is enabled or the java console shows them.
+     * Until the consumer is started the configuration is not known, so every message is kept.
+     */
+    @Override
+    public boolean isLoggable(final OutputControllerLevel level) {
+        return level != DEBUG || !consumerStarted || javaConsoleInitialized || JNLPRuntime.isDebug();
+    }
+
     @Override
     public synchronized void log(MessageWithHeader l) {
         messageQue.add(l);
@@ -47,7 +47,7 @@ public class OutputControllerLoggerFactory implements LoggerFactoryImpl {
 
         @Override
         public void debug(final String msg, final Object... arguments) {
-            log(DEBUG, expand(msg, arguments), null);
+            logExpanded(DEBUG, msg, arguments);
         }
 
         @Override
@@ -62,7 +62,7 @@ public class OutputControllerLoggerFactory implements LoggerFactoryImpl {
 
         @Override
         public void info(final String msg, final Object... arguments) {
-            log(INFO, expand(msg, arguments), null);
+            logExpanded(INFO, msg, arguments);
         }
 
         @Override
@@ -77,7 +77,7 @@ public class OutputControllerLoggerFactory implements LoggerFactoryImpl {
 
         @Override
         public void warn(final String msg, final Object... arguments) {
-            log(WARN, expand(msg, arguments), null);
+            logExpanded(WARN, msg, arguments);
         }
 
         @Override
@@ -92,7 +92,7 @@ public class OutputControllerLoggerFactory implements LoggerFactoryImpl {
 
         @Override
         public void error(final String msg, final Object... arguments) {
-            log(ERROR, expand(msg, arguments), null);
+            logExpanded(ERROR, msg, arguments);
         }
 
         @Override
@@ -101,6 +101,19 @@ public class OutputControllerLoggerFactory implements LoggerFactoryImpl {
         }
 
         private void log(final OutputControllerLevel level, final String msg, final Throwable t) {
+            if (outputController.isLoggable(level)) {
+                logMessage(level, msg, t);
+            }
+        }
+
+        private void logExpanded(final OutputControllerLevel level, final String msg, final Object[] arguments) {
+            if (outputController.isLoggable(level)) {
+                // expanded right away as the arguments may change before the message is printed
+                logMessage(level, expand(msg, arguments), null);
+            }
+        }
+
+        private void logMessage(final OutputControllerLevel level, final String msg, final Throwable t) {
             final Header header = new Header(level, caller);
             final MessageWithHeader message = new JavaMessage(header, msg, t);
             outputController.log(message);
@@ -37,19 +37,23 @@ import net.sourceforge.jnlp.util.logging.OutputController;
 import net.sourceforge.jnlp.util.logging.OutputControllerLevel;
 import net.sourceforge.jnlp.util.logging.TeeOutputStream;
 
-import java.text.SimpleDateFormat;
+import net.adoptopenjdk.icedteaweb.LazyLoaded;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
 
 public class Header {
 
-    private static final SimpleDateFormat TIMESTAMP_FORMATTER = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS z");
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS z");
     private static final String[] LOGGING_INFRASTRUCTURE_CLASSES = {OutputController.class.getName(), Header.class.getName(), TeeOutputStream.class.getName(), "sun.applet.PluginDebug"};
     private static final String DEFAULT_USER = JavaSystemProperties.getUserName();
 
     public final String osUser = DEFAULT_USER;
     public final OutputControllerLevel level;
     public final Date timestampForSorting;
-    public final String timestamp;
+    private final LazyLoaded<String> timestamp;
     public final boolean isClientApp;
     public final String origin;
     public final String callerClass;
@@ -67,7 +71,8 @@ public class Header {
     private Header(OutputControllerLevel level, Date timestamp, boolean isClientApp, Thread thread, String callerClass) {
         this.level = level;
         this.timestampForSorting = timestamp;
-        this.timestamp = TIMESTAMP_FORMATTER.format(timestamp);
+        // formatted when the message is printed, not by the thread which logs it
+        this.timestamp = new LazyLoaded<>(() -> TIMESTAMP_FORMATTER.format(Instant.ofEpochMilli(timestamp.getTime()).atZone(ZoneId.systemDefault())));
         this.isClientApp = isClientApp;
         this.origin = isClientApp ? "ITW-APP " : "ITW-CORE";
         this.callerClass = callerClass;
@@ -75,6 +80,10 @@ public class Header {
         this.threadName = thread.getName();
     }
 
+    public String getTimestamp() {
+        return timestamp.get();
+    }
+
     @Override
     public String toString() {
         return toString(true, true, true, true, true, true, true);
@@ -94,7 +103,7 @@ public class Header {
                 sb.append("[").append(origin).append("]");
             }
             if (showTimestamp) {
-                sb.append('[').append(timestamp).append(']');
+                sb.append('[').append(getTimestamp()).append(']');
             }
             if (showLogLevel && level != null) {
                 sb.append('[').append(level.display()).append(']');
@@ -4,6 +4,7 @@ import net.adoptopenjdk.icedteaweb.Assert;
 import net.adoptopenjdk.icedteaweb.StringUtils;
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
+import net.sourceforge.jnlp.config.ConfigurationSnapshot;
 import net.sourceforge.jnlp.runtime.JNLPRuntime;
 import net.sourceforge.jnlp.util.IpUtil;
 
@@ -17,18 +18,28 @@ public class UrlWhiteListUtils {
 
     private static final Logger LOG = LoggerFactory.getLogger(UrlWhiteListUtils.class);
 
-    private static List<WhitelistEntry> applicationUrlWhiteList;
+    private static volatile ParsedWhitelist applicationUrlWhiteList;
 
+    /**
+     * @return the parsed server whitelist, parsed again only if the configuration has changed
+     */
     public static List<WhitelistEntry> getApplicationUrlWhiteList() {
-        if (applicationUrlWhiteList == null) {
-            applicationUrlWhiteList = loadWhitelistFromConfiguration(KEY_SECURITY_SERVER_WHITELIST);
+        final ConfigurationSnapshot configuration = JNLPRuntime.getConfiguration().getSnapshot();
+        final ParsedWhitelist cached = applicationUrlWhiteList;
+        if (cached != null && cached.configuration == configuration) {
+            return cached.entries;
         }
-        return applicationUrlWhiteList;
+        final List<WhitelistEntry> entries = parseWhitelist(configuration.getList(KEY_SECURITY_SERVER_WHITELIST));
+        applicationUrlWhiteList = new ParsedWhitelist(configuration, entries);
+        return entries;
     }
 
     public static List<WhitelistEntry> loadWhitelistFromConfiguration(final String whitelistPropertyName) {
-        return JNLPRuntime.getConfiguration().getPropertyAsList(whitelistPropertyName)
-                .stream()
+        return parseWhitelist(JNLPRuntime.getConfiguration().getPropertyAsList(whitelistPropertyName));
+    }
+
+    private static List<WhitelistEntry> parseWhitelist(final List<String> values) {
+        return values.stream()
                 .filter(s -> !StringUtils.isBlank(s))
                 .map(UrlWhiteListUtils::parseEntry)
                 .collect(Collectors.toList());
@@ -55,4 +66,14 @@ public class UrlWhiteListUtils {
         return WhitelistEntry.parse(wlUrlStr);
     }
 
+    private static class ParsedWhitelist {
+        private final ConfigurationSnapshot configuration;
+        private final List<WhitelistEntry> entries;
+
+        private ParsedWhitelist(final ConfigurationSnapshot configuration, final List<WhitelistEntry> entries) {
+            this.configuration = configuration;
+            this.entries = entries;
+        }
+    }
+
 }
@@ -0,0 +1,166 @@
+package net.adoptopenjdk.icedteaweb.resources;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PrioritizedParallelExecutorTest {
+
+    private ExecutorService executorService;
+    private PrioritizedParallelExecutor executor;
+
+    @Before
+    public void setUp() {
+        executorService = DaemonThreadPoolProvider.createFixedDaemonThreadPool(4);
+        executor = new PrioritizedParallelExecutor(executorService);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoCallables() {
+        executor.getSuccessfulResultWithHighestPriority(Collections.emptyList());
+    }
+
+    @Test
+    public void testHighestPrioritySuccessWins() throws Exception {
+        final List<Callable<String>> callables = Arrays.asList(() -> "first", () -> "second", () -> "third");
+
+        assertEquals("first", executor.getSuccessfulResultWithHighestPriority(callables).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailedHigherPriorityIsSkipped() throws Exception {
+        final List<Callable<String>> callables = Arrays.asList(
+                () -> {
+                    throw new RuntimeException("first");
+                },
+                () -> "second");
+
+        assertEquals("second", executor.getSuccessfulResultWithHighestPriority(callables).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testErrorIsReportedAsFailure() throws Exception {
+        final List<Callable<String>> callables = Arrays.asList(
+                () -> {
+                    throw new AssertionError("first");
+                },
+                () -> "second");
+
+        assertEquals("second", executor.getSuccessfulResultWithHighestPriority(callables).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testErrorOfOnlyCallableCompletesResult() throws Exception {
+        final List<Callable<String>> callables = Collections.singletonList(() -> {
+            throw new NoClassDefFoundError("missing");
+        });
+
+        try {
+            executor.getSuccessfulResultWithHighestPriority(callables).get(5, TimeUnit.SECONDS);
+            fail("ExecutionException expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ExecutionException);
+            assertTrue(e.getCause().getCause() instanceof NoClassDefFoundError);
+        }
+    }
+
+    @Test
+    public void testCallablesAreExecutedInParallel() throws Exception {
+        final CountDownLatch allStarted = new CountDownLatch(3);
+        final Callable<String> waitForOthers = () -> {
+            allStarted.countDown();
+            if (!allStarted.await(5, TimeUnit.SECONDS)) {
+                throw new RuntimeException("callables have not been started in parallel");
+            }
+            return "ok";
+        };
+        final List<Callable<String>> callables = Arrays.asList(waitForOthers, waitForOthers, waitForOthers);
+
+        assertEquals("ok", executor.getSuccessfulResultWithHighestPriority(callables).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testLowerPriorityResultWaitsForHigherPriority() throws Exception {
+        final CountDownLatch releaseFirst = new CountDownLatch(1);
+        final CountDownLatch secondDone = new CountDownLatch(1);
+        final List<Callable<String>> callables = Arrays.asList(
+                () -> {
+                    releaseFirst.await();
+                    return "first";
+                },
+                () -> {
+                    secondDone.countDown();
+                    return "second";
+                });
+
+        final Future<String> result = executor.getSuccessfulResultWithHighestPriority(callables);
+        assertTrue(secondDone.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertFalse(result.isDone());
+
+        releaseFirst.countDown();
+        assertEquals("first", result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testLowerPriorityIsCanceledOnSuccess() throws Exception {
+        final CountDownLatch secondInterrupted = new CountDownLatch(1);
+        final CountDownLatch secondStarted = new CountDownLatch(1);
+        final List<Callable<String>> callables = Arrays.asList(
+                () -> {
+                    secondStarted.await();
+                    return "first";
+                },
+                () -> {
+                    secondStarted.countDown();
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        secondInterrupted.countDown();
+                    }
+                    return "second";
+                });
+
+        assertEquals("first", executor.getSuccessfulResultWithHighestPriority(callables).get(5, TimeUnit.SECONDS));
+        assertTrue(secondInterrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAllFailed() throws Exception {
+        final List<Callable<String>> callables = Arrays.asList(
+                () -> {
+                    throw new RuntimeException("first");
+                },
+                () -> {
+                    throw new RuntimeException("second");
+                });
+
+        try {
+            executor.getSuccessfulResultWithHighestPriority(callables).get(5, TimeUnit.SECONDS);
+            fail("exception expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().getMessage().contains("first"));
+            assertTrue(e.getCause().getMessage().contains("second"));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CacheImplTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File cacheRoot;
+
+    @Before
+    public void setup() throws IOException {
+        cacheRoot = temporaryFolder.newFolder();
+    }
+
+    @Test
+    public void testFreeSlotIsClaimed() {
+        final File dir = CacheImpl.makeNewCacheDir(cacheRoot, 5);
+
+        assertEquals(new File(cacheRoot, "0/5"), dir);
+        assertTrue(dir.isDirectory());
+    }
+
+    @Test
+    public void testTakenSlotMovesToNextSlot() {
+        assertTrue(new File(cacheRoot, "1/7").mkdirs());
+
+        assertEquals(new File(cacheRoot, "1/8"), CacheImpl.makeNewCacheDir(cacheRoot, 257));
+    }
+
+    @Test
+    public void testSearchWrapsAroundAfterLastSlot() {
+        final int lastSlot = CacheImpl.NUMBER_OF_CACHE_DIRS - 1;
+        assertEquals(new File(cacheRoot, "249/249"), CacheImpl.makeNewCacheDir(cacheRoot, lastSlot));
+
+        assertEquals(new File(cacheRoot, "0/0"), CacheImpl.makeNewCacheDir(cacheRoot, lastSlot));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testFailedMkdirOfMissingSlotThrows() throws IOException {
+        // a dangling link can not be created as directory but does not exist either
+        assertTrue(new File(cacheRoot, "0").mkdir());
+        Files.createSymbolicLink(new File(cacheRoot, "0/3").toPath(), new File(cacheRoot, "missing/target").toPath());
+
+        CacheImpl.makeNewCacheDir(cacheRoot, 3);
+    }
+}
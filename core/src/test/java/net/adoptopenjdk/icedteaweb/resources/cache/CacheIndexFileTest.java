@@ -1,6 +1,7 @@
 package net.adoptopenjdk.icedteaweb.resources.cache;
 
 import net.adoptopenjdk.icedteaweb.jnlp.version.VersionId;
+import net.adoptopenjdk.icedteaweb.jnlp.version.VersionString;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -171,6 +172,52 @@ public class CacheIndexFileTest {
         assertEqualEntries(asList(ENTRY_1), cacheFile.getAllEntries());
     }
 
+    @Test
+    public void findEntryReturnsTheEntryWithTheKey() throws Exception {
+        loadFile();
+
+        cacheFile.addEntry(ENTRY_1);
+        cacheFile.addEntry(ENTRY_2);
+
+        assertEquals(ENTRY_2, cacheFile.findEntry(ENTRY_2.getCacheKey()).orElse(null));
+        assertFalse(cacheFile.findEntry(new CacheKey(RESOURCE_1_URL, RESOURCE_2_VERSION)).isPresent());
+    }
+
+    @Test
+    public void findEntryReturnsTheMostRecentlyAccessedEntryWithTheKey() throws Exception {
+        loadFile(
+                "::i=1/11::l=https://test.com::v=1.1::a=1234::",
+                "::i=2/22::l=https://test.com::v=1.1::a=3456::",
+                "::i=1/11::a=5678::"
+        );
+
+        assertEquals(CACHE_ID_1, cacheFile.findEntry(ENTRY_1.getCacheKey()).map(CacheIndexEntry::getId).orElse(null));
+    }
+
+    @Test
+    public void findAllEntriesReturnsAllVersionsOfTheResource() throws Exception {
+        loadFile(
+                "::i=1/11::l=https://test.com::v=1.1::a=1234::",
+                "::i=2/22::l=https://test.com::v=2.2::a=3456::",
+                "::i=3/33::l=https://foo.com::v=1.1::a=3456::"
+        );
+
+        assertEquals(2, cacheFile.findAllEntries(RESOURCE_1_URL).size());
+        assertEquals(1, cacheFile.findAllEntries(RESOURCE_1_URL, VersionString.fromString("2.2")).size());
+        assertEquals(0, cacheFile.findAllEntries(url("https://bar.com")).size());
+    }
+
+    @Test
+    public void removedEntriesCanNotBeFound() throws Exception {
+        loadFile();
+
+        cacheFile.addEntry(ENTRY_1);
+        cacheFile.removeEntry(ENTRY_1);
+
+        assertFalse(cacheFile.findEntry(ENTRY_1.getCacheKey()).isPresent());
+        assertTrue(cacheFile.findAllEntries(RESOURCE_1_URL).isEmpty());
+    }
+
     @Test
     public void initiallyTheFileIsNotDirty() throws Exception {
         loadFile();
@@ -324,6 +371,44 @@ public class CacheIndexFileTest {
         assertFileContent(physicalFile, "::i=1/11::l=https://test.com::v=1.1::a=5678::");
     }
 
+    @Test
+    public void reloadingAppliesActionsAppendedByOthers() throws Exception {
+        loadFile("::i=1/11::l=https://test.com::v=1.1::a=1234::\n");
+
+        final CacheIndexFile other = new CacheIndexFile(physicalFile);
+        lockedLoad(other);
+        other.addEntry(ENTRY_2);
+        other.markAccessed(ENTRY_1, LAST_ACCESSED_3);
+        lockedPersist(other);
+
+        lockedLoad(cacheFile);
+
+        final CacheIndexEntry updatedEntry1 = new CacheIndexEntry(ENTRY_1.getId(), LAST_ACCESSED_3, ENTRY_1.getCacheKey());
+        assertEqualEntries(asList(updatedEntry1, ENTRY_2), cacheFile.getAllEntries());
+    }
+
+    @Test
+    public void reloadingAfterCompactionByOthersReadsTheWholeFile() throws Exception {
+        loadFile();
+        cacheFile.addEntry(ENTRY_1);
+        cacheFile.addEntry(ENTRY_2);
+        lockedPersist(cacheFile);
+
+        final CacheIndexFile other = new CacheIndexFile(physicalFile);
+        lockedLoad(other);
+        other.removeEntry(ENTRY_1);
+        other.requestCompression();
+        lockedPersist(other);
+        final CacheIndexEntry entry3 = new CacheIndexEntry("3/33", LAST_ACCESSED_3, new CacheKey(url("https://test.com/a/longer/path/to/the/resource.jar"), null));
+        other.addEntry(entry3);
+        lockedPersist(other);
+
+        lockedLoad(cacheFile);
+
+        assertEqualEntries(asList(entry3, ENTRY_2), cacheFile.getAllEntries());
+        assertFalse(cacheFile.findEntry(ENTRY_1.getCacheKey()).isPresent());
+    }
+
     @Test
     public void clearEmptyFileDoesNothingDirty() throws Exception {
         loadFile();
@@ -372,6 +457,24 @@ public class CacheIndexFileTest {
         }
     }
 
+    private void lockedLoad(CacheIndexFile file) throws IOException {
+        try {
+            file.lock();
+            file.load();
+        } finally {
+            file.unlock();
+        }
+    }
+
+    private void lockedPersist(CacheIndexFile file) throws IOException {
+        try {
+            file.lock();
+            file.persistChanges();
+        } finally {
+            file.unlock();
+        }
+    }
+
     private void assertEqualEntries(List<CacheIndexEntry> expected, List<CacheIndexEntry> actual) {
         assertEquals(expected.size(), actual.size());
         for (int i = 0; i < expected.size(); i++) {
@@ -50,6 +50,7 @@ import java.net.URL;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class CacheIndexHolderTest {
@@ -133,6 +134,21 @@ public class CacheIndexHolderTest {
         assertEquals(entry.get().getId(), entryId);
     }
 
+    @Test
+    public void testNestedCallsShareOneIndex() {
+        holder.runSynchronized(outer -> {
+            holder.runSynchronized(inner -> {
+                assertSame(outer, inner);
+                inner.createEntry(key, entryId);
+            });
+            assertTrue(outer.findEntry(key).isPresent());
+        });
+
+        final Optional<CacheIndexEntry> entry = holder.getSynchronized(idx -> idx.findEntry(key));
+        assertTrue(entry.isPresent());
+        assertEquals(entry.get().getId(), entryId);
+    }
+
     private void fillCacheIndexFile() {
         // fill cache index file
         holder.runSynchronized(idx -> {
@@ -97,7 +97,7 @@ public class CachedFileTest {
         assertNotEquals(DOWNLOADED_AT, firstEntry.getDownloadedAt());
         assertNotEquals(CONTENT_LENGTH, firstEntry.getSize());
 
-        firstEntry.storeInfo(DOWNLOADED_AT, LAST_MODIFIED, CONTENT_LENGTH);
+        firstEntry.storeInfo(DOWNLOADED_AT, LAST_MODIFIED, CONTENT_LENGTH, null);
 
         final CachedFile secondEntry = createEntry();
         assertEquals(LAST_MODIFIED, secondEntry.getLastModified());
@@ -108,7 +108,7 @@ public class CachedFileTest {
     @Test
     public void verifyCachedIfFileExistsAndLengthIsSame() {
         final CachedFile entry = createEntry();
-        entry.storeInfo(downloadedAt, cacheFile.lastModified(), cacheFile.length());
+        entry.storeInfo(downloadedAt, cacheFile.lastModified(), cacheFile.length(), null);
 
         assertTrue(entry.isCached());
     }
@@ -123,7 +123,7 @@ public class CachedFileTest {
     @Test
     public void verifyNotCachedIfContentLengthsDiffer() {
         final CachedFile entry = createEntry();
-        entry.storeInfo(downloadedAt, cacheFile.lastModified(), cacheFile.length() + 1);
+        entry.storeInfo(downloadedAt, cacheFile.lastModified(), cacheFile.length() + 1, null);
 
         assertFalse(entry.isCached());
     }
@@ -131,7 +131,7 @@ public class CachedFileTest {
     @Test
     public void verifyCurrentWhenCacheEntryHasSameTimeStamp() {
         final CachedFile entry = createEntry();
-        entry.storeInfo(downloadedAt, cacheFile.lastModified(), cacheFile.length());
+        entry.storeInfo(downloadedAt, cacheFile.lastModified(), cacheFile.length(), null);
 
         assertTrue(entry.isCurrent(cacheFile.lastModified()));
     }
@@ -139,7 +139,7 @@ public class CachedFileTest {
     @Test
     public void verifyCurrentWhenRemoteContentIsOlder() {
         final CachedFile entry = createEntry();
-        entry.storeInfo(downloadedAt, cacheFile.lastModified(), cacheFile.length());
+        entry.storeInfo(downloadedAt, cacheFile.lastModified(), cacheFile.length(), null);
 
         assertTrue(entry.isCurrent(cacheFile.lastModified() - 10));
     }
@@ -147,7 +147,7 @@ public class CachedFileTest {
     @Test
     public void verifyNotCurrentWhenRemoteContentIsNewer() {
         final CachedFile entry = createEntry();
-        entry.storeInfo(downloadedAt, cacheFile.lastModified(), cacheFile.length());
+        entry.storeInfo(downloadedAt, cacheFile.lastModified(), cacheFile.length(), null);
 
         assertFalse(entry.isCurrent(cacheFile.lastModified() + 10));
     }
@@ -0,0 +1,53 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ContentDigestTest {
+
+    private static final String HELLO_HEX = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+    private static final String HELLO_BASE64 = "LPJNul+wow4m6DsqxbninhsWHlwfp0JecwQzYpOLmCQ=";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testDigestOfFile() throws IOException {
+        final File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), "hello".getBytes(UTF_8));
+
+        assertEquals(HELLO_HEX, ContentDigest.of(file));
+    }
+
+    @Test
+    public void testMessageDigestMatchesFileDigest() {
+        assertEquals(HELLO_HEX, ContentDigest.toHex(ContentDigest.newMessageDigest().digest("hello".getBytes(UTF_8))));
+    }
+
+    @Test
+    public void testStructuredFieldHeader() {
+        assertEquals(HELLO_HEX, ContentDigest.fromHttpHeader("sha-512=:AAAA:, sha-256=:" + HELLO_BASE64 + ":"));
+    }
+
+    @Test
+    public void testLegacyDigestHeader() {
+        assertEquals(HELLO_HEX, ContentDigest.fromHttpHeader("MD5=XrY7u+Ae7tCTyyK7j1rNww==, SHA-256=" + HELLO_BASE64));
+    }
+
+    @Test
+    public void testHeaderWithoutSha256() {
+        assertNull(ContentDigest.fromHttpHeader(null));
+        assertNull(ContentDigest.fromHttpHeader("MD5=XrY7u+Ae7tCTyyK7j1rNww=="));
+        assertNull(ContentDigest.fromHttpHeader("sha-256=:not base64:"));
+        assertNull(ContentDigest.fromHttpHeader("sha-256=:AAAA:"));
+    }
+}
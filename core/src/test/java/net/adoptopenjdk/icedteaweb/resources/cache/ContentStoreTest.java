@@ -0,0 +1,154 @@
+package net.adoptopenjdk.icedteaweb.resources.cache;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ContentStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File cacheRoot;
+    private ContentStore store;
+
+    @Before
+    public void setup() throws IOException {
+        cacheRoot = temporaryFolder.newFolder();
+        store = new ContentStore(() -> cacheRoot);
+    }
+
+    @Test
+    public void testAddMovesFileIntoStore() throws IOException {
+        final File downloaded = createFile("hello");
+        final String digest = ContentDigest.of(downloaded);
+        final File target = new File(cacheRoot, "0/1/hello.jar");
+        target.getParentFile().mkdirs();
+
+        store.add(downloaded, digest, target);
+
+        assertFalse(downloaded.exists());
+        assertTrue(store.contains(digest));
+        assertArrayEquals("hello".getBytes(UTF_8), Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void testSameContentIsStoredOnce() throws IOException {
+        final File first = createFile("hello");
+        final File second = createFile("hello");
+        final String digest = ContentDigest.of(first);
+        final File firstTarget = new File(cacheRoot, "0/1/a.jar");
+        final File secondTarget = new File(cacheRoot, "0/2/b.jar");
+        firstTarget.getParentFile().mkdirs();
+        secondTarget.getParentFile().mkdirs();
+
+        store.add(first, digest, firstTarget);
+        store.add(second, digest, secondTarget);
+
+        assertFalse(second.exists());
+        assertArrayEquals(Files.readAllBytes(firstTarget.toPath()), Files.readAllBytes(secondTarget.toPath()));
+        final File[] stored = new File(store.getContentDir(), digest.substring(0, 2)).listFiles();
+        assertTrue(stored != null && stored.length == 1);
+    }
+
+    @Test
+    public void testLinkToUnknownContent() throws IOException {
+        final File target = new File(cacheRoot, "0/1/a.jar");
+        target.getParentFile().mkdirs();
+
+        assertFalse(store.linkTo("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824", target));
+        assertFalse(target.exists());
+    }
+
+    @Test
+    public void testLinkToStoredContent() throws IOException {
+        final File downloaded = createFile("hello");
+        final String digest = ContentDigest.of(downloaded);
+        final File firstTarget = new File(cacheRoot, "0/1/a.jar");
+        final File secondTarget = new File(cacheRoot, "0/2/b.jar");
+        firstTarget.getParentFile().mkdirs();
+        secondTarget.getParentFile().mkdirs();
+        store.add(downloaded, digest, firstTarget);
+
+        assertTrue(store.linkTo(digest, secondTarget));
+        assertArrayEquals("hello".getBytes(UTF_8), Files.readAllBytes(secondTarget.toPath()));
+    }
+
+    @Test
+    public void testRemoveUnreferenced() throws IOException {
+        final File kept = createFile("kept");
+        final File removed = createFile("removed");
+        final String keptDigest = ContentDigest.of(kept);
+        final String removedDigest = ContentDigest.of(removed);
+        final File target = new File(cacheRoot, "0/1/a.jar");
+        target.getParentFile().mkdirs();
+
+        store.add(kept, keptDigest, target);
+        store.add(removed, removedDigest, target);
+        store.removeUnreferenced(Collections.singleton(keptDigest));
+
+        assertTrue(store.contains(keptDigest));
+        assertFalse(store.contains(removedDigest));
+        assertFalse(new File(store.getContentDir(), removedDigest.substring(0, 2)).exists());
+    }
+
+    @Test
+    public void testContentIsKeptInEntryWithoutLinks() throws IOException {
+        final ContentStore storeWithoutLinks = createStoreWithoutLinks();
+        final File downloaded = createFile("hello");
+        final String digest = ContentDigest.of(downloaded);
+        final File target = new File(cacheRoot, "0/1/a.jar");
+        target.getParentFile().mkdirs();
+
+        storeWithoutLinks.add(downloaded, digest, target);
+
+        assertArrayEquals("hello".getBytes(UTF_8), Files.readAllBytes(target.toPath()));
+        assertFalse(new File(storeWithoutLinks.getContentDir(), digest.substring(0, 2) + "/" + digest).exists());
+        assertFalse(storeWithoutLinks.contains(digest));
+    }
+
+    @Test
+    public void testStoreIsDisabledWithoutLinks() throws IOException {
+        final ContentStore storeWithoutLinks = createStoreWithoutLinks();
+        final File first = createFile("hello");
+        final File second = createFile("hello");
+        final String digest = ContentDigest.of(first);
+        final File firstTarget = new File(cacheRoot, "0/1/a.jar");
+        final File secondTarget = new File(cacheRoot, "0/2/b.jar");
+        firstTarget.getParentFile().mkdirs();
+        secondTarget.getParentFile().mkdirs();
+
+        storeWithoutLinks.add(first, digest, firstTarget);
+        storeWithoutLinks.add(second, digest, secondTarget);
+
+        assertArrayEquals("hello".getBytes(UTF_8), Files.readAllBytes(secondTarget.toPath()));
+        assertFalse(storeWithoutLinks.linkTo(digest, new File(cacheRoot, "0/3/c.jar")));
+        assertFalse(new File(storeWithoutLinks.getContentDir(), digest.substring(0, 2) + "/" + digest).exists());
+    }
+
+    private ContentStore createStoreWithoutLinks() {
+        return new ContentStore(() -> cacheRoot) {
+            @Override
+            void createHardLink(File link, File existing) {
+                throw new UnsupportedOperationException("no hard links");
+            }
+        };
+    }
+
+    private File createFile(String content) throws IOException {
+        final File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), content.getBytes(UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,241 @@
+package net.adoptopenjdk.icedteaweb.resources.downloader;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.adoptopenjdk.icedteaweb.resources.Resource;
+import net.adoptopenjdk.icedteaweb.resources.ResourceFactory;
+import net.adoptopenjdk.icedteaweb.resources.UpdatePolicy;
+import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
+import net.sourceforge.jnlp.config.ConfigurationConstants;
+import net.sourceforge.jnlp.config.PathsAndFiles;
+import net.sourceforge.jnlp.runtime.JNLPRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import static net.adoptopenjdk.icedteaweb.resources.Resource.TRANSFERRED_PROPERTY;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DownloadRaceTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final CountDownLatch releaseSlowServer = new CountDownLatch(1);
+
+    private final ExecutorService serverThreads = Executors.newCachedThreadPool();
+
+    private HttpServer server;
+    private String cacheDir;
+    private String raceDownloads;
+    private byte[] content;
+
+    @Before
+    public void setUp() throws Exception {
+        cacheDir = PathsAndFiles.CACHE_DIR.getFullPath();
+        PathsAndFiles.CACHE_DIR.setValue(temporaryFolder.newFolder().getCanonicalPath());
+        raceDownloads = JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_RACE_RESOURCE_DOWNLOADS);
+        JNLPRuntime.getConfiguration().setProperty(ConfigurationConstants.KEY_RACE_RESOURCE_DOWNLOADS, Boolean.TRUE.toString());
+
+        content = new byte[64 * 1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/slow/", this::handleSlow);
+        server.createContext("/fast/", this::handleFast);
+        server.setExecutor(serverThreads);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        releaseSlowServer.countDown();
+        server.stop(0);
+        serverThreads.shutdownNow();
+        JNLPRuntime.getConfiguration().setProperty(ConfigurationConstants.KEY_RACE_RESOURCE_DOWNLOADS, raceDownloads);
+        PathsAndFiles.CACHE_DIR.setValue(cacheDir);
+    }
+
+    private void handleFast(final HttpExchange exchange) throws IOException {
+        exchange.sendResponseHeaders(200, content.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(content);
+        }
+    }
+
+    private void handleSlow(final HttpExchange exchange) throws IOException {
+        exchange.sendResponseHeaders(200, content.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(content, 0, 1024);
+            out.flush();
+            releaseSlowServer.await(10, TimeUnit.SECONDS);
+            out.write(content, 1024, content.length - 1024);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ignored) {
+            // the client gave up
+        }
+    }
+
+    private URL url(final String path) throws Exception {
+        return new URL("http://localhost:" + server.getAddress().getPort() + path);
+    }
+
+    @Test
+    public void testFastCandidateWinsRace() throws Exception {
+        final Resource resource = ResourceFactory.createResource(url("/fast/race.jar"), null, null, UpdatePolicy.ALWAYS);
+        final List<Long> progress = Collections.synchronizedList(new ArrayList<>());
+        resource.addPropertyChangeListener(TRANSFERRED_PROPERTY, e -> progress.add((Long) e.getNewValue()));
+        final ResourceDownloader downloader = new UnversionedResourceDownloader(resource, Arrays.asList(url("/slow/race.jar"), url("/fast/race.jar")));
+
+        final long start = System.currentTimeMillis();
+        downloader.download();
+
+        assertTrue("the slow candidate was waited for", System.currentTimeMillis() - start < 5_000);
+        assertArrayEquals(content, Files.readAllBytes(Cache.getCacheFile(resource.getLocation(), null).toPath()));
+        for (int i = 1; i < progress.size(); i++) {
+            assertTrue("progress jumped back: " + progress, progress.get(i) >= progress.get(i - 1));
+        }
+    }
+
+    @Test
+    public void testCandidateWaitingForResponseIsDisconnected() throws Exception {
+        assertStalledCandidateIsDisconnected(false);
+    }
+
+    @Test
+    public void testCandidateStalledInContentIsReleased() throws Exception {
+        final String readTimeout = JNLPRuntime.getConfiguration().getProperty(ConfigurationConstants.KEY_HTTPCONNECTION_READ_TIMEOUT);
+        JNLPRuntime.getConfiguration().setProperty(ConfigurationConstants.KEY_HTTPCONNECTION_READ_TIMEOUT, "500");
+        try {
+            assertStalledCandidateIsDisconnected(true);
+        } finally {
+            JNLPRuntime.getConfiguration().setProperty(ConfigurationConstants.KEY_HTTPCONNECTION_READ_TIMEOUT, readTimeout);
+        }
+    }
+
+    private void assertStalledCandidateIsDisconnected(final boolean sendHeaders) throws Exception {
+        final CountDownLatch disconnected = new CountDownLatch(1);
+        try (ServerSocket stalledServer = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            serverThreads.execute(() -> serveStalled(stalledServer, sendHeaders, disconnected));
+            final URL stalled = new URL("http://localhost:" + stalledServer.getLocalPort() + "/stalled.jar");
+            final Resource resource = ResourceFactory.createResource(url("/fast/stalled.jar"), null, null, UpdatePolicy.ALWAYS);
+
+            new UnversionedResourceDownloader(resource, Arrays.asList(stalled, url("/fast/stalled.jar"))).download();
+
+            assertArrayEquals(content, Files.readAllBytes(Cache.getCacheFile(resource.getLocation(), null).toPath()));
+            assertTrue("the stalled connection was kept open", disconnected.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Reads the request and optionally sends the headers and the first bytes of the content,
+     * then waits until the client closes the connection.
+     */
+    private void serveStalled(final ServerSocket serverSocket, final boolean sendHeaders, final CountDownLatch disconnected) {
+        try (Socket socket = serverSocket.accept()) {
+            final BufferedReader request = new BufferedReader(new InputStreamReader(socket.getInputStream(), US_ASCII));
+            String line;
+            while ((line = request.readLine()) != null && !line.isEmpty()) {
+                // skip the request headers
+            }
+            if (sendHeaders) {
+                final OutputStream out = socket.getOutputStream();
+                // too much content left for the http client to drain it in the background, so it closes the socket
+                out.write(("HTTP/1.1 200 OK\r\nContent-Length: " + 16 * 1024 * 1024 + "\r\n\r\n").getBytes(US_ASCII));
+                out.write(content, 0, 1024);
+                out.flush();
+            }
+            if (request.read() == -1) {
+                disconnected.countDown();
+            }
+        } catch (IOException e) {
+            disconnected.countDown();
+        }
+    }
+
+    @Test
+    public void testLosingConnectionsAreClosed() throws Exception {
+        final DownloadRace race = new DownloadRace(ResourceFactory.createResource(url("/fast/close.jar"), null, null, UpdatePolicy.ALWAYS));
+        final CountDownLatch loserClosed = new CountDownLatch(1);
+        final AtomicBoolean winnerClosed = new AtomicBoolean();
+
+        final Thread loser = new Thread(() -> race.closeWhenLost(loserClosed::countDown));
+        loser.start();
+        loser.join();
+        final Closeable watch = race.closeWhenLost(() -> winnerClosed.set(true));
+        race.commit(() -> "winner");
+        watch.close();
+
+        assertTrue(loserClosed.await(5, TimeUnit.SECONDS));
+        assertFalse(winnerClosed.get());
+
+        final AtomicBoolean lateClosed = new AtomicBoolean();
+        race.closeWhenLost(() -> lateClosed.set(true));
+        assertTrue(lateClosed.get());
+    }
+
+    @Test
+    public void testFailedCommitLeavesRaceOpen() throws Exception {
+        final DownloadRace race = new DownloadRace(ResourceFactory.createResource(url("/fast/commit.jar"), null, null, UpdatePolicy.ALWAYS));
+
+        try {
+            race.commit(() -> {
+                throw new IOException("cache not writable");
+            });
+            fail("IOException expected");
+        } catch (IOException expected) {
+            // the first download could not be committed
+        }
+        assertFalse(race.isDecided());
+
+        assertEquals(Optional.of("second"), race.commit(() -> "second"));
+        assertTrue(race.isDecided());
+        assertEquals(Optional.empty(), race.commit(() -> "third"));
+    }
+
+    @Test
+    public void testProgressOfLeadingDownloadIsReported() throws Exception {
+        final Resource resource = ResourceFactory.createResource(url("/fast/progress.jar"), null, null, UpdatePolicy.ALWAYS);
+        final DownloadRace race = new DownloadRace(resource);
+
+        race.reportProgress(100, 10);
+        race.reportProgress(200, 5);
+        assertEquals(100, resource.getSize());
+
+        race.reportProgress(200, 50);
+        assertEquals(200, resource.getSize());
+    }
+}
@@ -0,0 +1,179 @@
+package net.adoptopenjdk.icedteaweb.resources.downloader;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.adoptopenjdk.icedteaweb.resources.Resource;
+import net.adoptopenjdk.icedteaweb.resources.ResourceFactory;
+import net.adoptopenjdk.icedteaweb.resources.UpdatePolicy;
+import net.adoptopenjdk.icedteaweb.resources.cache.Cache;
+import net.sourceforge.jnlp.config.PathsAndFiles;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PartialDownloadTest {
+
+    private static final String VALIDATOR = "\"v1\"";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private String cacheDir;
+    private URL location;
+    private byte[] content;
+
+    @Before
+    public void setUp() throws Exception {
+        cacheDir = PathsAndFiles.CACHE_DIR.getFullPath();
+        PathsAndFiles.CACHE_DIR.setValue(temporaryFolder.newFolder().getCanonicalPath());
+
+        location = new URL("http://localhost/large.jar");
+        content = new byte[10 * 1024 * 1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        PathsAndFiles.CACHE_DIR.setValue(cacheDir);
+    }
+
+    @Test
+    public void testDownloadIsContinuedAfterBrokenStream() throws Exception {
+        final int brokenAt = 3 * 1024 * 1024 + 17;
+        try (PartialDownload partial = PartialDownload.start(location, VALIDATOR, content.length, 1).get()) {
+            partial.write(partial.getIncompleteSegments().get(0), new ByteArrayInputStream(content, 0, brokenAt), written -> {});
+            fail("broken connection expected");
+        } catch (IOException expected) {
+            // the connection broke
+        }
+
+        try (PartialDownload partial = PartialDownload.find(location).get()) {
+            assertEquals(brokenAt, partial.getWritten());
+            assertFalse(partial.isContinuedBy(response(brokenAt, "\"v2\"")));
+            assertFalse(partial.isContinuedBy(response(0, VALIDATOR)));
+            assertTrue(partial.isContinuedBy(response(brokenAt, VALIDATOR)));
+
+            final PartialDownload.Segment segment = partial.getIncompleteSegments().get(0);
+            partial.write(segment, new ByteArrayInputStream(content, brokenAt, content.length - brokenAt), written -> {});
+
+            assertArrayEquals(content, Files.readAllBytes(partial.complete().toPath()));
+        }
+    }
+
+    @Test
+    public void testSegmentsAreWrittenIndependently() throws Exception {
+        try (PartialDownload partial = PartialDownload.start(location, VALIDATOR, content.length, 8).get()) {
+            final List<PartialDownload.Segment> segments = partial.getIncompleteSegments();
+            // limited by the minimum segment size
+            assertEquals(2, segments.size());
+
+            final PartialDownload.Segment second = segments.get(1);
+            partial.write(second, new ByteArrayInputStream(content, (int) second.getPosition(), content.length), written -> {});
+            assertEquals(1, partial.getIncompleteSegments().size());
+
+            final PartialDownload.Segment first = segments.get(0);
+            partial.write(first, new ByteArrayInputStream(content), written -> {});
+
+            assertArrayEquals(content, Files.readAllBytes(partial.complete().toPath()));
+        }
+    }
+
+    @Test
+    public void testIncompleteDownloadCannotBeCompleted() throws Exception {
+        try (PartialDownload partial = PartialDownload.start(location, VALIDATOR, content.length, 1).get()) {
+            try {
+                partial.write(partial.getIncompleteSegments().get(0), new ByteArrayInputStream(content, 0, 1000), written -> {});
+                fail("too short stream expected");
+            } catch (IOException expected) {
+                // the server sent less than announced
+            }
+            partial.complete();
+            fail("incomplete download expected");
+        } catch (IOException expected) {
+            // the content is not complete
+        }
+    }
+
+    @Test
+    public void testDownloadIsLockedWhileInProgress() throws Exception {
+        try (PartialDownload partial = PartialDownload.start(location, VALIDATOR, content.length, 1).get()) {
+            assertFalse(PartialDownload.find(location).isPresent());
+            assertFalse(PartialDownload.start(location, VALIDATOR, content.length, 1).isPresent());
+        }
+        try (PartialDownload partial = PartialDownload.find(location).get()) {
+            partial.discard();
+        }
+        assertFalse(PartialDownload.find(location).isPresent());
+    }
+
+    @Test
+    public void testRefusedRangeRequestStartsOver() throws Exception {
+        final List<String> ranges = Collections.synchronizedList(new ArrayList<>());
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> handleWithoutRanges(exchange, ranges));
+        server.start();
+        try {
+            final URL url = new URL("http://localhost:" + server.getAddress().getPort() + "/large.jar");
+            try (PartialDownload partial = PartialDownload.start(url, VALIDATOR, content.length, 1).get()) {
+                partial.write(partial.getIncompleteSegments().get(0), new ByteArrayInputStream(content, 0, 1000), written -> {});
+                fail("broken connection expected");
+            } catch (IOException expected) {
+                // the connection broke
+            }
+
+            final Resource resource = ResourceFactory.createResource(url, null, null, UpdatePolicy.ALWAYS);
+            new UnversionedResourceDownloader(resource, Collections.singletonList(url)).download();
+
+            assertArrayEquals(content, Files.readAllBytes(Cache.getCacheFile(url, null).toPath()));
+            assertEquals(Arrays.asList("bytes=1000-" + (content.length - 1), "null"), ranges);
+            assertFalse(PartialDownload.find(url).isPresent());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private void handleWithoutRanges(final HttpExchange exchange, final List<String> ranges) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        final String range = exchange.getRequestHeaders().getFirst("Range");
+        ranges.add(String.valueOf(range));
+        if (range != null) {
+            exchange.sendResponseHeaders(416, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(200, content.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(content);
+        }
+    }
+
+    private DownloadDetails response(final long rangeStart, final String validator) {
+        return new DownloadDetails(location, new ByteArrayInputStream(new byte[0]), null, null, null, 0, content.length, null, validator, true, rangeStart);
+    }
+}
@@ -0,0 +1,71 @@
+package net.adoptopenjdk.icedteaweb.resources.downloader;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class UnpackerPipeTest {
+
+    @Test
+    public void testContentIsPassedThrough() throws Exception {
+        // larger than the buffer of the pipe
+        final byte[] content = new byte[1024 * 1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+
+        try (InputStream in = UnpackerPipe.open(output -> {
+            for (int i = 0; i < content.length; i += 1000) {
+                output.write(content, i, Math.min(1000, content.length - i));
+            }
+            output.close();
+        })) {
+            assertArrayEquals(content, readAll(in));
+        }
+    }
+
+    @Test
+    public void testIOExceptionIsThrownAsItIs() throws Exception {
+        final IOException failure = new IOException("broken");
+        try (InputStream in = UnpackerPipe.open(output -> {
+            output.write(new byte[]{1, 2, 3});
+            output.close();
+            throw failure;
+        })) {
+            readAll(in);
+            fail("failure expected");
+        } catch (IOException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    @Test
+    public void testOtherFailureIsWrapped() throws Exception {
+        final IllegalStateException failure = new IllegalStateException("broken");
+        try (InputStream in = UnpackerPipe.open(output -> {
+            throw failure;
+        })) {
+            assertEquals(-1, in.read());
+            fail("failure expected");
+        } catch (IOException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    private static byte[] readAll(final InputStream in) throws IOException {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            result.write(buffer, 0, read);
+        }
+        return result.toByteArray();
+    }
+}
@@ -3,6 +3,7 @@ package net.adoptopenjdk.icedteaweb.resources.jardiff;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URL;
@@ -135,6 +136,49 @@ public class JarDiffMergerTest {
         Assert.assertEquals(originalHashes, createdHashes);
     }
 
+    @Test
+    public void testRawMergeOfAllVersions() throws Exception {
+        for (int version = 1; version < 8; version++) {
+            //given
+            final URL jar1Url = JarDiffMergerTest.class.getResource("version-" + version + ".jar");
+            final URL jar2Url = JarDiffMergerTest.class.getResource("version-" + (version + 1) + ".jar");
+            final URL diffUrl = JarDiffMergerTest.class.getResource("diff-" + version + "-to-" + (version + 1) + ".jardiff");
+
+            //when
+            final Path createdJar = mergeRaw(jar1Url, diffUrl);
+            final Map<String, String> originalHashes = getMd5Hashes(jar2Url.getFile());
+            final Map<String, String> createdHashes = getMd5Hashes(createdJar.toFile().getAbsolutePath());
+
+            //than
+            Assert.assertEquals(originalHashes, createdHashes);
+            assertCompressedDataIsCopied(jar1Url, diffUrl, createdJar);
+        }
+    }
+
+    private void assertCompressedDataIsCopied(final URL jar1Url, final URL diffUrl, final Path createdJar) throws IOException {
+        try (final JarFile oldJar = new JarFile(jar1Url.getFile());
+             final JarFile diffJar = new JarFile(diffUrl.getFile());
+             final JarFile created = new JarFile(createdJar.toFile())) {
+            final Enumeration<JarEntry> entries = created.entries();
+            while (entries.hasMoreElements()) {
+                final JarEntry entry = entries.nextElement();
+                final JarEntry source = diffJar.getJarEntry(entry.getName()) != null ? diffJar.getJarEntry(entry.getName()) : oldJar.getJarEntry(entry.getName());
+                if (source != null) {
+                    Assert.assertEquals(entry.getName(), source.getCompressedSize(), entry.getCompressedSize());
+                }
+            }
+        }
+    }
+
+    private Path mergeRaw(final URL jar1Url, final URL diffUrl) throws IOException {
+        final Path tempDirectory = Files.createTempDirectory("jardiff");
+        final Path createdJar = Paths.get(tempDirectory.toFile().getAbsolutePath(), "created.jar");
+        try (final FileOutputStream os = new FileOutputStream(createdJar.toFile())) {
+            JarDiffMerger.merge(new File(jar1Url.getFile()), new File(diffUrl.getFile()), os);
+        }
+        return createdJar;
+    }
+
     private Path merge(final URL jar1Url, final URL diffUrl) throws IOException {
         final Path tempDirectory = Files.createTempDirectory("jardiff");
         final Path createdJar = Paths.get(tempDirectory.toFile().getAbsolutePath(), "created.jar");
@@ -0,0 +1,90 @@
+package net.sourceforge.jnlp;
+
+import net.adoptopenjdk.icedteaweb.xmlparser.ParserType;
+import net.adoptopenjdk.icedteaweb.xmlparser.XmlNode;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CachedJnlpTreeTest {
+
+    private static final String JNLP = "<?xml version=\"1.0\"?>\n" +
+            "<jnlp spec=\"1.0\" codebase=\"http://localhost/\" href=\"app.jnlp\">\n" +
+            "  <information>\n" +
+            "    <title>Test &amp; äpp</title>\n" +
+            "    <vendor>IcedTea</vendor>\n" +
+            "  </information>\n" +
+            "  <resources>\n" +
+            "    <jar href=\"app.jar\" main=\"true\"/>\n" +
+            "    <property name=\"key\" value=\"\"/>\n" +
+            "  </resources>\n" +
+            "  <application-desc main-class=\"Main\"><argument>-v</argument></application-desc>\n" +
+            "</jnlp>\n";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testStoreAndLoad() throws Exception {
+        final File jnlp = temporaryFolder.newFile("app.jnlp");
+        final byte[] content = JNLP.getBytes(StandardCharsets.UTF_8);
+        Files.write(jnlp.toPath(), content);
+        final File storeFile = new File(temporaryFolder.getRoot(), "tree");
+
+        final XmlNode parsed = CachedJnlpTree.getRootNode(jnlp, content, ParserType.NORMAL);
+        CachedJnlpTree.store(storeFile, "digest", parsed);
+        final Optional<XmlNode> loaded = CachedJnlpTree.load(storeFile, "digest");
+
+        assertTrue(loaded.isPresent());
+        assertEquals(dump(parsed), dump(loaded.get()));
+        assertEquals("Test & äpp", loaded.get().getFirstChild().getFirstChild().getNodeValue());
+        assertEquals("", loaded.get().getAttribute("version"));
+        assertNull(loaded.get().getFirstChild().getFirstChild().getNextSibling().getNextSibling());
+    }
+
+    @Test
+    public void testTreeOfOtherContentIsNotLoaded() throws Exception {
+        final File storeFile = new File(temporaryFolder.getRoot(), "tree");
+        final XmlNode parsed = CachedJnlpTree.getRootNode(temporaryFolder.newFile(), JNLP.getBytes(StandardCharsets.UTF_8), ParserType.MALFORMED);
+
+        CachedJnlpTree.store(storeFile, "digest", parsed);
+
+        assertFalse(CachedJnlpTree.load(storeFile, "other").isPresent());
+        assertFalse(CachedJnlpTree.load(new File(temporaryFolder.getRoot(), "missing"), "digest").isPresent());
+    }
+
+    @Test
+    public void testCorruptTreeIsNotLoaded() throws Exception {
+        final File storeFile = new File(temporaryFolder.getRoot(), "tree");
+        final XmlNode parsed = CachedJnlpTree.getRootNode(temporaryFolder.newFile(), JNLP.getBytes(StandardCharsets.UTF_8), ParserType.NORMAL);
+        CachedJnlpTree.store(storeFile, "digest", parsed);
+
+        final byte[] stored = Files.readAllBytes(storeFile.toPath());
+        Files.write(storeFile.toPath(), Arrays.copyOf(stored, stored.length - 10));
+
+        assertFalse(CachedJnlpTree.load(storeFile, "digest").isPresent());
+    }
+
+    private static String dump(final XmlNode node) {
+        final StringBuilder result = new StringBuilder("<").append(node.getNodeName());
+        for (final String name : node.getAttributeNames()) {
+            result.append(' ').append(name).append("='").append(node.getAttribute(name)).append('\'');
+        }
+        result.append('>').append(node.getNodeValue());
+        for (XmlNode child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            result.append(dump(child));
+        }
+        return result.append("</>").toString();
+    }
+}
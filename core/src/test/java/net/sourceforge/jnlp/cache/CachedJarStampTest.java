@@ -0,0 +1,55 @@
+package net.sourceforge.jnlp.cache;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Properties;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CachedJarStampTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File jar;
+    private final Properties properties = new Properties();
+
+    @Before
+    public void setup() throws Exception {
+        jar = temporaryFolder.newFile("test.jar");
+        Files.write(jar.toPath(), new byte[]{1, 2, 3});
+        CachedJarStamp.write(properties, "1", jar);
+    }
+
+    @Test
+    public void testUnchangedJarMatches() {
+        assertTrue(CachedJarStamp.matches(properties, "1", jar));
+    }
+
+    @Test
+    public void testOtherFormatDoesNotMatch() {
+        assertFalse(CachedJarStamp.matches(properties, "2", jar));
+    }
+
+    @Test
+    public void testChangedSizeDoesNotMatch() throws Exception {
+        final long lastModified = jar.lastModified();
+        Files.write(jar.toPath(), new byte[]{1, 2, 3, 4});
+        assertTrue(jar.setLastModified(lastModified));
+
+        assertFalse(CachedJarStamp.matches(properties, "1", jar));
+    }
+
+    @Test
+    public void testJarOutsideOfCacheIsIdentifiedByModificationTime() {
+        assertTrue(jar.setLastModified(jar.lastModified() - 10_000));
+
+        assertFalse(CachedJarStamp.matches(properties, "1", jar));
+    }
+}
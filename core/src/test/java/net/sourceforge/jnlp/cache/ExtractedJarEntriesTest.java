@@ -0,0 +1,116 @@
+package net.sourceforge.jnlp.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExtractedJarEntriesTest {
+
+    private static final Function<String, String> FILE_NAME = entryName -> new File(entryName).getName();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testExtract() throws Exception {
+        final File jar = createJar("native/libfoo.so", "foo", "bar.dll", "bar");
+        final File directory = new File(temporaryFolder.getRoot(), "native");
+
+        ExtractedJarEntries.extract(jar, directory, Arrays.asList("native/libfoo.so", "bar.dll"), FILE_NAME);
+
+        assertArrayEquals("foo".getBytes(UTF_8), Files.readAllBytes(new File(directory, "libfoo.so").toPath()));
+        assertArrayEquals("bar".getBytes(UTF_8), Files.readAllBytes(new File(directory, "bar.dll").toPath()));
+    }
+
+    @Test
+    public void testExtractedLibrariesAreReused() throws Exception {
+        final File jar = createJar("libfoo.so", "foo");
+        final File directory = new File(temporaryFolder.getRoot(), "native");
+        ExtractedJarEntries.extract(jar, directory, Collections.singletonList("libfoo.so"), FILE_NAME);
+
+        // same size, so only a new extraction would restore the original content
+        final File library = new File(directory, "libfoo.so");
+        Files.write(library.toPath(), "baz".getBytes(UTF_8));
+        ExtractedJarEntries.extract(jar, directory, Collections.singletonList("libfoo.so"), FILE_NAME);
+
+        assertArrayEquals("baz".getBytes(UTF_8), Files.readAllBytes(library.toPath()));
+    }
+
+    @Test
+    public void testChangedLibraryIsExtractedAgain() throws Exception {
+        final File jar = createJar("libfoo.so", "foo");
+        final File directory = new File(temporaryFolder.getRoot(), "native");
+        ExtractedJarEntries.extract(jar, directory, Collections.singletonList("libfoo.so"), FILE_NAME);
+
+        final File library = new File(directory, "libfoo.so");
+        Files.write(library.toPath(), "truncated".getBytes(UTF_8));
+        ExtractedJarEntries.extract(jar, directory, Collections.singletonList("libfoo.so"), FILE_NAME);
+
+        assertArrayEquals("foo".getBytes(UTF_8), Files.readAllBytes(library.toPath()));
+    }
+
+    @Test
+    public void testChangedJarIsExtractedAgain() throws Exception {
+        final File jar = createJar("libfoo.so", "foo");
+        final File directory = new File(temporaryFolder.getRoot(), "native");
+        ExtractedJarEntries.extract(jar, directory, Collections.singletonList("libfoo.so"), FILE_NAME);
+
+        writeJar(jar, "libfoo.so", "new content");
+        assertTrue(jar.setLastModified(jar.lastModified() + 10_000));
+        ExtractedJarEntries.extract(jar, directory, Collections.singletonList("libfoo.so"), FILE_NAME);
+
+        assertArrayEquals("new content".getBytes(UTF_8), Files.readAllBytes(new File(directory, "libfoo.so").toPath()));
+        final String[] files = directory.list((dir, name) -> name.endsWith(".tmp"));
+        assertEquals(0, files.length);
+    }
+
+    @Test
+    public void testOnlyMissingEntriesAreExtracted() throws Exception {
+        final File jar = createJar("lib/a.jar", "aaa", "lib/b.jar", "bbb", "lib/c.jar", "");
+        final File directory = new File(temporaryFolder.getRoot(), "nested");
+        ExtractedJarEntries.extract(jar, directory, Collections.singletonList("lib/a.jar"), Function.identity());
+
+        // same size, so only a new extraction would restore the original content
+        final File a = new File(directory, "lib/a.jar");
+        Files.write(a.toPath(), "xxx".getBytes(UTF_8));
+        final Map<String, File> extracted = ExtractedJarEntries.extract(jar, directory, Arrays.asList("lib/a.jar", "lib/b.jar", "lib/c.jar", "lib/d.jar"), Function.identity());
+
+        assertEquals(Arrays.asList("lib/a.jar", "lib/b.jar", "lib/c.jar"), new ArrayList<>(extracted.keySet()));
+        assertArrayEquals("xxx".getBytes(UTF_8), Files.readAllBytes(extracted.get("lib/a.jar").toPath()));
+        assertArrayEquals("bbb".getBytes(UTF_8), Files.readAllBytes(extracted.get("lib/b.jar").toPath()));
+        assertEquals(0, extracted.get("lib/c.jar").length());
+    }
+
+    private File createJar(String... namesAndContents) throws IOException {
+        final File jar = temporaryFolder.newFile();
+        writeJar(jar, namesAndContents);
+        return jar;
+    }
+
+    private static void writeJar(File jar, String... namesAndContents) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                out.putNextEntry(new JarEntry(namesAndContents[i]));
+                out.write(namesAndContents[i + 1].getBytes(UTF_8));
+                out.closeEntry();
+            }
+        }
+    }
+}
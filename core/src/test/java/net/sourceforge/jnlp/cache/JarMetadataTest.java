@@ -0,0 +1,110 @@
+package net.sourceforge.jnlp.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JarMetadataTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testRead() throws Exception {
+        final File jar = createJar(new Manifest(), "META-INF/INDEX.LIST", "com/example/Main.class", "Default.class",
+                "lib/nested.jar", "native/libfoo.so", "native/foo.dll", "native/", "images/logo.png");
+
+        final JarMetadata metadata = JarMetadata.read(jar);
+
+        assertTrue(metadata.hasJarIndex());
+        assertFalse(metadata.hasClassPath());
+        assertEquals(new HashSet<>(Arrays.asList("com.example", "")), metadata.getPackages());
+        assertEquals(Collections.singletonList("lib/nested.jar"), metadata.getNestedJars());
+        assertEquals(Arrays.asList("native/libfoo.so", "native/foo.dll"), metadata.getNativeLibraries());
+    }
+
+    @Test
+    public void testManifestClassPath() throws Exception {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, "other.jar");
+        final File jar = createJar(manifest, "com/example/Main.class");
+
+        final JarMetadata metadata = JarMetadata.read(jar);
+
+        assertTrue(metadata.hasClassPath());
+        assertFalse(metadata.hasJarIndex());
+    }
+
+    @Test
+    public void testStoreAndLoad() throws Exception {
+        final File jar = createJar(new Manifest(), "com/example/Main.class", "Default.class", "lib/a.jar", "lib/b.jar", "libfoo.so");
+        final File storeFile = new File(temporaryFolder.getRoot(), "metadata");
+        final JarMetadata metadata = JarMetadata.read(jar);
+
+        metadata.store(storeFile, jar);
+        final Optional<JarMetadata> loaded = JarMetadata.load(storeFile, jar);
+
+        assertTrue(loaded.isPresent());
+        assertEquals(metadata.hasJarIndex(), loaded.get().hasJarIndex());
+        assertEquals(metadata.hasClassPath(), loaded.get().hasClassPath());
+        assertEquals(metadata.getPackages(), loaded.get().getPackages());
+        assertEquals(metadata.getNestedJars(), loaded.get().getNestedJars());
+        assertEquals(metadata.getNativeLibraries(), loaded.get().getNativeLibraries());
+    }
+
+    @Test
+    public void testStoreAndLoadEmptyJar() throws Exception {
+        final File jar = createJar(new Manifest());
+        final File storeFile = new File(temporaryFolder.getRoot(), "metadata");
+
+        JarMetadata.read(jar).store(storeFile, jar);
+        final Optional<JarMetadata> loaded = JarMetadata.load(storeFile, jar);
+
+        assertTrue(loaded.isPresent());
+        assertTrue(loaded.get().getPackages().isEmpty());
+        assertTrue(loaded.get().getNestedJars().isEmpty());
+        assertTrue(loaded.get().getNativeLibraries().isEmpty());
+    }
+
+    @Test
+    public void testChangedJarInvalidatesStoredMetadata() throws Exception {
+        final File jar = createJar(new Manifest(), "com/example/Main.class");
+        final File storeFile = new File(temporaryFolder.getRoot(), "metadata");
+        JarMetadata.read(jar).store(storeFile, jar);
+
+        assertTrue(jar.setLastModified(jar.lastModified() - 10_000));
+
+        assertFalse(JarMetadata.load(storeFile, jar).isPresent());
+    }
+
+    private File createJar(Manifest manifest, String... entries) throws IOException {
+        final File jar = temporaryFolder.newFile();
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar), manifest)) {
+            for (String entry : entries) {
+                out.putNextEntry(new JarEntry(entry));
+                if (!entry.endsWith("/")) {
+                    out.write(new byte[]{1, 2, 3});
+                }
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
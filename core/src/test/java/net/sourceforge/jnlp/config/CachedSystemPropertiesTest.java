@@ -0,0 +1,123 @@
+package net.sourceforge.jnlp.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CachedSystemPropertiesTest {
+
+    private static final long ONE_HOUR = 60 * 60 * 1000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final List<String> receivedEtags = Collections.synchronizedList(new ArrayList<>());
+
+    private HttpServer server;
+    private URL url;
+    private File copy;
+    private volatile String etag = "\"v1\"";
+    private volatile String content = "deployment.proxy.type=0\n";
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/deployment.properties", this::handle);
+        server.start();
+        url = new URL("http://localhost:" + server.getAddress().getPort() + "/deployment.properties");
+        copy = new File(temporaryFolder.newFolder(), "system.deployment.properties");
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        receivedEtags.add(String.valueOf(ifNoneMatch));
+        exchange.getResponseHeaders().add("ETag", etag);
+        if (etag.equals(ifNoneMatch)) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        final byte[] body = content.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String getContent(final long maxAge, final boolean validate) throws IOException {
+        return new String(new CachedSystemProperties(url, copy, maxAge).getContent(validate), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testFirstFetchIsStored() throws Exception {
+        assertEquals("deployment.proxy.type=0\n", getContent(ONE_HOUR, false));
+        assertTrue(copy.isFile());
+        assertEquals(Collections.singletonList("null"), receivedEtags);
+    }
+
+    @Test
+    public void testFreshCopyIsUsedWithoutRequest() throws Exception {
+        getContent(ONE_HOUR, false);
+        content = "deployment.proxy.type=1\n";
+
+        assertEquals("deployment.proxy.type=0\n", getContent(ONE_HOUR, false));
+        assertEquals(1, receivedEtags.size());
+    }
+
+    @Test
+    public void testValidationSendsEtag() throws Exception {
+        getContent(ONE_HOUR, false);
+
+        assertEquals("deployment.proxy.type=0\n", getContent(ONE_HOUR, true));
+        assertEquals("\"v1\"", receivedEtags.get(1));
+    }
+
+    @Test
+    public void testChangedContentReplacesCopy() throws Exception {
+        getContent(ONE_HOUR, false);
+        etag = "\"v2\"";
+        content = "deployment.proxy.type=1\n";
+
+        assertEquals("deployment.proxy.type=1\n", getContent(ONE_HOUR, true));
+        assertEquals("deployment.proxy.type=1\n", getContent(ONE_HOUR, false));
+        assertEquals(2, receivedEtags.size());
+    }
+
+    @Test
+    public void testCopyIsUsedWhenServerIsGone() throws Exception {
+        getContent(ONE_HOUR, false);
+        server.stop(0);
+
+        assertEquals("deployment.proxy.type=0\n", getContent(0, false));
+    }
+
+    @Test
+    public void testOnlyHttpIsCacheable() throws Exception {
+        assertTrue(CachedSystemProperties.isCacheable(url));
+        assertFalse(CachedSystemProperties.isCacheable(copy.toURI().toURL()));
+    }
+}
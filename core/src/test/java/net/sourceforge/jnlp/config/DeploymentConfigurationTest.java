@@ -304,4 +304,26 @@ public class DeploymentConfigurationTest extends NoStdOutErrTest {
 
         assertEquals(values, result);
     }
+
+    @Test
+    public void testSnapshotIsReplacedWhenPropertyIsSet() throws Exception {
+        final DeploymentConfiguration config = new DeploymentConfiguration();
+        config.load();
+        config.setProperty("foo.count", " 42 ");
+        config.setProperty("foo.enabled", "TRUE");
+        config.setProperty("foo.list", "first, second");
+
+        final ConfigurationSnapshot snapshot = config.getSnapshot();
+        assertEquals(42, snapshot.getInt("foo.count", 0));
+        assertTrue(snapshot.getBoolean("foo.enabled"));
+        assertEquals(Arrays.asList("first", "second"), snapshot.getList("foo.list"));
+        assertEquals(7, snapshot.getInt("foo.missing", 7));
+        assertEquals(config.getProperty(ConfigurationConstants.KEY_PROXY_TYPE), snapshot.getProperty(ConfigurationConstants.KEY_PROXY_TYPE));
+
+        config.setProperty("foo.count", "not a number");
+
+        assertEquals(42, snapshot.getInt("foo.count", 0));
+        assertEquals(3, config.getSnapshot().getInt("foo.count", 3));
+        assertTrue(config.getSnapshot().getBoolean("foo.enabled"));
+    }
 }
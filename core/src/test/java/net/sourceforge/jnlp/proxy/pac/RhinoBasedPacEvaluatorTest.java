@@ -0,0 +1,101 @@
+package net.sourceforge.jnlp.proxy.pac;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RhinoBasedPacEvaluatorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testFindProxyForURL() throws Exception {
+        final PacEvaluator evaluator = createEvaluator(
+                "function FindProxyForURL(url, host) {\n" +
+                "    if (dnsDomainIs(host, '.example.com')) {\n" +
+                "        return 'PROXY proxy.example.com:8080';\n" +
+                "    }\n" +
+                "    return 'DIRECT';\n" +
+                "}\n");
+
+        assertEquals("PROXY proxy.example.com:8080", evaluator.getProxies(new URL("http://www.example.com/app.jnlp")));
+        assertEquals("DIRECT", evaluator.getProxies(new URL("http://www.example.org/app.jnlp")));
+    }
+
+    @Test
+    public void testPacScriptIsEvaluatedOnce() throws Exception {
+        final PacEvaluator evaluator = createEvaluator(
+                "var evaluations = 0;\n" +
+                "evaluations++;\n" +
+                "function FindProxyForURL(url, host) {\n" +
+                "    return 'PROXY evaluated' + evaluations + ':8080';\n" +
+                "}\n");
+
+        assertEquals("PROXY evaluated1:8080", evaluator.getProxies(new URL("http://one.example.com/")));
+        assertEquals("PROXY evaluated1:8080", evaluator.getProxies(new URL("http://two.example.com/")));
+    }
+
+    @Test
+    public void testGlobalsSetDuringLookupDoNotLeak() throws Exception {
+        final PacEvaluator evaluator = createEvaluator(
+                "var lastHost = 'none';\n" +
+                "function FindProxyForURL(url, host) {\n" +
+                "    var previous = lastHost;\n" +
+                "    lastHost = host;\n" +
+                "    return 'PROXY ' + previous + ':8080';\n" +
+                "}\n");
+
+        assertEquals("PROXY none:8080", evaluator.getProxies(new URL("http://one.example.com/")));
+        assertEquals("PROXY none:8080", evaluator.getProxies(new URL("http://two.example.com/")));
+    }
+
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        final PacEvaluator evaluator = createEvaluator(
+                "function FindProxyForURL(url, host) {\n" +
+                "    return 'PROXY ' + host + ':8080';\n" +
+                "}\n");
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                final URL url = new URL("http://host" + i + ".example.com/");
+                results.add(executor.submit(() -> evaluator.getProxies(url)));
+            }
+            for (int i = 0; i < 20; i++) {
+                assertEquals("PROXY host" + i + ".example.com:8080", results.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMissingFindProxyForURL() throws Exception {
+        final PacEvaluator evaluator = createEvaluator("var unrelated = 1;\n");
+
+        assertNull(evaluator.getProxies(new URL("http://www.example.com/")));
+    }
+
+    private PacEvaluator createEvaluator(String pacContents) throws IOException {
+        final File pacFile = temporaryFolder.newFile("proxy.pac");
+        Files.write(pacFile.toPath(), pacContents.getBytes(UTF_8));
+        return new RhinoBasedPacEvaluator(pacFile.toURI().toURL());
+    }
+}
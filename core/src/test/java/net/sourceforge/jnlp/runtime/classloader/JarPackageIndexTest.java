@@ -0,0 +1,74 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import net.sourceforge.jnlp.cache.JarMetadata;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JarPackageIndexTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testReadPackages() throws Exception {
+        final File jar = createJar(new Manifest(), "com/example/Main.class", "com/example/util/Helper.class", "Default.class", "images/logo.png");
+
+        final JarPackageIndex index = JarPackageIndex.of(JarMetadata.of(jar));
+
+        assertTrue(index.mayContainClass("com.example.Main"));
+        assertTrue(index.mayContainClass("com.example.Other$Inner"));
+        assertTrue(index.mayContainClass("com.example.util.Helper"));
+        assertTrue(index.mayContainClass("Default"));
+        assertFalse(index.mayContainClass("com.Example"));
+        assertFalse(index.mayContainClass("images.Logo"));
+        assertFalse(index.mayContainClass("org.example.Main"));
+    }
+
+    @Test
+    public void testNestedJarIsUnrestricted() throws Exception {
+        final File jar = createJar(new Manifest(), "com/example/Main.class", "lib/nested.jar");
+
+        assertTrue(JarPackageIndex.of(JarMetadata.of(jar)).mayContainClass("org.example.Main"));
+    }
+
+    @Test
+    public void testJarIndexIsUnrestricted() throws Exception {
+        final File jar = createJar(new Manifest(), "META-INF/INDEX.LIST", "com/example/Main.class");
+
+        assertTrue(JarPackageIndex.of(JarMetadata.of(jar)).mayContainClass("org.example.Main"));
+    }
+
+    @Test
+    public void testManifestClassPathIsUnrestricted() throws Exception {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, "other.jar");
+        final File jar = createJar(manifest, "com/example/Main.class");
+
+        assertTrue(JarPackageIndex.of(JarMetadata.of(jar)).mayContainClass("org.example.Main"));
+    }
+
+    private File createJar(Manifest manifest, String... entries) throws IOException {
+        final File jar = temporaryFolder.newFile();
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar), manifest)) {
+            for (String entry : entries) {
+                out.putNextEntry(new JarEntry(entry));
+                out.write(new byte[]{1, 2, 3});
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
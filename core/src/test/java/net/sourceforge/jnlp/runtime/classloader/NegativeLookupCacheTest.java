@@ -0,0 +1,59 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NegativeLookupCacheTest {
+
+    @Test
+    public void testKnownMissIsCounted() {
+        final NegativeLookupCache cache = new NegativeLookupCache(10);
+
+        assertFalse(cache.isKnownMiss("com.example.Missing"));
+        cache.addMiss("com.example.Missing", NegativeLookupCache.currentGeneration());
+
+        assertTrue(cache.isKnownMiss("com.example.Missing"));
+        assertTrue(cache.isKnownMiss("com.example.Missing"));
+        assertEquals(2, cache.getSavedLookups());
+    }
+
+    @Test
+    public void testInvalidateClearsMisses() {
+        final NegativeLookupCache cache = new NegativeLookupCache(10);
+        cache.addMiss("com.example.Missing", NegativeLookupCache.currentGeneration());
+
+        NegativeLookupCache.invalidateAll();
+
+        assertFalse(cache.isKnownMiss("com.example.Missing"));
+    }
+
+    @Test
+    public void testMissFoundBeforeInvalidationIsNotRecorded() {
+        final NegativeLookupCache cache = new NegativeLookupCache(10);
+        final long generation = NegativeLookupCache.currentGeneration();
+
+        NegativeLookupCache.invalidateAll();
+        cache.addMiss("com.example.Missing", generation);
+
+        assertFalse(cache.isKnownMiss("com.example.Missing"));
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        final NegativeLookupCache cache = new NegativeLookupCache(2);
+        final long generation = NegativeLookupCache.currentGeneration();
+
+        cache.addMiss("a", generation);
+        cache.addMiss("b", generation);
+        assertTrue(cache.isKnownMiss("a"));
+        cache.addMiss("c", generation);
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.isKnownMiss("a"));
+        assertFalse(cache.isKnownMiss("b"));
+        assertTrue(cache.isKnownMiss("c"));
+    }
+}
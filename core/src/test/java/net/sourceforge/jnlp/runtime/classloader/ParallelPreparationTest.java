@@ -0,0 +1,75 @@
+package net.sourceforge.jnlp.runtime.classloader;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelPreparationTest {
+
+    private final Map<String, Exception> failures = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    @Test
+    public void testResultsKeepOrderOfItems() {
+        final CountDownLatch lastPrepared = new CountDownLatch(1);
+
+        final List<String> results = ParallelPreparation.run(Arrays.asList("first", "second", "last"), 3,
+                item -> {
+                    if (item.equals("first")) {
+                        // the first item is prepared last
+                        assertTrue(lastPrepared.await(5, TimeUnit.SECONDS));
+                    } else if (item.equals("last")) {
+                        lastPrepared.countDown();
+                    }
+                    return item.toUpperCase();
+                },
+                (item, prepared) -> prepared,
+                failures::put);
+
+        assertEquals(Arrays.asList("FIRST", "SECOND", "LAST"), results);
+        assertTrue(failures.isEmpty());
+    }
+
+    @Test
+    public void testFailuresAreReportedPerItem() {
+        final List<String> results = ParallelPreparation.run(Arrays.asList("a", "broken", "b", "rejected", "c"), 2,
+                item -> {
+                    if (item.equals("broken")) {
+                        throw new IOException("cannot fetch " + item);
+                    }
+                    return item;
+                },
+                (item, prepared) -> {
+                    if (item.equals("rejected")) {
+                        throw new IllegalStateException("cannot create " + item);
+                    }
+                    return prepared;
+                },
+                failures::put);
+
+        assertEquals(Arrays.asList("a", "b", "c"), results);
+        assertEquals(Arrays.asList("broken", "rejected"), new ArrayList<>(failures.keySet()));
+        assertTrue(failures.get("broken") instanceof IOException);
+        assertTrue(failures.get("rejected") instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testSkippedPreparationIsPassedAsNull() {
+        final List<String> results = ParallelPreparation.run(Arrays.asList("registered", "new"), 2,
+                item -> item.equals("registered") ? null : "prepared " + item,
+                (item, prepared) -> prepared == null ? "reused " + item : prepared,
+                failures::put);
+
+        assertEquals(Arrays.asList("reused registered", "prepared new"), results);
+    }
+}
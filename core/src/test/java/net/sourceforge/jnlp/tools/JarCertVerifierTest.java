@@ -34,12 +34,20 @@ statement from your version.
 
 package net.sourceforge.jnlp.tools;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.nio.file.Files;
 import java.security.CodeSigner;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Vector;
 import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
 import net.adoptopenjdk.icedteaweb.jnlp.element.resource.JARDesc;
+import net.adoptopenjdk.icedteaweb.resources.ResourceTracker;
 import net.adoptopenjdk.icedteaweb.testing.tools.CodeSignerCreator;
 import net.sourceforge.jnlp.tools.JarCertVerifier.VerifyResult;
 import org.junit.Assert;
@@ -526,4 +534,31 @@ public class JarCertVerifierTest {
                 jcv.getCertsList().contains(alphaSigner.getSignerCertPath()));
     }
 
+    @Test
+    public void testVerifyManyJars() throws Exception {
+        final File dir = Files.createTempDirectory("JarCertVerifierTest").toFile();
+        dir.deleteOnExit();
+        final List<JARDesc> jars = new ArrayList<>();
+        final ResourceTracker tracker = new ResourceTracker();
+        for (int i = 0; i < 4; i++) {
+            final File jar = new File(dir, "jar" + i + ".jar");
+            jar.deleteOnExit();
+            try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar), new Manifest())) {
+                out.putNextEntry(new JarEntry("Class" + i + ".class"));
+                out.write(new byte[]{1, 2, 3});
+                out.closeEntry();
+            }
+            final URL location = jar.toURI().toURL();
+            tracker.addResource(location, null);
+            jars.add(new JARDesc(location, null, null, false, false, false, true));
+        }
+
+        final JarCertVerifier jcv = new JarCertVerifier(null);
+        jcv.add(jars, tracker);
+
+        Assert.assertEquals("All jars have been verified", 4, jcv.getJarSignableEntries().size());
+        Assert.assertEquals("Each jar has one signable entry", 4, JarCertVerifier.getTotalJarEntries(jcv.getJarSignableEntries()));
+        assertFalse("Unsigned jars are not signed", jcv.allJarsSigned());
+    }
+
 }
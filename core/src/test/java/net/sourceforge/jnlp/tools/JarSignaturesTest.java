@@ -0,0 +1,159 @@
+package net.sourceforge.jnlp.tools;
+
+import net.adoptopenjdk.icedteaweb.testing.tools.CodeSignerCreator;
+import net.sourceforge.jnlp.config.PathsAndFiles;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.security.CodeSigner;
+import java.security.Timestamp;
+import java.security.cert.CertPath;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Optional;
+import java.util.jar.JarEntry;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JarSignaturesTest {
+
+    private static final String DNPARTIAL = ", OU=JarSignatures Unit Test, O=IcedTea, L=Toronto, ST=Ontario, C=CA";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File jar;
+    private File storeFile;
+
+    @Before
+    public void setUp() throws Exception {
+        jar = temporaryFolder.newFile("test.jar");
+        Files.write(jar.toPath(), "not really a jar".getBytes(UTF_8));
+        storeFile = new File(temporaryFolder.getRoot(), "signatures");
+    }
+
+    @Test
+    public void testStoreAndLoad() throws Exception {
+        final CodeSigner alpha = CodeSignerCreator.getOneCodeSigner("CN=Alpha Signer" + DNPARTIAL, new Date(), 365);
+        final CodeSigner beta = CodeSignerCreator.getOneCodeSigner("CN=Beta Signer" + DNPARTIAL, new Date(), 365);
+        final Date signedAt = new Date(1_500_000_000_000L);
+        final CodeSigner timestampedBeta = new CodeSigner(beta.getSignerCertPath(), new Timestamp(signedAt, alpha.getSignerCertPath()));
+
+        final JarSignatures signatures = JarSignatures.of(true, Arrays.asList(
+                new SignedEntry("META-INF/MANIFEST.MF"),
+                new SignedEntry("dir/"),
+                new SignedEntry("a.class", alpha, timestampedBeta),
+                new SignedEntry("b.class", alpha)));
+
+        signatures.store(storeFile, jar);
+        final Optional<JarSignatures> loaded = JarSignatures.load(storeFile, jar);
+
+        assertTrue(loaded.isPresent());
+        assertEquals(2, loaded.get().getNumSignableEntries());
+        assertEquals(signatures.getSignCount(), loaded.get().getSignCount());
+        assertEquals(Integer.valueOf(2), loaded.get().getSignCount().get(alpha.getSignerCertPath()));
+
+        final CertPath betaPath = beta.getSignerCertPath();
+        final Timestamp timestamp = loaded.get().getCodeSigner(betaPath).get().getTimestamp();
+        assertEquals(signedAt, timestamp.getTimestamp());
+        assertEquals(alpha.getSignerCertPath(), timestamp.getSignerCertPath());
+        assertEquals(alpha.getTimestamp(), loaded.get().getCodeSigner(alpha.getSignerCertPath()).get().getTimestamp());
+    }
+
+    @Test
+    public void testJarWithoutManifest() {
+        JarSignatures.of(false, null).store(storeFile, jar);
+        final Optional<JarSignatures> loaded = JarSignatures.load(storeFile, jar);
+
+        assertTrue(loaded.isPresent());
+        assertEquals(1, loaded.get().getNumSignableEntries());
+        assertTrue(loaded.get().getSignCount().isEmpty());
+    }
+
+    @Test
+    public void testChangedJarInvalidatesStoredSignatures() throws Exception {
+        JarSignatures.of(true, Arrays.asList(new SignedEntry("a.class"))).store(storeFile, jar);
+
+        Files.write(jar.toPath(), "a different jar".getBytes(UTF_8));
+
+        assertFalse(JarSignatures.load(storeFile, jar).isPresent());
+    }
+
+    @Test
+    public void testCachedJarIsIdentifiedByDigest() throws Exception {
+        final String cacheDir = PathsAndFiles.CACHE_DIR.getFullPath();
+        try {
+            final File cacheRoot = temporaryFolder.newFolder("cache");
+            PathsAndFiles.CACHE_DIR.setValue(cacheRoot.getCanonicalPath());
+            final File entryDir = new File(cacheRoot, "0/1");
+            assertTrue(entryDir.mkdirs());
+            final File info = new File(entryDir, ".info");
+            Files.write(info.toPath(), "sha-256=1111\n".getBytes(UTF_8));
+            final File cachedJar = new File(entryDir, "test.jar");
+            Files.write(cachedJar.toPath(), "not really a jar".getBytes(UTF_8));
+            final File cachedStoreFile = new File(entryDir, ".sidecar-signatures");
+
+            JarSignatures.of(true, Arrays.asList(new SignedEntry("a.class"))).store(cachedStoreFile, cachedJar);
+            assertTrue(JarSignatures.load(cachedStoreFile, cachedJar).isPresent());
+
+            // same size and modification time, but a different content according to the cache
+            Files.write(info.toPath(), "sha-256=2222\n".getBytes(UTF_8));
+            assertFalse(JarSignatures.load(cachedStoreFile, cachedJar).isPresent());
+        } finally {
+            PathsAndFiles.CACHE_DIR.setValue(cacheDir);
+        }
+    }
+
+    @Test
+    public void testCachedJarChangedInPlaceIsDetected() throws Exception {
+        final String cacheDir = PathsAndFiles.CACHE_DIR.getFullPath();
+        try {
+            final File cacheRoot = temporaryFolder.newFolder("cache");
+            PathsAndFiles.CACHE_DIR.setValue(cacheRoot.getCanonicalPath());
+            final File entryDir = new File(cacheRoot, "0/1");
+            assertTrue(entryDir.mkdirs());
+            Files.write(new File(entryDir, ".info").toPath(), "sha-256=1111\n".getBytes(UTF_8));
+            final File cachedJar = new File(entryDir, "test.jar");
+            Files.write(cachedJar.toPath(), "not really a jar".getBytes(UTF_8));
+            final File cachedStoreFile = new File(entryDir, ".sidecar-signatures");
+
+            JarSignatures.of(true, Arrays.asList(new SignedEntry("a.class"))).store(cachedStoreFile, cachedJar);
+
+            // same size and recorded digest, but the file itself was replaced
+            Files.write(cachedJar.toPath(), "not really a JAR".getBytes(UTF_8));
+            assertTrue(cachedJar.setLastModified(cachedJar.lastModified() + 10_000));
+            assertFalse(JarSignatures.load(cachedStoreFile, cachedJar).isPresent());
+        } finally {
+            PathsAndFiles.CACHE_DIR.setValue(cacheDir);
+        }
+    }
+
+    @Test
+    public void testMissingOrCorruptStore() throws Exception {
+        assertFalse(JarSignatures.load(storeFile, jar).isPresent());
+
+        Files.write(storeFile.toPath(), "format=1\nsigners=x\n".getBytes(UTF_8));
+        assertFalse(JarSignatures.load(storeFile, jar).isPresent());
+    }
+
+    private static class SignedEntry extends JarEntry {
+        private final CodeSigner[] signers;
+
+        SignedEntry(String name, CodeSigner... signers) {
+            super(name);
+            this.signers = signers.length == 0 ? null : signers;
+        }
+
+        @Override
+        public CodeSigner[] getCodeSigners() {
+            return signers == null ? null : signers.clone();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package net.sourceforge.jnlp.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AtomicFilesTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testWriteReplacesTarget() throws Exception {
+        final File target = temporaryFolder.newFile("target");
+        Files.write(target.toPath(), "old".getBytes(StandardCharsets.UTF_8));
+
+        AtomicFiles.write(target, out -> out.write("new".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("new", new String(Files.readAllBytes(target.toPath()), StandardCharsets.UTF_8));
+        assertEquals(1, temporaryFolder.getRoot().list().length);
+    }
+
+    @Test
+    public void testFailedWriteKeepsTarget() throws Exception {
+        final File target = temporaryFolder.newFile("target");
+        Files.write(target.toPath(), "old".getBytes(StandardCharsets.UTF_8));
+
+        try {
+            AtomicFiles.write(target, out -> {
+                out.write("partial".getBytes(StandardCharsets.UTF_8));
+                throw new IOException("disk full");
+            });
+            fail("IOException expected");
+        } catch (IOException expected) {
+            // the content could not be written
+        }
+
+        assertEquals("old", new String(Files.readAllBytes(target.toPath()), StandardCharsets.UTF_8));
+        assertEquals(1, temporaryFolder.getRoot().list().length);
+    }
+
+    @Test
+    public void testMoveReplacesTarget() throws Exception {
+        final File source = temporaryFolder.newFile("source");
+        final File target = temporaryFolder.newFile("target");
+        Files.write(source.toPath(), "new".getBytes(StandardCharsets.UTF_8));
+
+        AtomicFiles.move(source, target);
+
+        assertFalse(source.exists());
+        assertTrue(target.isFile());
+        assertEquals("new", new String(Files.readAllBytes(target.toPath()), StandardCharsets.UTF_8));
+    }
+}
@@ -58,4 +58,36 @@ public class OutputControllerLoggerTest {
         assertThat(msg.getStackTrace(), containsString("Ex Msg"));
         assertThat(msg.getStackTrace(), containsString(getClass().getName()));
     }
+
+    @Test
+    public void argumentsAreExpandedWhenMessageIsLogged() {
+        final StringBuilder argument = new StringBuilder("ONE");
+        sut.info("message {}", argument);
+        argument.append("TWO");
+
+        assertThat(loggedMessages.get(0).getMessage(), is("message ONE"));
+    }
+
+    @Test
+    public void messagesOfDisabledLevelAreNotCreated() {
+        final BasicOutputController outputController = new BasicOutputController() {
+            @Override
+            public void log(final MessageWithHeader l) {
+                loggedMessages.add(l);
+            }
+
+            @Override
+            public boolean isLoggable(final OutputControllerLevel level) {
+                return level != DEBUG;
+            }
+        };
+        final Logger logger = new OutputControllerLoggerFactory().getLogger(getClass(), outputController);
+
+        logger.debug("message {}", "ONE");
+        logger.debug("message TWO", new RuntimeException("Ex Msg"));
+        logger.info("message {}", "THREE");
+
+        assertThat(loggedMessages, hasSize(1));
+        assertThat(loggedMessages.get(0).getMessage(), is("message THREE"));
+    }
 }
@@ -0,0 +1,156 @@
+package net.adoptopenjdk.icedteaweb.xmlparser;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Removes the comments from xml while it is read, as well as the whitespace in front of and after the content.
+ * Comments starting with {@code <?--} are removed too, as they are found in jnlp files generated by some devices.
+ * Only a small buffer is held in memory, no matter how big the xml is.
+ */
+class CommentStrippingReader extends Reader {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int WINDOW_SIZE = 4;
+    private static final int NO_CHAR = -2;
+
+    private final Reader in;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferPosition = 0;
+    private int bufferLength = 0;
+    private boolean endOfInput = false;
+
+    private final char[] window = new char[WINDOW_SIZE];
+    private int charsInWindow = 0;
+    private boolean inComment = false;
+    private boolean leadingWhitespace = true;
+
+    private final StringBuilder whitespace = new StringBuilder();
+    private int whitespacePosition = 0;
+    private int afterWhitespace = NO_CHAR;
+
+    CommentStrippingReader(final Reader in) {
+        this.in = in;
+    }
+
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int count = 0;
+        while (count < len) {
+            final int ch = next();
+            if (ch == -1) {
+                break;
+            }
+            cbuf[off + count++] = (char) ch;
+        }
+        return count == 0 ? -1 : count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Holds back a run of whitespace until the next char is known, so whitespace at the end can be dropped.
+     */
+    private int next() throws IOException {
+        if (whitespacePosition < whitespace.length()) {
+            return whitespace.charAt(whitespacePosition++);
+        }
+        if (afterWhitespace != NO_CHAR) {
+            final int ch = afterWhitespace;
+            afterWhitespace = NO_CHAR;
+            return ch;
+        }
+
+        int ch = nextWithoutComments();
+        while (leadingWhitespace && isWhitespace(ch)) {
+            ch = nextWithoutComments();
+        }
+        leadingWhitespace = false;
+        if (!isWhitespace(ch)) {
+            return ch;
+        }
+
+        whitespace.setLength(0);
+        while (isWhitespace(ch)) {
+            whitespace.append((char) ch);
+            ch = nextWithoutComments();
+        }
+        if (ch == -1) {
+            whitespace.setLength(0);
+            whitespacePosition = 0;
+            return -1;
+        }
+        afterWhitespace = ch;
+        whitespacePosition = 1;
+        return whitespace.charAt(0);
+    }
+
+    private static boolean isWhitespace(final int ch) {
+        return ch != -1 && ch <= ' ';
+    }
+
+    /**
+     * Looks at the next four chars to detect the start and end of comments.
+     */
+    private int nextWithoutComments() throws IOException {
+        while (true) {
+            while (charsInWindow < WINDOW_SIZE) {
+                final int ch = nextFromInput();
+                if (ch == -1) {
+                    // the rest of the window is content unless it belongs to an unterminated comment
+                    if (inComment || charsInWindow == 0) {
+                        charsInWindow = 0;
+                        return -1;
+                    }
+                    return shiftWindow();
+                }
+                window[charsInWindow++] = (char) ch;
+            }
+
+            if (inComment) {
+                if (window[0] == '-' && window[1] == '-' && window[2] == '>') {
+                    window[0] = window[3];
+                    charsInWindow = 1;
+                    inComment = false;
+                } else {
+                    shiftWindow();
+                }
+            } else if (window[0] == '<' && (window[1] == '!' || window[1] == '?') && window[2] == '-' && window[3] == '-') {
+                charsInWindow = 0;
+                inComment = true;
+            } else {
+                return shiftWindow();
+            }
+        }
+    }
+
+    private char shiftWindow() {
+        final char first = window[0];
+        System.arraycopy(window, 1, window, 0, charsInWindow - 1);
+        charsInWindow--;
+        return first;
+    }
+
+    private int nextFromInput() throws IOException {
+        if (bufferPosition == bufferLength) {
+            if (endOfInput) {
+                return -1;
+            }
+            final int read = in.read(buffer, 0, BUFFER_SIZE);
+            if (read <= 0) {
+                endOfInput = true;
+                return -1;
+            }
+            bufferPosition = 0;
+            bufferLength = read;
+        }
+        return buffer[bufferPosition++];
+    }
+}
@@ -43,7 +43,7 @@ import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
@@ -63,15 +63,15 @@ public class MalformedXMLParser extends XMLParser {
     private static final Logger LOG = LoggerFactory.getLogger(MalformedXMLParser.class);
 
     /**
-     * Reads malformed XML from the InputStream original and returns a new
-     * InputStream which can be used to read a well-formed version of the input
+     * Reads malformed XML from the Reader original and returns a new
+     * Reader which can be used to read a well-formed version of the input
      *
      * @param original original input
-     * @return an {@link InputStream} which can be used to read a well-formed
+     * @return a {@link Reader} which can be used to read a well-formed
      * version of the input XML
      * @throws ParseException if an exception occurs while parsing the input
      */
-    public String preprocessXml(final String original) throws ParseException {
+    public Reader preprocessXml(final Reader original) throws ParseException {
         LOG.info("Using MalformedXMLParser");
         ParseException.setUsed(MALFORMED);
         try {
@@ -88,9 +88,9 @@ public class MalformedXMLParser extends XMLParser {
             final Writer writer = new StringWriter();
             final XMLWriter xmlWriter = new XMLWriter(writer);
             reader.setContentHandler(xmlWriter);
-            final InputSource s = new InputSource(new StringReader(original));
+            final InputSource s = new InputSource(original);
             reader.parse(s);
-            return writer.toString();
+            return new StringReader(writer.toString());
         } catch (final SAXException | IOException e1) {
             throw new ParseException("Invalid XML document syntax.", e1);
         }
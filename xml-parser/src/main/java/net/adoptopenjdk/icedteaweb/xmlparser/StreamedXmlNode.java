@@ -0,0 +1,178 @@
+package net.adoptopenjdk.icedteaweb.xmlparser;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.SPACE;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+/**
+ * An element built directly from the events of a {@link XMLStreamReader}, without an intermediate DOM,
+ * or read back by {@link XmlNodeSerializer}.
+ * It behaves like {@link XmlNodeImpl}: the value of an element is its text if it has no child elements,
+ * missing attributes have an empty value and the attribute names are sorted.
+ */
+class StreamedXmlNode implements XmlNode, Comparable<XmlNode> {
+
+    private final String name;
+    private final Map<String, String> attributes;
+    private List<XmlNode> children = new ArrayList<>();
+    private StringBuilder text;
+    private String value;
+    private XmlNode nextSibling;
+
+    StreamedXmlNode(final String name, final Map<String, String> attributes) {
+        this.name = name;
+        this.attributes = attributes;
+    }
+
+    /**
+     * Reads the document and builds the tree of its elements.
+     *
+     * @return the root element
+     * @throws XMLStreamException if the document is not well-formed
+     */
+    static StreamedXmlNode read(final XMLStreamReader reader) throws XMLStreamException {
+        final Deque<StreamedXmlNode> openElements = new ArrayDeque<>();
+        StreamedXmlNode root = null;
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case START_ELEMENT:
+                    final StreamedXmlNode element = new StreamedXmlNode(reader.getLocalName(), readAttributes(reader));
+                    if (openElements.isEmpty()) {
+                        root = element;
+                    } else {
+                        openElements.peek().addChild(element);
+                    }
+                    openElements.push(element);
+                    break;
+                case CHARACTERS:
+                case CDATA:
+                case SPACE:
+                    if (!openElements.isEmpty()) {
+                        openElements.peek().addText(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                    break;
+                case END_ELEMENT:
+                    openElements.pop().complete();
+                    break;
+                default:
+                    // comments and processing instructions are not part of the tree
+            }
+        }
+        if (root == null) {
+            throw new XMLStreamException("Document has no root element");
+        }
+        return root;
+    }
+
+    private static Map<String, String> readAttributes(final XMLStreamReader reader) {
+        final int count = reader.getAttributeCount();
+        if (count == 0) {
+            return Collections.emptyMap();
+        }
+        final Map<String, String> attributes = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            final String prefix = reader.getAttributePrefix(i);
+            final String localName = reader.getAttributeLocalName(i);
+            final String name = prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+            attributes.put(name, reader.getAttributeValue(i));
+        }
+        return attributes;
+    }
+
+    void addChild(final StreamedXmlNode child) {
+        // the text of an element with children is never used
+        text = null;
+        children.add(child);
+    }
+
+    void addText(final char[] characters, final int start, final int length) {
+        if (children.isEmpty()) {
+            if (text == null) {
+                text = new StringBuilder(length);
+            }
+            text.append(characters, start, length);
+        }
+    }
+
+    /**
+     * Called once all children and the text have been added.
+     */
+    void complete() {
+        for (int i = 0; i < children.size() - 1; i++) {
+            ((StreamedXmlNode) children.get(i)).nextSibling = children.get(i + 1);
+        }
+        children = children.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(children);
+        value = !children.isEmpty() ? "" : text != null ? text.toString() : "";
+        text = null;
+    }
+
+    @Override
+    public XmlNode getFirstChild() {
+        return children.isEmpty() ? null : children.get(0);
+    }
+
+    @Override
+    public XmlNode getNextSibling() {
+        return nextSibling;
+    }
+
+    @Override
+    public String getNodeValue() {
+        return value;
+    }
+
+    @Override
+    public XmlNode[] getChildNodes() {
+        return children.toArray(new XmlNode[0]);
+    }
+
+    @Override
+    public List<String> getAttributeNames() {
+        return new ArrayList<>(attributes.keySet());
+    }
+
+    @Override
+    public String getAttribute(final String name) {
+        return attributes.getOrDefault(name, "");
+    }
+
+    @Override
+    public List<XmlNode> getChildren(final String name) {
+        return children.stream()
+                .filter(c -> Objects.equals(c.getNodeName(), name))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String getNodeName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "XmlNode" + " - " + name;
+    }
+
+    @Override
+    public int compareTo(final XmlNode o) {
+        final String nameB = Optional.ofNullable(o)
+                .map(XmlNode::getNodeName)
+                .orElse("");
+        return name.compareTo(nameB);
+    }
+}
@@ -36,19 +36,20 @@ package net.adoptopenjdk.icedteaweb.xmlparser;
 
 import net.adoptopenjdk.icedteaweb.logging.Logger;
 import net.adoptopenjdk.icedteaweb.logging.LoggerFactory;
-import org.w3c.dom.Document;
-import org.xml.sax.InputSource;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
-import java.io.StringReader;
+import java.io.Reader;
 
 import static net.adoptopenjdk.icedteaweb.xmlparser.ParserType.NORMAL;
 
 /**
  * A gateway to the actual implementation of the parsers.
  * <p>
+ * The xml is read in a single pass: comments are removed while the input is decoded and
+ * the tree of {@link XmlNode XmlNodes} is built directly from the StAX events.
+ * <p>
  * Used by net.sourceforge.jnlp.Parser
  */
 public class XMLParser {
@@ -57,6 +58,19 @@ public class XMLParser {
 
     public static final String CODEBASE = "codebase";
 
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    /**
+     * Like the DOM parser used before, element and attribute names are taken as written
+     * including their prefix, and adjacent text is reported in one piece.
+     */
+    private static XMLInputFactory createInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
     /**
      * Parses input from an InputStream and returns a Node representing the
      * root of the parse tree.
@@ -67,19 +81,27 @@ public class XMLParser {
      */
     public final XmlNode getRootNode(final InputStream input) throws ParseException {
         try {
-            final String sanitizedXml = XMLSanitizer.sanitizeXml(new XmlStreamReader(input));
-            final String processedXml = preprocessXml(sanitizedXml);
-            final InputSource xmlInputStream = new InputSource(new StringReader(processedXml));
-            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-            Document doc = dBuilder.parse(xmlInputStream);
-            return new XmlNodeImpl(doc.getDocumentElement());
+            final Reader processedXml = preprocessXml(new CommentStrippingReader(new XmlStreamReader(input)));
+            final XMLStreamReader xmlReader;
+            synchronized (INPUT_FACTORY) {
+                xmlReader = INPUT_FACTORY.createXMLStreamReader(processedXml);
+            }
+            try {
+                return StreamedXmlNode.read(xmlReader);
+            } finally {
+                xmlReader.close();
+            }
         } catch (Exception ex) {
             throw new ParseException("Invalid XML document syntax.", ex);
         }
     }
 
-    public String preprocessXml(final String original) throws ParseException {
+    /**
+     * @param original the xml without comments
+     * @return a reader of well-formed xml
+     * @throws ParseException if the xml cannot be processed
+     */
+    public Reader preprocessXml(final Reader original) throws ParseException {
         LOG.info("Using XMLParser");
         ParseException.setUsed(NORMAL);
         return original;
@@ -25,66 +25,19 @@ class XMLSanitizer {
      * xml code.
      *
      * @param in The reader of the containing the xml.
-     * @return A new reader for the sanitized xml
+     * @return the sanitized xml
+     * @see CommentStrippingReader
      */
     static String sanitizeXml(final Reader in) {
         try {
+            final Reader sanitized = new CommentStrippingReader(in);
             final StringBuilder result = new StringBuilder();
-            final char[] buffer = new char[4];
-            int charInBuffer = 0;
-            boolean inComment = false;
-
-            while (true) {
-                // fill the buffer
-                for (; charInBuffer < 4; charInBuffer++) {
-                    final int ch = in.read();
-                    if (ch == -1) {
-                        // end of input stream
-                        // write buffered content and flush
-                        if (!inComment) {
-                            for (int i = 0; i < charInBuffer; i++) {
-                                result.append(buffer[i]);
-                            }
-                        }
-                        return result.toString().trim();
-                    }
-                    buffer[charInBuffer] = (char) ch;
-                }
-
-                // at this point the buffer is always full
-                if (inComment) {
-                    if (buffer[0] == '-' && buffer[1] == '-' && buffer[2] == '>') {
-                        // end of comment
-                        // prepare buffer for refilling
-                        buffer[0] = buffer[3];
-                        charInBuffer = 1;
-                        inComment = false;
-                    } else {
-                        // shift buffer content one to the left
-                        // and drop buffer[0]
-                        buffer[0] = buffer[1];
-                        buffer[1] = buffer[2];
-                        buffer[2] = buffer[3];
-                        charInBuffer--;
-                    }
-                } else {
-                    // jnlp files from a MFSys25  contain '<?-- JViewerVersion 3.30a -->' therefore we must treat ! and ? equally
-                    if (buffer[0] == '<' && (buffer[1] == '!' || buffer[1] == '?') && buffer[2] == '-' && buffer[3] == '-') {
-                        // start of comment
-                        // prepare buffer for refilling
-                        charInBuffer = 0;
-                        inComment = true;
-                    } else {
-                        // shift buffer content one to the left
-                        // and write out buffer[0]
-                        result.append(buffer[0]);
-                        buffer[0] = buffer[1];
-                        buffer[1] = buffer[2];
-                        buffer[2] = buffer[3];
-                        charInBuffer--;
-                    }
-                }
+            final char[] buffer = new char[4096];
+            int read;
+            while ((read = sanitized.read(buffer)) != -1) {
+                result.append(buffer, 0, read);
             }
+            return result.toString();
         } catch (final Exception e) {
             throw new RuntimeException("Error in XML", e);
         }
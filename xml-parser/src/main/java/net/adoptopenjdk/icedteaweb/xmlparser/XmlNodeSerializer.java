@@ -0,0 +1,116 @@
+package net.adoptopenjdk.icedteaweb.xmlparser;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes a tree of {@link XmlNode XmlNodes} in a compact binary form and reads it back,
+ * so a parsed document can be reused without parsing the xml again.
+ * Only the element names, the attributes and the values of the elements are kept.
+ */
+public class XmlNodeSerializer {
+
+    private static final int MAX_STRING_LENGTH = 16 * 1024 * 1024;
+
+    private XmlNodeSerializer() {
+        // do not instantiate
+    }
+
+    /**
+     * Writes the tree below the given node. The stream is flushed but not closed.
+     *
+     * @param root the root of the tree
+     * @param out  the stream to write to
+     * @throws IOException if writing fails
+     */
+    public static void write(final XmlNode root, final OutputStream out) throws IOException {
+        final DataOutputStream data = new DataOutputStream(out);
+        writeNode(root, data);
+        data.flush();
+    }
+
+    /**
+     * Reads a tree written by {@link #write(XmlNode, OutputStream)}.
+     *
+     * @param in the stream to read from
+     * @return the root of the tree
+     * @throws IOException if reading fails or the data is corrupt
+     */
+    public static XmlNode read(final InputStream in) throws IOException {
+        return readNode(new DataInputStream(in));
+    }
+
+    private static void writeNode(final XmlNode node, final DataOutputStream out) throws IOException {
+        writeString(node.getNodeName(), out);
+
+        final List<String> attributeNames = node.getAttributeNames();
+        out.writeInt(attributeNames.size());
+        for (final String name : attributeNames) {
+            writeString(name, out);
+            writeString(node.getAttribute(name), out);
+        }
+
+        final XmlNode[] children = node.getChildNodes();
+        out.writeInt(children.length);
+        if (children.length == 0) {
+            writeString(node.getNodeValue(), out);
+        }
+        for (final XmlNode child : children) {
+            writeNode(child, out);
+        }
+    }
+
+    private static StreamedXmlNode readNode(final DataInputStream in) throws IOException {
+        final String name = readString(in);
+
+        final int attributeCount = readCount(in);
+        final Map<String, String> attributes = attributeCount == 0 ? Collections.emptyMap() : new TreeMap<>();
+        for (int i = 0; i < attributeCount; i++) {
+            attributes.put(readString(in), readString(in));
+        }
+
+        final StreamedXmlNode node = new StreamedXmlNode(name, attributes);
+        final int childCount = readCount(in);
+        if (childCount == 0) {
+            final String value = readString(in);
+            node.addText(value.toCharArray(), 0, value.length());
+        }
+        for (int i = 0; i < childCount; i++) {
+            node.addChild(readNode(in));
+        }
+        node.complete();
+        return node;
+    }
+
+    private static void writeString(final String value, final DataOutputStream out) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_LENGTH) {
+            throw new IOException("Invalid string length " + length);
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readCount(final DataInputStream in) throws IOException {
+        final int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid count " + count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,72 @@
+package net.adoptopenjdk.icedteaweb.xmlparser;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class StreamedXmlNodeTest {
+
+    private static final String XML = "<?xml version=\"1.0\"?>\n" +
+            "<jnlp spec=\"1.0\" codebase=\"http://localhost/\" xmlns:jfx=\"http://javafx.com\">\n" +
+            "  <!-- comment -->\n" +
+            "  <information>\n" +
+            "    <title>Test <![CDATA[&]]> &amp; more</title>\n" +
+            "    <description kind=\"short\"/>\n" +
+            "  </information>\n" +
+            "  <jfx:javafx-desc main-class=\"Main\"/>\n" +
+            "</jnlp>\n";
+
+    @Test
+    public void testTreeIsBuiltFromStream() throws Exception {
+        final XmlNode root = parse(XML);
+
+        assertEquals("jnlp", root.getNodeName());
+        assertEquals("", root.getNodeValue());
+        assertEquals(Arrays.asList("codebase", "spec", "xmlns:jfx"), root.getAttributeNames());
+        assertEquals("http://localhost/", root.getAttribute("codebase"));
+        assertEquals("", root.getAttribute("href"));
+
+        final XmlNode information = root.getFirstChild();
+        assertEquals("information", information.getNodeName());
+        assertEquals(2, information.getChildNodes().length);
+        assertEquals("Test & & more", information.getFirstChild().getNodeValue());
+
+        final XmlNode description = information.getChildren("description").get(0);
+        assertSame(description, information.getFirstChild().getNextSibling());
+        assertEquals("short", description.getAttribute("kind"));
+        assertEquals("", description.getNodeValue());
+        assertNull(description.getNextSibling());
+
+        final XmlNode javafxDesc = information.getNextSibling();
+        assertEquals("jfx:javafx-desc", javafxDesc.getNodeName());
+        assertNull(javafxDesc.getNextSibling());
+    }
+
+    @Test
+    public void testMalformedTreeIsBuiltFromStream() throws Exception {
+        final XmlNode root = new MalformedXMLParser().getRootNode(toStream("<jnlp><information><title>Test</information><resources/></jnlp>"));
+
+        assertEquals("jnlp", root.getNodeName());
+        assertEquals("Test", root.getFirstChild().getFirstChild().getNodeValue());
+        assertEquals("resources", root.getFirstChild().getNextSibling().getNodeName());
+    }
+
+    @Test(expected = ParseException.class)
+    public void testMalformedXmlIsRejected() throws Exception {
+        parse("<jnlp><information><title>Test</information></jnlp>");
+    }
+
+    private static XmlNode parse(final String xml) throws ParseException {
+        return new XMLParser().getRootNode(toStream(xml));
+    }
+
+    private static ByteArrayInputStream toStream(final String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
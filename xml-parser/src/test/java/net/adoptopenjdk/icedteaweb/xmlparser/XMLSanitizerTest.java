@@ -47,4 +47,35 @@ public class XMLSanitizerTest {
         // then
         assertEquals(text.replaceAll("<\\?-- this one -->", ""), result);
     }
+
+    @Test
+    public void shouldRemoveSurroundingWhitespace() {
+        // given
+        final String text = "  \n <jnlp>\n  <title> A </title>\n</jnlp>\n\t ";
+        final Reader input = new StringReader(text);
+
+        // when
+        final String result = XMLSanitizer.sanitizeXml(input);
+
+        // then
+        assertEquals(text.trim(), result);
+    }
+
+    @Test
+    public void shouldRemoveCommentLargerThanBuffer() {
+        // given
+        final StringBuilder comment = new StringBuilder("<!--");
+        for (int i = 0; i < 5000; i++) {
+            comment.append("- ->");
+        }
+        comment.append("-->");
+        final String text = "<jnlp>" + comment + "<title/>" + comment + "</jnlp>";
+        final Reader input = new StringReader(text);
+
+        // when
+        final String result = XMLSanitizer.sanitizeXml(input);
+
+        // then
+        assertEquals("<jnlp><title/></jnlp>", result);
+    }
 }